@@ -3,8 +3,6 @@
  */
 package com.pablosesteban.adt;
 
-import com.pablosesteban.adt.impl.DirectedGraph;
-
 /**
  * An Abstract Data Type (ADT) which defines the fundamental graph operations.
  * A graph is a set of vertices and a collection of edges that each connect a
@@ -61,6 +59,29 @@ public interface Graph {
      */
     Iterable<Integer> getAdjacentVertices(int v);
     
+    /**
+     * Gets the number of vertices adjacent to a vertex, i.e. its degree. In
+     * directed graphs it gives its outdegree.
+     * 
+     * @param v a vertex of the graph
+     * @return the number of vertices adjacent to v
+     */
+    int degree(int v);
+    
+    /**
+     * Gets the adjacent vertex at a given position of the adjacency list of a
+     * vertex, in the same order given by getAdjacentVertices(v).
+     * Together with degree(v) it is a primitive cursor over the adjacency list
+     * which lets clients iterate through it neither boxing vertices nor
+     * allocating iterators:<br>
+     * for (int i = 0; i < g.degree(v); i++) { int w = g.getAdjacentVertex(v, i); }
+     * 
+     * @param v a vertex of the graph
+     * @param i a position between 0 and degree(v)-1
+     * @return the adjacent vertex at position i of the adjacency list of v
+     */
+    int getAdjacentVertex(int v, int i);
+    
     /**
      * Gets the number of vertices in the graph
      * 
@@ -75,5 +96,5 @@ public interface Graph {
      * 
      * @return the reverse of a directed graph
      */
-    DirectedGraph reverse();
+    Graph reverse();
 }
@@ -0,0 +1,65 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt;
+
+/**
+ * An Abstract Data Type (ADT) for a collection of integer indices between 0 and a fixed capacity - 1, each one
+ * associated with a double key, where the head of the queue is the index with the least key. If multiple indices are
+ * tied for least key, the head is one of those indices.
+ * Unlike the PriorityQueue, the key of an index already on the queue can be decreased, which is the operation needed by
+ * graph-processing clients keeping one entry per vertex (e.g. the Dijkstra's and Prim's algorithms), and keys are
+ * primitive doubles, so no object is created per operation.
+ */
+public interface IndexMinPriorityQueue {
+	/**
+	 * Insert an index associated with a key into the priority queue
+	 *
+	 * @param i an index not on the priority queue
+	 * @param key the key associated with the index
+	 */
+	void insert(int i, double key);
+
+	/**
+	 * Decrease the key associated with an index on the priority queue
+	 *
+	 * @param i an index on the priority queue
+	 * @param key the new key associated with the index, not larger than the current one
+	 */
+	void decreaseKey(int i, double key);
+
+	/**
+	 * Check if an index is on the priority queue
+	 *
+	 * @param i an index
+	 * @return true if the index is on the priority queue, otherwise false
+	 */
+	boolean contains(int i);
+
+	/**
+	 * Returns and removes the index with the least key of the priority queue
+	 *
+	 * @return the index with the least key
+	 */
+	int delMin();
+
+	/**
+	 * Removes all the indices of the priority queue, in time proportional to their number, so the priority queue can
+	 * be reused
+	 */
+	void clear();
+
+	/**
+	 * Check if priority queue is empty
+	 *
+	 * @return true if the priority queue has no indices, otherwise false
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Returns the number of indices in the priority queue
+	 *
+	 * @return the number of indices in the priority queue
+	 */
+	int size();
+}
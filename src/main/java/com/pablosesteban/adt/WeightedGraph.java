@@ -58,6 +58,39 @@ public interface WeightedGraph {
 	 */
 	Iterable<Edge> getIncidentEdges(int v);
 	
+	/**
+	 * Gets the number of edges incident to a vertex, i.e. its degree. In directed
+	 * graphs it gives its outdegree.
+	 * 
+	 * @param v a vertex in the graph
+	 * @return the number of edges incident to v
+	 */
+	int degree(int v);
+	
+	/**
+	 * Gets the vertex the edge at a given position of the incident edges of a vertex
+	 * points to, in the same order given by getIncidentEdges(v).
+	 * Together with degree(v) and getIncidentWeight(v, i) it is a primitive cursor
+	 * over the incident edges which lets clients iterate through them neither boxing
+	 * vertices nor allocating iterators or edges:<br>
+	 * for (int i = 0; i < wg.degree(v); i++) { int w = wg.getAdjacentVertex(v, i); double weight = wg.getIncidentWeight(v, i); }
+	 * 
+	 * @param v a vertex in the graph
+	 * @param i a position between 0 and degree(v)-1
+	 * @return the vertex the edge at position i of the incident edges of v points to
+	 */
+	int getAdjacentVertex(int v, int i);
+	
+	/**
+	 * Gets the weight of the edge at a given position of the incident edges of a
+	 * vertex, in the same order given by getIncidentEdges(v).
+	 * 
+	 * @param v a vertex in the graph
+	 * @param i a position between 0 and degree(v)-1
+	 * @return the weight of the edge at position i of the incident edges of v
+	 */
+	double getIncidentWeight(int v, int i);
+	
 	/**
 	 * Get all of the graphs edges (ignoring any self-loops)
 	 * 
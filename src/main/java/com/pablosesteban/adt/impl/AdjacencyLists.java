@@ -0,0 +1,63 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Arrays;
+
+/**
+ * A vertex-indexed array of adjacency lists where each list is a resizing int
+ * array instead of a linked list of Integer nodes, so that each adjacent vertex
+ * costs 4 bytes (8 in the worst case, right after the array doubles) instead of
+ * a node object plus a boxed Integer, and scanning a list reads contiguous memory.
+ * The lists are created lazily on the first edge of a vertex and double their
+ * length whenever they are full, so adding a vertex takes amortized constant time.
+ * Positions are given in the reverse order of insertion, the same order in which
+ * a LinkedBag iterates through its elements, so replacing the linked lists does
+ * not change the paths or orders computed by graph-processing clients.
+ */
+class AdjacencyLists {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private int[][] lists;
+    private int[] degrees;
+
+    AdjacencyLists(int numberOfVertices) {
+        lists = new int[numberOfVertices][];
+        degrees = new int[numberOfVertices];
+    }
+
+    void add(int v, int w) {
+        if (lists[v] == null) {
+            lists[v] = new int[INITIAL_CAPACITY];
+        }else if (degrees[v] == lists[v].length) {
+            lists[v] = Arrays.copyOf(lists[v], degrees[v] * 2);
+        }
+
+        lists[v][degrees[v]++] = w;
+    }
+
+    int degree(int v) {
+        return degrees[v];
+    }
+
+    int get(int v, int i) {
+        if (i < 0 || i >= degrees[v]) {
+            throw new IndexOutOfBoundsException("Vertex " + v + " has no adjacent vertex at position " + i);
+        }
+
+        return lists[v][degrees[v] - 1 - i];
+    }
+
+    Iterable<Integer> iterable(int v) {
+        if (lists[v] == null) {
+            return new IntArrayIterable(new int[0], 0, 0, true);
+        }
+
+        return new IntArrayIterable(lists[v], 0, degrees[v], true);
+    }
+
+    int size() {
+        return lists.length;
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.Graph;
+
+/**
+ * A read-only Graph implementation based on the Compressed Sparse Row (CSR) data
+ * structure, where all the adjacency lists are packed one after the other into a
+ * single int array of targets, and a vertex-indexed int array of offsets gives
+ * where the adjacency list of each vertex starts, so that, the vertices adjacent
+ * to v are targets[offsets[v]] through targets[offsets[v+1]-1].
+ * The graph is built by a Builder which collects the edges and then freezes them
+ * into the two arrays, sorting them by source vertex with a counting sort in time
+ * proportional to the number of vertices (V) plus the number of edges (E). Once
+ * built, edges can not be added anymore.
+ * Both DIRECTED (each edge is stored once) and UNDIRECTED (each edge is stored
+ * twice, one per direction) graphs are supported.
+ * This implementation has a constraint: vertex names must be integer indices.
+ * Parallel edges and self-loops are allowed.
+ * The implementation achieves the following performance characteristics:<br>
+ * <ul>
+ * <li>space usage of 4 * (V + 1) bytes plus 4 bytes per stored edge, without any
+ * object per vertex nor per edge, roughly 5 times less than linked adjacency lists
+ * of boxed vertices</li>
+ * <li>constant time to get the degree of a vertex</li>
+ * <li>time proportional to the degree of v to iterate through vertices adjacent
+ * to v, scanning contiguous memory, which is cache friendly</li>
+ * </ul>
+ * The adjacency list of each vertex keeps the order in which its edges were added
+ * to the Builder.
+ */
+public class CompressedSparseRowGraph implements Graph {
+    private final Type type;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int numberOfEdges;
+
+    private CompressedSparseRowGraph(Type type, int[] offsets, int[] targets, int numberOfEdges) {
+        this.type = type;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.numberOfEdges = numberOfEdges;
+    }
+
+    /**
+     * Edges can not be added once the graph has been built, use a Builder instead
+     */
+    @Override
+    public void addEdge(int v, int w) {
+        throw new UnsupportedOperationException("Graph is frozen, edges must be added through its Builder");
+    }
+
+    @Override
+    public Iterable<Integer> getAdjacentVertices(int v) {
+        return new IntArrayIterable(targets, offsets[v], offsets[v + 1], false);
+    }
+
+    @Override
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    @Override
+    public int getAdjacentVertex(int v, int i) {
+        if (i < 0 || i >= degree(v)) {
+            throw new IndexOutOfBoundsException("Vertex " + v + " has no adjacent vertex at position " + i);
+        }
+
+        return targets[offsets[v] + i];
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Builds the reverse digraph straight from the CSR arrays, so no Builder
+     * (and no intermediate edge arrays) is needed.
+     */
+    @Override
+    public CompressedSparseRowGraph reverse() {
+        if (type == Type.UNDIRECTED) {
+            throw new UnsupportedOperationException("Operation not supported for undirected graphs");
+        }
+
+        int[] reverseOffsets = new int[offsets.length];
+        int[] reverseTargets = new int[targets.length];
+
+        // indegree of each vertex, shifted one position to compute the offsets
+        for (int i = 0; i < targets.length; i++) {
+            reverseOffsets[targets[i] + 1]++;
+        }
+
+        for (int v = 0; v < size(); v++) {
+            reverseOffsets[v + 1] += reverseOffsets[v];
+        }
+
+        int[] next = Arrays.copyOf(reverseOffsets, size());
+        for (int v = 0; v < size(); v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                reverseTargets[next[targets[i]]++] = v;
+            }
+        }
+
+        return new CompressedSparseRowGraph(type, reverseOffsets, reverseTargets, numberOfEdges);
+    }
+
+    /**
+     * Gets the type of the graph
+     *
+     * @return DIRECTED or UNDIRECTED
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of edges added to the graph (each undirected edge counts once)
+     *
+     * @return the number of edges
+     */
+    public int getNumberOfEdges() {
+        return numberOfEdges;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder verticesSb = new StringBuilder();
+
+        verticesSb.append("{\n");
+
+        int vertexLastIndex = size() - 1;
+        for (int i = 0; i < size(); i++) {
+            verticesSb.append(i);
+            verticesSb.append(": ");
+            verticesSb.append(getAdjacentVertices(i));
+
+            if (i == vertexLastIndex) {
+                verticesSb.append("\n");
+            }else {
+                verticesSb.append(",\n");
+            }
+        }
+
+        verticesSb.append("}");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(getClass().getSimpleName());
+        sb.append(" {");
+        sb.append("\ntype: ");
+        sb.append(type);
+        sb.append(",\nnumberOfVertices: ");
+        sb.append(size());
+        sb.append(",\nnumberOfEdges: ");
+        sb.append(numberOfEdges);
+        sb.append(",\nvertices: ");
+        sb.append(verticesSb);
+        sb.append("\n}");
+
+        return sb.toString();
+    }
+
+    /**
+     * Collects the edges of a CompressedSparseRowGraph into two parallel resizing
+     * int arrays (sources and targets) and freezes them into the CSR arrays when
+     * build() is called. After that, the builder releases its arrays and can not be
+     * used anymore, so the peak memory is 12 bytes per stored edge while building.
+     */
+    public static class Builder {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Type type;
+        private final int numberOfVertices;
+        private int[] sources;
+        private int[] targets;
+        private int numberOfEdges;
+
+        /**
+         * Creates a builder of a graph with no edges
+         *
+         * @param numberOfVertices the number of vertices in the graph
+         * @param type DIRECTED or UNDIRECTED
+         */
+        public Builder(int numberOfVertices, Type type) {
+            this(numberOfVertices, type, INITIAL_CAPACITY);
+        }
+
+        /**
+         * Creates a builder of a graph with no edges, sized for an expected number
+         * of edges to avoid resizing while loading big graphs
+         *
+         * @param numberOfVertices the number of vertices in the graph
+         * @param type DIRECTED or UNDIRECTED
+         * @param expectedNumberOfEdges the expected number of edges
+         */
+        public Builder(int numberOfVertices, Type type, int expectedNumberOfEdges) {
+            if (numberOfVertices < 0) {
+                throw new IllegalArgumentException("Number of vertices must be non-negative: " + numberOfVertices);
+            }
+
+            this.numberOfVertices = numberOfVertices;
+            this.type = type;
+            this.sources = new int[Math.max(expectedNumberOfEdges, 1)];
+            this.targets = new int[Math.max(expectedNumberOfEdges, 1)];
+        }
+
+        /**
+         * Add an edge between two vertices
+         *
+         * @param v first vertex of the graph
+         * @param w second vertex of the graph
+         * @return this builder
+         */
+        public Builder addEdge(int v, int w) {
+            if (sources == null) {
+                throw new IllegalStateException("Graph already built");
+            }
+
+            validateVertex(v);
+            validateVertex(w);
+
+            if (numberOfEdges == sources.length) {
+                sources = Arrays.copyOf(sources, numberOfEdges * 2);
+                targets = Arrays.copyOf(targets, numberOfEdges * 2);
+            }
+
+            sources[numberOfEdges] = v;
+            targets[numberOfEdges] = w;
+
+            numberOfEdges++;
+
+            return this;
+        }
+
+        /**
+         * Freezes the edges added so far into a CompressedSparseRowGraph, placing
+         * them by source vertex with a counting sort (stable, so each adjacency
+         * list keeps the order in which the edges were added)
+         *
+         * @return the graph
+         */
+        public CompressedSparseRowGraph build() {
+            if (sources == null) {
+                throw new IllegalStateException("Graph already built");
+            }
+
+            boolean undirected = type == Type.UNDIRECTED;
+
+            int[] offsets = new int[numberOfVertices + 1];
+            int[] adjacentVertices = new int[undirected ? numberOfEdges * 2 : numberOfEdges];
+
+            // degree of each vertex, shifted one position to compute the offsets
+            for (int i = 0; i < numberOfEdges; i++) {
+                offsets[sources[i] + 1]++;
+
+                if (undirected) {
+                    offsets[targets[i] + 1]++;
+                }
+            }
+
+            for (int v = 0; v < numberOfVertices; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+
+            int[] next = Arrays.copyOf(offsets, numberOfVertices);
+            for (int i = 0; i < numberOfEdges; i++) {
+                adjacentVertices[next[sources[i]]++] = targets[i];
+
+                if (undirected) {
+                    adjacentVertices[next[targets[i]]++] = sources[i];
+                }
+            }
+
+            sources = null;
+            targets = null;
+
+            return new CompressedSparseRowGraph(type, offsets, adjacentVertices, numberOfEdges);
+        }
+
+        private void validateVertex(int v) {
+            if (v < 0 || v >= numberOfVertices) {
+                throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (numberOfVertices - 1));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        CompressedSparseRowGraph dg = new Builder(13, Type.DIRECTED)
+                .addEdge(0, 5)
+                .addEdge(4, 3)
+                .addEdge(0, 1)
+                .addEdge(9, 12)
+                .addEdge(6, 4)
+                .addEdge(5, 4)
+                .addEdge(0, 2)
+                .addEdge(11, 12)
+                .addEdge(9, 10)
+                .addEdge(0, 6)
+                .addEdge(7, 8)
+                .addEdge(9, 11)
+                .addEdge(5, 3)
+                .build();
+
+        System.out.println(dg);
+        System.out.println(dg.reverse());
+
+        System.out.println("Adjacent vertices of 0:");
+        for (int i = 0; i < dg.degree(0); i++) {
+            System.out.println("\t--" + dg.getAdjacentVertex(0, i));
+        }
+
+        try {
+            dg.addEdge(1, 2);
+        } catch (UnsupportedOperationException uoe) {
+            System.out.println("\t--" + uoe);
+        }
+    }
+}
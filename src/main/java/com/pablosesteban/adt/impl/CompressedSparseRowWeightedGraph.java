@@ -0,0 +1,490 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.pablosesteban.adt.Bag;
+import com.pablosesteban.adt.WeightedGraph;
+
+/**
+ * A read-only Weighted Graph implementation based on the Compressed Sparse Row
+ * (CSR) data structure, where edges are not objects but ids, i.e. positions in
+ * three parallel arrays (struct of arrays) holding the vertex each edge comes from,
+ * the vertex each edge points to and its weight.
+ * Edges are sorted by the vertex they come from, so that, the ids of the edges
+ * incident to v are offsets[v] through offsets[v+1]-1, and a vertex-indexed int
+ * array of offsets gives where the incident edges of each vertex start.
+ * The graph is built by a Builder which collects the edges and then freezes them
+ * into the arrays with a counting sort, in time proportional to the number of
+ * vertices (V) plus the number of edges (E). Once built, edges can not be added
+ * anymore.
+ * Both DIRECTED (each edge is stored once) and UNDIRECTED (each edge is stored
+ * twice, one id per direction) graphs are supported.
+ * This implementation has a constraint: vertex names must be integer indices.
+ * Parallel edges and self-loops are allowed.
+ * The implementation achieves the following performance characteristics:<br>
+ * <ul>
+ * <li>space usage of 4 * (V + 1) bytes plus 16 bytes per stored edge, without
+ * any object per vertex nor per edge</li>
+ * <li>constant time to get the degree of a vertex and the endpoints or the weight
+ * of an edge</li>
+ * <li>time proportional to the degree of v to iterate through the edges incident
+ * to v, scanning contiguous memory, so relaxation loops stream through memory
+ * linearly</li>
+ * </ul>
+ * The WeightedGraph methods returning Edge objects are supported for compatibility,
+ * but they create the objects on demand, so clients processing big graphs should
+ * use the primitive cursor methods or the edge ids instead.
+ */
+public class CompressedSparseRowWeightedGraph implements WeightedGraph {
+	private final Type type;
+	private final int[] offsets;
+	private final int[] from;
+	private final int[] to;
+	private final double[] weight;
+	private final int numberOfEdges;
+
+	private CompressedSparseRowWeightedGraph(Type type, int[] offsets, int[] from, int[] to, double[] weight, int numberOfEdges) {
+		this.type = type;
+		this.offsets = offsets;
+		this.from = from;
+		this.to = to;
+		this.weight = weight;
+		this.numberOfEdges = numberOfEdges;
+	}
+
+	/**
+	 * Reads a graph from file, with the same format than DirectedWeightedGraph and
+	 * UndirectedWeightedGraph: number of vertices, number of edges and then one
+	 * edge per line
+	 *
+	 * @param filename file to read the graph
+	 * @param type DIRECTED or UNDIRECTED
+	 * @return the graph
+	 * @throws IOException if file does not exists
+	 */
+	public static CompressedSparseRowWeightedGraph read(String filename, Type type) throws IOException {
+		try(BufferedReader br = new BufferedReader(new FileReader(CompressedSparseRowWeightedGraph.class.getClassLoader().getResource(filename).getFile()))) {
+			String numberOfVertices = br.readLine();
+			String numberOfEdges = br.readLine();
+
+			Builder builder = new Builder(Integer.parseInt(numberOfVertices), type, Integer.parseInt(numberOfEdges));
+
+			String line = null;
+			while ((line = br.readLine()) != null) {
+				String[] edge = line.split(" ");
+
+				builder.addEdge(Integer.parseInt(edge[0]), Integer.parseInt(edge[1]), Double.parseDouble(edge[2]));
+			}
+
+			return builder.build();
+		}
+	}
+
+	/**
+	 * Edges can not be added once the graph has been built, use a Builder instead
+	 */
+	@Override
+	public void addEdge(Edge e) {
+		throw new UnsupportedOperationException("Graph is frozen, edges must be added through its Builder");
+	}
+
+	/**
+	 * Creates an Edge object for each incident edge while iterating
+	 */
+	@Override
+	public Iterable<Edge> getIncidentEdges(final int v) {
+		return new Iterable<Edge>() {
+			@Override
+			public Iterator<Edge> iterator() {
+				return new EdgeIdsIterator(offsets[v], offsets[v + 1]);
+			}
+		};
+	}
+
+	/**
+	 * Creates an Edge object for each edge, reporting undirected edges once
+	 */
+	@Override
+	public Iterable<Edge> getEdges() {
+		Bag<Edge> edges = new LinkedBag<>();
+
+		for (int e = 0; e < from.length; e++) {
+			if (type == Type.DIRECTED || to[e] > from[e]) {
+				edges.add(getEdge(e));
+			}
+		}
+
+		return edges;
+	}
+
+	@Override
+	public int degree(int v) {
+		return offsets[v + 1] - offsets[v];
+	}
+
+	@Override
+	public int getAdjacentVertex(int v, int i) {
+		return to[getEdgeId(v, i)];
+	}
+
+	@Override
+	public double getIncidentWeight(int v, int i) {
+		return weight[getEdgeId(v, i)];
+	}
+
+	@Override
+	public int size() {
+		return offsets.length - 1;
+	}
+
+	/**
+	 * Gets the id of the edge at a given position of the incident edges of a vertex
+	 *
+	 * @param v a vertex in the graph
+	 * @param i a position between 0 and degree(v)-1
+	 * @return the id of the edge
+	 */
+	public int getEdgeId(int v, int i) {
+		if (i < 0 || i >= degree(v)) {
+			throw new IndexOutOfBoundsException("Vertex " + v + " has no incident edge at position " + i);
+		}
+
+		return offsets[v] + i;
+	}
+
+	/**
+	 * Gets the id of the first edge incident to a vertex. The edges incident to v
+	 * are the ids in the range [getEdgeIdsStart(v), getEdgeIdsEnd(v)).
+	 *
+	 * @param v a vertex in the graph
+	 * @return the id of the first edge incident to v
+	 */
+	public int getEdgeIdsStart(int v) {
+		return offsets[v];
+	}
+
+	/**
+	 * Gets the id following the last edge incident to a vertex. The edges incident
+	 * to v are the ids in the range [getEdgeIdsStart(v), getEdgeIdsEnd(v)).
+	 *
+	 * @param v a vertex in the graph
+	 * @return the id following the last edge incident to v
+	 */
+	public int getEdgeIdsEnd(int v) {
+		return offsets[v + 1];
+	}
+
+	/**
+	 * Gets the number of edge ids, i.e. the number of edges in DIRECTED graphs and
+	 * twice the number of edges in UNDIRECTED graphs
+	 *
+	 * @return the number of edge ids
+	 */
+	public int getNumberOfEdgeIds() {
+		return from.length;
+	}
+
+	/**
+	 * Gets the number of edges added to the graph (each undirected edge counts once)
+	 *
+	 * @return the number of edges
+	 */
+	public int getNumberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Gets the vertex an edge comes from
+	 *
+	 * @param e an edge id
+	 * @return the vertex the edge comes from
+	 */
+	public int getFrom(int e) {
+		return from[e];
+	}
+
+	/**
+	 * Gets the vertex an edge points to
+	 *
+	 * @param e an edge id
+	 * @return the vertex the edge points to
+	 */
+	public int getTo(int e) {
+		return to[e];
+	}
+
+	/**
+	 * Gets the weight of an edge
+	 *
+	 * @param e an edge id
+	 * @return the weight of the edge
+	 */
+	public double getWeight(int e) {
+		return weight[e];
+	}
+
+	/**
+	 * Creates an Edge object for an edge id
+	 *
+	 * @param e an edge id
+	 * @return a new Edge object
+	 */
+	public Edge getEdge(int e) {
+		return new Edge(from[e], to[e], weight[e]);
+	}
+
+	/**
+	 * Gets the type of the graph
+	 *
+	 * @return DIRECTED or UNDIRECTED
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder verticesSb = new StringBuilder();
+
+		verticesSb.append("{\n");
+
+		int vertexLastIndex = size() - 1;
+		for (int v = 0; v < size(); v++) {
+			verticesSb.append(v);
+			verticesSb.append(": [");
+
+			for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+				if (e > offsets[v]) {
+					verticesSb.append(", ");
+				}
+
+				verticesSb.append(e);
+				verticesSb.append(": ");
+				verticesSb.append(from[e]);
+				verticesSb.append("->");
+				verticesSb.append(to[e]);
+				verticesSb.append(" ");
+				verticesSb.append(weight[e]);
+			}
+
+			if (v == vertexLastIndex) {
+				verticesSb.append("]\n");
+			}else {
+				verticesSb.append("],\n");
+			}
+		}
+
+		verticesSb.append("}");
+
+		StringBuilder sb = new StringBuilder();
+		sb.append(getClass().getSimpleName());
+		sb.append(" {");
+		sb.append("\ntype: ");
+		sb.append(type);
+		sb.append(",\nnumberOfVertices: ");
+		sb.append(size());
+		sb.append(",\nnumberOfEdges: ");
+		sb.append(numberOfEdges);
+		sb.append(",\nvertices: ");
+		sb.append(verticesSb);
+		sb.append("\n}");
+
+		return sb.toString();
+	}
+
+	private class EdgeIdsIterator implements Iterator<Edge> {
+		private int e;
+		private final int end;
+
+		EdgeIdsIterator(int start, int end) {
+			this.e = start;
+			this.end = end;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return e < end;
+		}
+
+		@Override
+		public Edge next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return getEdge(e++);
+		}
+	}
+
+	/**
+	 * Collects the edges of a CompressedSparseRowWeightedGraph into three parallel
+	 * resizing arrays and freezes them into the CSR arrays when build() is called.
+	 * After that, the builder releases its arrays and can not be used anymore.
+	 */
+	public static class Builder {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final Type type;
+		private final int numberOfVertices;
+		private int[] from;
+		private int[] to;
+		private double[] weight;
+		private int numberOfEdges;
+
+		/**
+		 * Creates a builder of a graph with no edges
+		 *
+		 * @param numberOfVertices the number of vertices in the graph
+		 * @param type DIRECTED or UNDIRECTED
+		 */
+		public Builder(int numberOfVertices, Type type) {
+			this(numberOfVertices, type, INITIAL_CAPACITY);
+		}
+
+		/**
+		 * Creates a builder of a graph with no edges, sized for an expected number
+		 * of edges to avoid resizing while loading big graphs
+		 *
+		 * @param numberOfVertices the number of vertices in the graph
+		 * @param type DIRECTED or UNDIRECTED
+		 * @param expectedNumberOfEdges the expected number of edges
+		 */
+		public Builder(int numberOfVertices, Type type, int expectedNumberOfEdges) {
+			if (numberOfVertices < 0) {
+				throw new IllegalArgumentException("Number of vertices must be non-negative: " + numberOfVertices);
+			}
+
+			this.numberOfVertices = numberOfVertices;
+			this.type = type;
+			this.from = new int[Math.max(expectedNumberOfEdges, 1)];
+			this.to = new int[Math.max(expectedNumberOfEdges, 1)];
+			this.weight = new double[Math.max(expectedNumberOfEdges, 1)];
+		}
+
+		/**
+		 * Add an edge to the graph
+		 *
+		 * @param v the vertex the edge comes from
+		 * @param w the vertex the edge points to
+		 * @param edgeWeight the weight of the edge
+		 * @return this builder
+		 */
+		public Builder addEdge(int v, int w, double edgeWeight) {
+			if (from == null) {
+				throw new IllegalStateException("Graph already built");
+			}
+
+			validateVertex(v);
+			validateVertex(w);
+
+			if (numberOfEdges == from.length) {
+				from = Arrays.copyOf(from, numberOfEdges * 2);
+				to = Arrays.copyOf(to, numberOfEdges * 2);
+				weight = Arrays.copyOf(weight, numberOfEdges * 2);
+			}
+
+			from[numberOfEdges] = v;
+			to[numberOfEdges] = w;
+			weight[numberOfEdges] = edgeWeight;
+
+			numberOfEdges++;
+
+			return this;
+		}
+
+		/**
+		 * Add an edge to the graph
+		 *
+		 * @param e a new edge
+		 * @return this builder
+		 */
+		public Builder addEdge(Edge e) {
+			return addEdge(e.getFrom(), e.getTo(), e.getWeight());
+		}
+
+		/**
+		 * Freezes the edges added so far into a CompressedSparseRowWeightedGraph,
+		 * placing them by the vertex they come from with a counting sort (stable, so
+		 * the incident edges of each vertex keep the order in which they were added)
+		 *
+		 * @return the graph
+		 */
+		public CompressedSparseRowWeightedGraph build() {
+			if (from == null) {
+				throw new IllegalStateException("Graph already built");
+			}
+
+			boolean undirected = type == Type.UNDIRECTED;
+			int numberOfEdgeIds = undirected ? numberOfEdges * 2 : numberOfEdges;
+
+			int[] offsets = new int[numberOfVertices + 1];
+			int[] csrFrom = new int[numberOfEdgeIds];
+			int[] csrTo = new int[numberOfEdgeIds];
+			double[] csrWeight = new double[numberOfEdgeIds];
+
+			// degree of each vertex, shifted one position to compute the offsets
+			for (int i = 0; i < numberOfEdges; i++) {
+				offsets[from[i] + 1]++;
+
+				if (undirected) {
+					offsets[to[i] + 1]++;
+				}
+			}
+
+			for (int v = 0; v < numberOfVertices; v++) {
+				offsets[v + 1] += offsets[v];
+			}
+
+			int[] next = Arrays.copyOf(offsets, numberOfVertices);
+			for (int i = 0; i < numberOfEdges; i++) {
+				int e = next[from[i]]++;
+				csrFrom[e] = from[i];
+				csrTo[e] = to[i];
+				csrWeight[e] = weight[i];
+
+				if (undirected) {
+					e = next[to[i]]++;
+					csrFrom[e] = to[i];
+					csrTo[e] = from[i];
+					csrWeight[e] = weight[i];
+				}
+			}
+
+			from = null;
+			to = null;
+			weight = null;
+
+			return new CompressedSparseRowWeightedGraph(type, offsets, csrFrom, csrTo, csrWeight, numberOfEdges);
+		}
+
+		private void validateVertex(int v) {
+			if (v < 0 || v >= numberOfVertices) {
+				throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (numberOfVertices - 1));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		CompressedSparseRowWeightedGraph dwg = CompressedSparseRowWeightedGraph.read("weighted_digraph_tiny.txt", Type.DIRECTED);
+		System.out.println(dwg);
+
+		CompressedSparseRowWeightedGraph uwg = CompressedSparseRowWeightedGraph.read("weighted_graph_tiny.txt", Type.UNDIRECTED);
+		System.out.println(uwg);
+
+		System.out.println("Edges:");
+		int count = 0;
+		for (Edge e : uwg.getEdges()) {
+			System.out.println(e);
+			count++;
+		}
+		System.out.println(count);
+	}
+}
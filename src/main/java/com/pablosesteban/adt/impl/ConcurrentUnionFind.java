@@ -0,0 +1,213 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.pablosesteban.adt.UnionFind;
+
+/**
+ * A thread-safe and lock-free UnionFind implementation which can be shared by many threads calling any of its
+ * operations at the same time.
+ * The implementation is backed by a vertex-indexed AtomicLongArray (vertices) where each entry for each vertex packs
+ * two ints into a long, so that both are changed at once with a single Compare-And-Swap (CAS) operation, which fails
+ * instead of overwriting an entry changed by another thread since it was read:
+ * <li>link (low 32 bits): the index of another vertex in the same connected component (possibly itself), as in the
+ * WeightedQuickUnion.</li>
+ * <li>rank (high 32 bits): an upper bound of the height of the tree of a root, only meaningful for roots.</li>
+ * The operations work as follows:
+ * <li>union: links the root with the lowest rank, or the lowest index on equal ranks, to the other root (union by rank)
+ * with a CAS which only succeeds if the root is still a root with the same rank, retrying from the new roots otherwise,
+ * and then tries to increase the rank of the new root if both ranks were equal. As ranks never decrease and the rank of
+ * the linked root is checked by the CAS, every link goes from a lower to a higher (rank, index) pair when it is made,
+ * so the links are kept acyclic without any lock.</li>
+ * <li>find: follows links until reaching a root, linking each vertex on the path to its grandparent (path splitting)
+ * with a CAS, which is harmless if it fails, as it only makes the path shorter.</li>
+ * Every operation is linearizable, so the number of connected components is always the number of successful unions
+ * subtracted from the number of vertices. The amortized cost of each operation is nearly constant (inverse Ackermann
+ * function) and no thread ever waits for another one.
+ */
+public class ConcurrentUnionFind implements UnionFind {
+	private static final long LINK_MASK = 0xFFFFFFFFL;
+
+	private final AtomicLongArray vertices;
+	/**
+	 * The number of connected components
+	 */
+	private final AtomicInteger count;
+
+	/**
+	 * Initially, we start with numberOfVertices connected components, each vertex in its own connected component
+	 *
+	 * @param numberOfVertices the number of vertices
+	 */
+	public ConcurrentUnionFind(int numberOfVertices) {
+		vertices = new AtomicLongArray(numberOfVertices);
+		count = new AtomicInteger(numberOfVertices);
+
+		for (int i = 0; i < numberOfVertices; i++) {
+			vertices.set(i, entry(i, 0));
+		}
+	}
+
+	/**
+	 * Links the root with the lowest rank (and index) to the other root. If another thread links the root or changes its
+	 * rank in the meantime, the CAS fails and it starts again from the new roots.
+	 */
+	@Override
+	public void union(int v, int w) {
+		while (true) {
+			int vRoot = find(v);
+			int wRoot = find(w);
+
+			if (vRoot == wRoot) {
+				return;
+			}
+
+			long vEntry = vertices.get(vRoot);
+			long wEntry = vertices.get(wRoot);
+
+			int vRank = rank(vEntry);
+			int wRank = rank(wEntry);
+
+			int lowRoot = wRoot, highRoot = vRoot, lowRank = wRank, highRank = vRank;
+			if (vRank < wRank || (vRank == wRank && vRoot < wRoot)) {
+				lowRoot = vRoot;
+				highRoot = wRoot;
+				lowRank = vRank;
+				highRank = wRank;
+			}
+
+			if (vertices.compareAndSet(lowRoot, entry(lowRoot, lowRank), entry(highRoot, lowRank))) {
+				count.decrementAndGet();
+
+				// fails if the other root has changed, but the rank is just a heuristic
+				if (lowRank == highRank) {
+					vertices.compareAndSet(highRoot, entry(highRoot, highRank), entry(highRoot, highRank + 1));
+				}
+
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Follows links until reaching a root, i.e. a vertex that has a link to itself, linking each vertex on the way to its
+	 * grandparent.
+	 */
+	@Override
+	public int find(int v) {
+		while (true) {
+			long vEntry = vertices.get(v);
+			int parent = link(vEntry);
+
+			if (parent == v) {
+				return v;
+			}
+
+			int grandparent = link(vertices.get(parent));
+
+			if (parent != grandparent) {
+				vertices.compareAndSet(v, vEntry, entry(grandparent, rank(vEntry)));
+			}
+
+			v = parent;
+		}
+	}
+
+	/**
+	 * Two vertices are in the same connected component if, and only if, find() leads them to the same root. As other
+	 * threads may link the root of v while finding the root of w, different roots are only trusted if the root of v is
+	 * still a root afterwards.
+	 */
+	@Override
+	public boolean areConnected(int v, int w) {
+		while (true) {
+			int vRoot = find(v);
+			int wRoot = find(w);
+
+			if (vRoot == wRoot) {
+				return true;
+			}
+
+			if (link(vertices.get(vRoot)) == vRoot) {
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public int count() {
+		return count.get();
+	}
+
+	private static long entry(int link, int rank) {
+		return ((long) rank << 32) | link;
+	}
+
+	private static int link(long entry) {
+		return (int) (entry & LINK_MASK);
+	}
+
+	private static int rank(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder linksSb = new StringBuilder();
+		StringBuilder ranksSb = new StringBuilder();
+
+		linksSb.append("[");
+		ranksSb.append("[");
+
+		for (int i = 0; i < vertices.length(); i++) {
+			long entry = vertices.get(i);
+
+			if (i > 0) {
+				linksSb.append(", ");
+				ranksSb.append(", ");
+			}
+
+			linksSb.append(link(entry));
+			ranksSb.append(rank(entry));
+		}
+
+		linksSb.append("]");
+		ranksSb.append("]");
+
+		return getClass().getSimpleName() + " {\nvertices: " + linksSb + ",\nranks: " + ranksSb + ",\ncount: " + count + "\n}";
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		final ConcurrentUnionFind uf = new ConcurrentUnionFind(8);
+
+		final int[][] pairs = {{0, 4}, {0, 6}, {0, 2}, {0, 7}, {1, 2}, {1, 5}, {1, 7}, {1, 3},
+				{2, 7}, {2, 3}, {2, 6}, {3, 6}, {4, 5}, {4, 7}, {4, 6}, {5, 7}};
+
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int first = t;
+
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = first; i < pairs.length; i += threads.length) {
+						uf.union(pairs[i][0], pairs[i][1]);
+					}
+				}
+			});
+
+			threads[t].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		System.out.println(uf);
+		System.out.println("0 and 3 connected: " + uf.areConnected(0, 3));
+	}
+}
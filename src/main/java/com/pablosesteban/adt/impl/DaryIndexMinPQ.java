@@ -0,0 +1,258 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+
+/**
+ * An IndexMinPriorityQueue implementation based on an array d-ary heap data structure, i.e. a heap where each node
+ * has d children instead of two, with the least key on top of the heap.
+ * The indices are stored in an array with the root at position 0 and the children of the node at position k at
+ * positions d*k+1 through d*k+d, so the parent of the node at position k is at position (k-1)/d.
+ * The implementation is backed by three arrays, all of them primitive, so no object is created per operation:
+ * <li>heap: the indices in heap order.</li>
+ * <li>positions: index-indexed array with the position of each index in the heap (-1 if not on the queue).</li>
+ * <li>keys: index-indexed array with the key associated with each index.</li>
+ * The height of the heap is log_d N, so insert and decreaseKey, which only swim up, are faster as d grows, while delMin,
+ * which sinks down comparing the d children of each node on its way, takes d log_d N compares. As decreaseKey is far
+ * more frequent than delMin in shortest paths on graphs with more edges than vertices, a 4-ary heap usually beats the
+ * binary one, and, as the children of a node are contiguous in memory, each level costs one cache miss instead of d.
+ */
+public class DaryIndexMinPQ implements IndexMinPriorityQueue {
+	private final int arity;
+	private int[] heap;
+	private int[] positions;
+	private double[] keys;
+	private int size;
+
+	/**
+	 * Creates an empty 4-ary heap for indices between 0 and capacity - 1
+	 *
+	 * @param capacity the number of indices
+	 */
+	public DaryIndexMinPQ(int capacity) {
+		this(capacity, 4);
+	}
+
+	/**
+	 * Creates an empty d-ary heap for indices between 0 and capacity - 1
+	 *
+	 * @param capacity the number of indices
+	 * @param arity the number of children of each node (d), at least 2
+	 */
+	public DaryIndexMinPQ(int capacity, int arity) {
+		if (arity < 2) {
+			throw new IllegalArgumentException("Arity must be at least 2: " + arity);
+		}
+
+		this.arity = arity;
+		heap = new int[capacity];
+		positions = new int[capacity];
+		keys = new double[capacity];
+
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Adds the new index at the end of the array, increment the size of the heap, and then swim up through the heap
+	 * with that index to restore the heap order.
+	 */
+	@Override
+	public void insert(int i, double key) {
+		validateIndex(i);
+
+		if (contains(i)) {
+			throw new IllegalArgumentException("Index " + i + " is already on the priority queue");
+		}
+
+		keys[i] = key;
+		heap[size] = i;
+		positions[i] = size;
+
+		swim(size++);
+	}
+
+	/**
+	 * Changes the key of the index and then swim up through the heap with that index to restore the heap order.
+	 */
+	@Override
+	public void decreaseKey(int i, double key) {
+		validateIndex(i);
+
+		if (!contains(i)) {
+			throw new IllegalArgumentException("Index " + i + " is not on the priority queue");
+		}
+
+		if (key > keys[i]) {
+			throw new IllegalArgumentException("Key " + key + " is larger than the current key " + keys[i]);
+		}
+
+		keys[i] = key;
+
+		swim(positions[i]);
+	}
+
+	@Override
+	public boolean contains(int i) {
+		return positions[i] != -1;
+	}
+
+	/**
+	 * Removes the index with the least key: take it off the top, put the index from the end of the heap at the top,
+	 * decrement the size of the heap, and then sink down through the heap with that index to restore the heap order.
+	 */
+	@Override
+	public int delMin() {
+		if (isEmpty()) {
+			throw new IllegalStateException("priority queue is empty");
+		}
+
+		int min = heap[0];
+
+		positions[min] = -1;
+
+		if (--size > 0) {
+			heap[0] = heap[size];
+			positions[heap[0]] = 0;
+
+			sink(0);
+		}
+
+		return min;
+	}
+
+	@Override
+	public void clear() {
+		for (int k = 0; k < size; k++) {
+			positions[heap[k]] = -1;
+		}
+
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Moves the node at position k up, shifting its larger ancestors down instead of exchanging them, so each level
+	 * costs one write
+	 */
+	private void swim(int k) {
+		int i = heap[k];
+		double key = keys[i];
+
+		while (k > 0) {
+			int parent = (k - 1) / arity;
+
+			if (keys[heap[parent]] <= key) {
+				break;
+			}
+
+			heap[k] = heap[parent];
+			positions[heap[k]] = k;
+
+			k = parent;
+		}
+
+		heap[k] = i;
+		positions[i] = k;
+	}
+
+	/**
+	 * Moves the node at position k down, shifting its least child up while it is smaller
+	 */
+	private void sink(int k) {
+		int i = heap[k];
+		double key = keys[i];
+
+		while (true) {
+			int firstChild = arity * k + 1;
+
+			if (firstChild >= size) {
+				break;
+			}
+
+			int lastChild = Math.min(firstChild + arity, size);
+
+			int minChild = firstChild;
+			for (int child = firstChild + 1; child < lastChild; child++) {
+				if (keys[heap[child]] < keys[heap[minChild]]) {
+					minChild = child;
+				}
+			}
+
+			if (keys[heap[minChild]] >= key) {
+				break;
+			}
+
+			heap[k] = heap[minChild];
+			positions[heap[k]] = k;
+
+			k = minChild;
+		}
+
+		heap[k] = i;
+		positions[i] = k;
+	}
+
+	private void validateIndex(int i) {
+		if (i < 0 || i >= positions.length) {
+			throw new IllegalArgumentException("Index " + i + " is not between 0 and " + (positions.length - 1));
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(getClass().getSimpleName());
+		sb.append(" {");
+		sb.append("\narity: ");
+		sb.append(arity);
+		sb.append(",\nheap: [");
+
+		for (int k = 0; k < size; k++) {
+			sb.append(heap[k]);
+			sb.append("=");
+			sb.append(keys[heap[k]]);
+
+			if (k < size - 1) {
+				sb.append(", ");
+			}
+		}
+
+		sb.append("]\n}");
+
+		return sb.toString();
+	}
+
+	public static void main(String[] args) {
+		DaryIndexMinPQ pq = new DaryIndexMinPQ(10, 3);
+
+		double[] keys = {0.5, 0.9, 0.1, 0.7, 0.3, 0.8, 0.2, 0.6, 0.4, 1.0};
+		for (int i = 0; i < keys.length; i++) {
+			pq.insert(i, keys[i]);
+		}
+		System.out.println(pq);
+
+		System.out.println("decreaseKey 9 to 0.0: ");
+		pq.decreaseKey(9, 0.0);
+		System.out.println(pq);
+
+		System.out.print("delMin: ");
+		while (!pq.isEmpty()) {
+			System.out.print(pq.delMin() + " ");
+		}
+		System.out.println();
+	}
+}
@@ -3,13 +3,12 @@
  */
 package com.pablosesteban.adt.impl;
 
-import com.pablosesteban.adt.Bag;
 import com.pablosesteban.adt.Graph;
 
 /**
  * A Graph implementation based on an array of adjacency lists data structure.
- * We maintain a vertex-indexed array of linked-lists of the vertices adjacent to
- * each vertex where each edge occurs just once.
+ * We maintain a vertex-indexed array of resizing int arrays of the vertices
+ * adjacent to each vertex where each edge occurs just once.
  * In DIrected Graphs (digraphs), edges are one-way, i.e. the pair of vertices that
  * defines each edge is an ordered pair that specifies a one-way adjacency. A directed
  * edge points from the first vertex in the pair and points to the second vertex in
@@ -23,7 +22,7 @@ import com.pablosesteban.adt.Graph;
  * Parallel edges and self-loops are allowed.
  */
 public class DirectedGraph implements Graph {
-	private Bag<Integer>[] vertices;
+	private AdjacencyLists vertices;
 	private int numberOfEdges;
 	
 	/**
@@ -32,39 +31,43 @@ public class DirectedGraph implements Graph {
      * @param numberOfVertices the number of vertices in the graph
      */
 	public DirectedGraph(int numberOfVertices) {
-		vertices = new Bag[numberOfVertices];
+		vertices = new AdjacencyLists(numberOfVertices);
 	}
 	
 	@Override
 	public void addEdge(int v, int w) {
-		if (vertices[v] == null) {
-			vertices[v] = new LinkedBag<>();
-		}
-		
-		vertices[v].add(w);
+		vertices.add(v, w);
 		
 		numberOfEdges++;
 	}
 
 	@Override
 	public Iterable<Integer> getAdjacentVertices(int v) {
-		return vertices[v];
+		return vertices.iterable(v);
+	}
+
+	@Override
+	public int degree(int v) {
+		return vertices.degree(v);
+	}
+
+	@Override
+	public int getAdjacentVertex(int v, int i) {
+		return vertices.get(v, i);
 	}
 
 	@Override
 	public int size() {
-		return vertices.length;
+		return vertices.size();
 	}
 
 	@Override
 	public DirectedGraph reverse() {
-		DirectedGraph dg = new DirectedGraph(vertices.length);
+		DirectedGraph dg = new DirectedGraph(vertices.size());
 		
-		for (int i = 0; i < vertices.length; i++) {
-			if (vertices[i] != null) {
-				for (Integer adjacentVertex : vertices[i]) {
-					dg.addEdge(adjacentVertex, i);
-				}
+		for (int i = 0; i < vertices.size(); i++) {
+			for (int j = 0; j < vertices.degree(i); j++) {
+				dg.addEdge(vertices.get(i, j), i);
 			}
 		}
 		
@@ -77,17 +80,17 @@ public class DirectedGraph implements Graph {
         
         verticesSb.append("{\n");
         
-        int vertexLastIndex = vertices.length - 1;
-        for (int i = 0; i < vertices.length; i++) {
+        int vertexLastIndex = vertices.size() - 1;
+        for (int i = 0; i < vertices.size(); i++) {
             verticesSb.append(i);
             verticesSb.append(": ");
             
-            if (vertices[i] != null) {
-            	int verticesLastIndex = vertices[i].size() - 1;
+            if (vertices.degree(i) > 0) {
+            	int verticesLastIndex = vertices.degree(i) - 1;
             	int count = 0;
             	verticesSb.append("[");
-            	for (Integer vertex : vertices[i]) {
-            		verticesSb.append(vertex);
+            	for (int j = 0; j < vertices.degree(i); j++) {
+            		verticesSb.append(vertices.get(i, j));
 
             		if (count == verticesLastIndex) {
             			if (i == vertexLastIndex) {
@@ -116,7 +119,7 @@ public class DirectedGraph implements Graph {
         sb.append(getClass().getSimpleName());
         sb.append(" {");
         sb.append("\nnumberOfVertices: ");
-        sb.append(vertices.length );
+        sb.append(vertices.size());
         sb.append(",\nnumberOfEdges: ");
         sb.append(numberOfEdges);
         sb.append(",\nvertices: ");
@@ -0,0 +1,88 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A vertex-indexed array of incident edge lists where each list is a resizing
+ * array of edges instead of a linked list, so that the edge at any position of a
+ * list is reached in constant time and no node object is needed per edge.
+ * The lists are created lazily on the first edge of a vertex and double their
+ * length whenever they are full, so adding an edge takes amortized constant time.
+ * Positions are given in the reverse order of insertion, the same order in which
+ * a LinkedBag iterates through its elements, so replacing the linked lists does
+ * not change the results computed by graph-processing clients.
+ */
+class IncidentEdgeLists {
+    private static final int INITIAL_CAPACITY = 2;
+
+    private Edge[][] lists;
+    private int[] degrees;
+
+    IncidentEdgeLists(int numberOfVertices) {
+        lists = new Edge[numberOfVertices][];
+        degrees = new int[numberOfVertices];
+    }
+
+    void add(int v, Edge e) {
+        if (lists[v] == null) {
+            lists[v] = new Edge[INITIAL_CAPACITY];
+        }else if (degrees[v] == lists[v].length) {
+            lists[v] = Arrays.copyOf(lists[v], degrees[v] * 2);
+        }
+
+        lists[v][degrees[v]++] = e;
+    }
+
+    int degree(int v) {
+        return degrees[v];
+    }
+
+    Edge get(int v, int i) {
+        if (i < 0 || i >= degrees[v]) {
+            throw new IndexOutOfBoundsException("Vertex " + v + " has no incident edge at position " + i);
+        }
+
+        return lists[v][degrees[v] - 1 - i];
+    }
+
+    Iterable<Edge> iterable(final int v) {
+        return new Iterable<Edge>() {
+            @Override
+            public Iterator<Edge> iterator() {
+                return new IncidentEdgesIterator(v);
+            }
+        };
+    }
+
+    int size() {
+        return lists.length;
+    }
+
+    private class IncidentEdgesIterator implements Iterator<Edge> {
+        private final int vertex;
+        private int position;
+
+        IncidentEdgesIterator(int vertex) {
+            this.vertex = vertex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < degrees[vertex];
+        }
+
+        @Override
+        public Edge next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return get(vertex, position++);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only Iterable view over the range [from, to) of an int array which lets
+ * primitive-backed data structures keep supporting clients that need an
+ * Iterable&lt;Integer&gt;, boxing the values only while iterating.
+ * The range can be iterated forwards or backwards (from to-1 down to from).
+ */
+class IntArrayIterable implements Iterable<Integer> {
+    private final int[] array;
+    private final int from;
+    private final int to;
+    private final boolean backwards;
+
+    IntArrayIterable(int[] array, int from, int to, boolean backwards) {
+        this.array = array;
+        this.from = from;
+        this.to = to;
+        this.backwards = backwards;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new IntArrayIterator();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("[");
+        for (Integer value : this) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+
+            sb.append(value);
+        }
+        sb.append("]");
+
+        return sb.toString();
+    }
+
+    private class IntArrayIterator implements Iterator<Integer> {
+        private int remaining = to - from;
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Integer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            remaining--;
+
+            return backwards ? array[from + remaining] : array[to - remaining - 1];
+        }
+    }
+}
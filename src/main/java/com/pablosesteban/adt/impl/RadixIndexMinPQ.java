@@ -0,0 +1,294 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.adt.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+
+/**
+ * An IndexMinPriorityQueue implementation based on a radix heap data structure, which is only valid for MONOTONE
+ * priority queues, i.e. the key of any index inserted (or decreased) can not be smaller than the last key removed, which
+ * is always the case in the Dijkstra's algorithm with non-negative weights. Keys must be non-negative.
+ * Once the priority queue is empty, keys can start again from 0, so it can be reused for another search.
+ * The indices are kept in 64 buckets, according to the highest bit in which their keys differ from the last key
+ * removed (last): bucket 0 holds the keys equal to last, and bucket b holds the keys whose highest bit different from
+ * last is b - 1. The keys are compared as the bits of their IEEE 754 representation, which, for non-negative doubles,
+ * are in the same order than the doubles, so integer and fractional weights are both supported.
+ * Each bucket is a doubly-linked list threaded through three index-indexed arrays (next, previous and bucket), so an
+ * index is moved from one bucket to another in constant time and no object is created per operation:
+ * <li>insert and decreaseKey put the index in the bucket of its key, in constant time.</li>
+ * <li>delMin takes an index from bucket 0 if it is not empty, otherwise it finds the least key of the first non-empty
+ * bucket, makes it the new last key and redistributes the indices of that bucket, all of them moving to lower buckets.</li>
+ * As an index can only move to a lower bucket, it is moved at most 64 times, so the amortized cost of each operation
+ * is constant, without comparing keys of different buckets, and even the worst case of delMin is proportional to the
+ * size of a single bucket.
+ */
+public class RadixIndexMinPQ implements IndexMinPriorityQueue {
+	private static final int NUMBER_OF_BUCKETS = 64;
+	private static final int NONE = -1;
+
+	private int[] heads;
+	private int[] next;
+	private int[] previous;
+	private int[] buckets;
+	private long[] keys;
+	private long last;
+	private int size;
+
+	/**
+	 * Creates an empty radix heap for indices between 0 and capacity - 1
+	 *
+	 * @param capacity the number of indices
+	 */
+	public RadixIndexMinPQ(int capacity) {
+		heads = new int[NUMBER_OF_BUCKETS];
+		next = new int[capacity];
+		previous = new int[capacity];
+		buckets = new int[capacity];
+		keys = new long[capacity];
+
+		Arrays.fill(heads, NONE);
+		Arrays.fill(buckets, NONE);
+	}
+
+	@Override
+	public void insert(int i, double key) {
+		validateIndex(i);
+
+		if (contains(i)) {
+			throw new IllegalArgumentException("Index " + i + " is already on the priority queue");
+		}
+
+		keys[i] = toBits(key);
+
+		add(i);
+
+		size++;
+	}
+
+	/**
+	 * Moves the index to the bucket of its new key
+	 */
+	@Override
+	public void decreaseKey(int i, double key) {
+		validateIndex(i);
+
+		if (!contains(i)) {
+			throw new IllegalArgumentException("Index " + i + " is not on the priority queue");
+		}
+
+		long bits = toBits(key);
+
+		if (bits > keys[i]) {
+			throw new IllegalArgumentException("Key " + key + " is larger than the current key " + Double.longBitsToDouble(keys[i]));
+		}
+
+		remove(i);
+
+		keys[i] = bits;
+
+		add(i);
+	}
+
+	@Override
+	public boolean contains(int i) {
+		return buckets[i] != NONE;
+	}
+
+	/**
+	 * Takes an index from bucket 0, refilling it from the first non-empty bucket if needed
+	 */
+	@Override
+	public int delMin() {
+		if (isEmpty()) {
+			throw new IllegalStateException("priority queue is empty");
+		}
+
+		if (heads[0] == NONE) {
+			int b = 1;
+			while (heads[b] == NONE) {
+				b++;
+			}
+
+			long min = Long.MAX_VALUE;
+			for (int i = heads[b]; i != NONE; i = next[i]) {
+				min = Math.min(min, keys[i]);
+			}
+
+			last = min;
+
+			int i = heads[b];
+			heads[b] = NONE;
+
+			while (i != NONE) {
+				int following = next[i];
+
+				add(i);
+
+				i = following;
+			}
+		}
+
+		int min = heads[0];
+
+		remove(min);
+
+		// an empty heap holds no key to compare with, so keys can start again from 0, as after clear()
+		if (--size == 0) {
+			last = 0;
+		}
+
+		return min;
+	}
+
+	/**
+	 * Empties every bucket and forgets the last key removed, so keys can start again from 0
+	 */
+	@Override
+	public void clear() {
+		for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+			for (int i = heads[b]; i != NONE; i = next[i]) {
+				buckets[i] = NONE;
+			}
+
+			heads[b] = NONE;
+		}
+
+		last = 0;
+		size = 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private long toBits(double key) {
+		if (!(key >= 0.0)) {
+			throw new IllegalArgumentException("Key must be non-negative: " + key);
+		}
+
+		// adding 0.0 turns -0.0 into 0.0
+		long bits = Double.doubleToLongBits(key + 0.0);
+
+		if (bits < last) {
+			throw new IllegalArgumentException("Key " + key + " is smaller than the last key removed "
+					+ Double.longBitsToDouble(last) + ", keys must be monotone");
+		}
+
+		return bits;
+	}
+
+	private int bucketOf(long bits) {
+		return bits == last ? 0 : NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(bits ^ last);
+	}
+
+	private void add(int i) {
+		int b = bucketOf(keys[i]);
+
+		buckets[i] = b;
+		previous[i] = NONE;
+		next[i] = heads[b];
+
+		if (heads[b] != NONE) {
+			previous[heads[b]] = i;
+		}
+
+		heads[b] = i;
+	}
+
+	private void remove(int i) {
+		if (previous[i] == NONE) {
+			heads[buckets[i]] = next[i];
+		}else {
+			next[previous[i]] = next[i];
+		}
+
+		if (next[i] != NONE) {
+			previous[next[i]] = previous[i];
+		}
+
+		buckets[i] = NONE;
+	}
+
+	private void validateIndex(int i) {
+		if (i < 0 || i >= buckets.length) {
+			throw new IllegalArgumentException("Index " + i + " is not between 0 and " + (buckets.length - 1));
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(getClass().getSimpleName());
+		sb.append(" {");
+		sb.append("\nlast: ");
+		sb.append(Double.longBitsToDouble(last));
+		sb.append(",\nbuckets: {");
+
+		boolean first = true;
+		for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+			if (heads[b] == NONE) {
+				continue;
+			}
+
+			sb.append(first ? "\n" : ",\n");
+			sb.append(b);
+			sb.append(": [");
+
+			for (int i = heads[b]; i != NONE; i = next[i]) {
+				sb.append(i);
+				sb.append("=");
+				sb.append(Double.longBitsToDouble(keys[i]));
+
+				if (next[i] != NONE) {
+					sb.append(", ");
+				}
+			}
+
+			sb.append("]");
+
+			first = false;
+		}
+
+		sb.append("\n}\n}");
+
+		return sb.toString();
+	}
+
+	public static void main(String[] args) {
+		RadixIndexMinPQ pq = new RadixIndexMinPQ(10);
+
+		double[] keys = {5, 9, 1, 7, 3, 8, 2, 6, 4, 10};
+		for (int i = 0; i < keys.length; i++) {
+			pq.insert(i, keys[i]);
+		}
+		System.out.println(pq);
+
+		System.out.println("delMin: " + pq.delMin());
+		System.out.println(pq);
+
+		System.out.println("decreaseKey 9 to 1.5: ");
+		pq.decreaseKey(9, 1.5);
+
+		try {
+			pq.insert(2, 0.5);
+		} catch (IllegalArgumentException iae) {
+			System.out.println("\t--" + iae);
+		}
+
+		System.out.print("delMin: ");
+		while (!pq.isEmpty()) {
+			System.out.print(pq.delMin() + " ");
+		}
+		System.out.println();
+	}
+}
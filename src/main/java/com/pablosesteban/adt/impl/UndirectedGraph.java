@@ -3,14 +3,13 @@
  */
 package com.pablosesteban.adt.impl;
 
-import com.pablosesteban.adt.Bag;
 import com.pablosesteban.adt.Graph;
 
 /**
  * A Graph implementation based on an array of adjacency lists data structure.
  * This data structure is the standard graph representation for graphs that are
- * not dense, where we maintain a vertex-indexed array of linked-lists of the
- * vertices adjacent to each vertex.
+ * not dense, where we maintain a vertex-indexed array of resizing int arrays of
+ * the vertices adjacent to each vertex.
  * Each vertex is reachable from itself.
  * This implementation has a constraint: vertex names must be integer indices.
  * To add an edge connecting v and w, we add w to v adjacency list and v to
@@ -32,7 +31,7 @@ import com.pablosesteban.adt.Graph;
  * represent the same graph.
  */
 public class UndirectedGraph implements Graph {
-    private Bag<Integer>[] vertices;
+    private AdjacencyLists vertices;
     private int numberOfEdges;
     
     /**
@@ -41,33 +40,35 @@ public class UndirectedGraph implements Graph {
      * @param numberOfVertices the number of vertices in the graph
      */
     public UndirectedGraph(int numberOfVertices) {
-        this.vertices = new Bag[numberOfVertices];
+        this.vertices = new AdjacencyLists(numberOfVertices);
     }
     
     @Override
     public void addEdge(int v, int w) {
-        if (vertices[v] == null) {
-            vertices[v] = new LinkedBag<>();
-        }
-        
-        if (vertices[w] == null) {
-            vertices[w] = new LinkedBag<>();
-        }
-        
-        vertices[v].add(w);
-        vertices[w].add(v);
+        vertices.add(v, w);
+        vertices.add(w, v);
         
         numberOfEdges++;
     }
 
     @Override
     public Iterable<Integer> getAdjacentVertices(int v) {
-        return vertices[v];
+        return vertices.iterable(v);
+    }
+
+    @Override
+    public int degree(int v) {
+        return vertices.degree(v);
+    }
+
+    @Override
+    public int getAdjacentVertex(int v, int i) {
+        return vertices.get(v, i);
     }
 
     @Override
     public int size() {
-        return vertices.length;
+        return vertices.size();
     }
 
     @Override
@@ -81,18 +82,23 @@ public class UndirectedGraph implements Graph {
         
         verticesSb.append("{\n");
         
-        int vertexLastIndex = vertices.length - 1;
-        for (int i = 0; i < vertices.length; i++) {
+        int vertexLastIndex = vertices.size() - 1;
+        for (int i = 0; i < vertices.size(); i++) {
             verticesSb.append(i);
             verticesSb.append(": ");
             
-            int verticesLastIndex = vertices[i].size() - 1;
-            int count = 0;
+            if (vertices.degree(i) == 0) {
+                verticesSb.append(i == vertexLastIndex ? "[]\n" : "[],\n");
+                
+                continue;
+            }
+            
+            int verticesLastIndex = vertices.degree(i) - 1;
             verticesSb.append("[");
-            for (Integer vertex : vertices[i]) {
-                verticesSb.append(vertex);
+            for (int j = 0; j < vertices.degree(i); j++) {
+                verticesSb.append(vertices.get(i, j));
                 
-                if (count == verticesLastIndex) {
+                if (j == verticesLastIndex) {
                     if (i == vertexLastIndex) {
                         verticesSb.append("]\n");
                     }else {
@@ -101,8 +107,6 @@ public class UndirectedGraph implements Graph {
                 }else {
                     verticesSb.append(", ");
                 }
-                
-                count++;
             }
         }
         
@@ -112,7 +116,7 @@ public class UndirectedGraph implements Graph {
         sb.append(getClass().getSimpleName());
         sb.append(" {");
         sb.append("\nnumberOfVertices: ");
-        sb.append(vertices.length );
+        sb.append(vertices.size());
         sb.append(",\nnumberOfEdges: ");
         sb.append(numberOfEdges);
         sb.append(",\nvertices: ");
@@ -14,7 +14,7 @@ import com.pablosesteban.adt.WeightedGraph;
  * A Weighted Undirected Graph implementation based on an array of adjacency
  * lists data structure.
  * This data structure is the standard graph representation for graphs that are
- * not dense, where we maintain a vertex-indexed array of linked-lists of the
+ * not dense, where we maintain a vertex-indexed array of resizing arrays of the
  * edges adjacent to each vertex.
  * Each vertex is reachable from itself.
  * This implementation has a constraint: vertex names must be integer indices.
@@ -30,7 +30,7 @@ import com.pablosesteban.adt.WeightedGraph;
  * represent the same graph.
  */
 public class UndirectedWeightedGraph implements WeightedGraph {
-	private Bag<Edge>[] vertices;
+	private IncidentEdgeLists vertices;
     private int numberOfEdges;
     
     /**
@@ -44,7 +44,7 @@ public class UndirectedWeightedGraph implements WeightedGraph {
     		String numberOfVertices = br.readLine();
         	String numberOfEdges = br.readLine();
         	
-        	vertices = new Bag[Integer.parseInt(numberOfVertices)];
+        	vertices = new IncidentEdgeLists(Integer.parseInt(numberOfVertices));
         	
         	String line = null;
         	while ((line = br.readLine()) != null) {
@@ -59,36 +59,45 @@ public class UndirectedWeightedGraph implements WeightedGraph {
 	 * Creates an empty graph with this number of vertices
 	 */
 	public UndirectedWeightedGraph(int numberOfVertices) {
-		vertices = new Bag[numberOfVertices];
+		vertices = new IncidentEdgeLists(numberOfVertices);
 	}
 
 	@Override
 	public void addEdge(Edge e) {
-		if (vertices[e.getFrom()] == null) {
-			vertices[e.getFrom()] = new LinkedBag<>();
-		}
-		
-		if (vertices[e.getTo()] == null) {
-			vertices[e.getTo()] = new LinkedBag<>();
-		}
-		
-		vertices[e.getFrom()].add(e);
-		vertices[e.getTo()].add(new Edge(e.getTo(), e.getFrom(), e.getWeight()));
+		vertices.add(e.getFrom(), e);
+		vertices.add(e.getTo(), new Edge(e.getTo(), e.getFrom(), e.getWeight()));
 		
 		numberOfEdges++;
 	}
 
 	@Override
 	public Iterable<Edge> getIncidentEdges(int v) {
-		return vertices[v];
+		return vertices.iterable(v);
+	}
+
+	@Override
+	public int degree(int v) {
+		return vertices.degree(v);
+	}
+
+	@Override
+	public int getAdjacentVertex(int v, int i) {
+		return vertices.get(v, i).getTo();
+	}
+
+	@Override
+	public double getIncidentWeight(int v, int i) {
+		return vertices.get(v, i).getWeight();
 	}
 
 	@Override
 	public Iterable<Edge> getEdges() {
 		Bag<Edge> edges = new LinkedBag<>();
 		
-		for (int v = 0; v < vertices.length; v++) {
-			for (Edge edge : vertices[v]) {
+		for (int v = 0; v < vertices.size(); v++) {
+			for (int i = 0; i < vertices.degree(v); i++) {
+				Edge edge = vertices.get(v, i);
+				
 				if (edge.getTo() > v) {
 					edges.add(edge);
 				}
@@ -100,7 +109,7 @@ public class UndirectedWeightedGraph implements WeightedGraph {
 
 	@Override
 	public int size() {
-		return vertices.length;
+		return vertices.size();
 	}
 	
 	@Override
@@ -109,15 +118,21 @@ public class UndirectedWeightedGraph implements WeightedGraph {
         
         verticesSb.append("{\n");
         
-        int vertexLastIndex = vertices.length - 1;
-        for (int i = 0; i < vertices.length; i++) {
+        int vertexLastIndex = vertices.size() - 1;
+        for (int i = 0; i < vertices.size(); i++) {
             verticesSb.append(i);
             verticesSb.append(": ");
             
-            int verticesLastIndex = vertices[i].size() - 1;
+            if (vertices.degree(i) == 0) {
+                verticesSb.append(i == vertexLastIndex ? "[]\n" : "[],\n");
+                
+                continue;
+            }
+            
+            int verticesLastIndex = vertices.degree(i) - 1;
             int count = 0;
             verticesSb.append("[");
-            for (Edge vertex : vertices[i]) {
+            for (Edge vertex : vertices.iterable(i)) {
                 verticesSb.append(vertex);
                 
                 if (count == verticesLastIndex) {
@@ -140,7 +155,7 @@ public class UndirectedWeightedGraph implements WeightedGraph {
         sb.append(getClass().getSimpleName());
         sb.append(" {");
         sb.append("\nnumberOfVertices: ");
-        sb.append(vertices.length );
+        sb.append(vertices.size());
         sb.append(",\nnumberOfEdges: ");
         sb.append(numberOfEdges);
         sb.append(",\nvertices: ");
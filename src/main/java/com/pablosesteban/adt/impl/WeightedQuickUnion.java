@@ -17,6 +17,9 @@ import com.pablosesteban.adt.UnionFind;
  * belongs to.</li>
  * The worst-case order of growth of the cost of all operations is log N, i.e. each operation does at most
  * a constant number of array accesses for each node on the path from a node to a root in the forest.
+ * Furthermore, find() halves the path it follows (path halving), linking every other vertex on the path to its
+ * grandparent, so the trees get flatter on each call and the amortized cost of each operation is nearly constant
+ * (inverse Ackermann function), without any extra pass nor extra space.
  */
 public class WeightedQuickUnion implements UnionFind {
 	private int[] vertices;
@@ -75,10 +78,14 @@ public class WeightedQuickUnion implements UnionFind {
 	/**
 	 * Follow its link to another vertex, follow that vertexs link to yet another vertex, and so forth,
 	 * following links until reaching a root, i.e. a vertex that has a link to itself.
+	 * On the way, each vertex visited is linked to its grandparent (path halving), which is still in the same
+	 * connected component, so the sizes of the roots do not change.
 	 */
 	@Override
 	public int find(int v) {
 		while (v != vertices[v]) {
+			vertices[v] = vertices[vertices[v]];
+			
 			v = vertices[v];
 		}
 		
@@ -98,6 +105,16 @@ public class WeightedQuickUnion implements UnionFind {
 		return count;
 	}
 
+	/**
+	 * Gets the number of vertices in the connected component of a given vertex, kept by its root
+	 * 
+	 * @param v a vertex
+	 * @return the size of the connected component of v
+	 */
+	public int size(int v) {
+		return sizes[find(v)];
+	}
+
 	@Override
 	public String toString() {
 		return getClass().getSimpleName() + " {\nvertices: " + Arrays.toString(vertices) + ",\nsizes: " + Arrays.toString(sizes)
@@ -0,0 +1,42 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api;
+
+import com.pablosesteban.adt.impl.Edge;
+
+/**
+ * API to answer point-to-point shortest path queries, i.e. to find a shortest path from a source vertex to a single
+ * target vertex in an edge-weighted digraph, for any pair of vertices given at query time.
+ * Unlike WeightedDigraphShortestPaths, which computes the whole Shortest Paths Tree (SPT) of a single source when it is
+ * built, the graph is only explored at query time, as far as needed to find the path to the target, so implementations
+ * can answer many queries without computing the SPT of each source.
+ */
+public interface WeightedDigraphPointToPointShortestPaths {
+	/**
+	 * Gets the distance from source to target vertex
+	 *
+	 * @param source a vertex in the graph
+	 * @param target a vertex in the graph
+	 * @return the distance from source to target vertex, infinity if not reachable
+	 */
+	double weightTo(int source, int target);
+
+	/**
+	 * Check if there is a path from source to target vertex
+	 *
+	 * @param source a vertex in the graph
+	 * @param target a vertex in the graph
+	 * @return true if, and only if, there is a path from source to target vertex
+	 */
+	boolean hasPathTo(int source, int target);
+
+	/**
+	 * Gets a shortest path from source to target vertex
+	 *
+	 * @param source a vertex in the graph
+	 * @param target a vertex in the graph
+	 * @return the path from source to target vertex, null if none
+	 */
+	Iterable<Edge> pathTo(int source, int target);
+}
@@ -0,0 +1,184 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphPointToPointShortestPaths;
+
+/**
+ * A point-to-point Shortest Paths implementation based on the A* (goal-directed) search algorithm, for edge-weighted
+ * digraphs with NON-NEGATIVE weights.
+ * It works as the Dijkstra's algorithm from the source, but the next vertex to relax is not the one closest to the
+ * source, but the one with the lowest weightTo[v] + h(v, target), where h is a heuristic given by the client which
+ * estimates the distance from v to the target, so vertices leading towards the target are relaxed first, and the
+ * search stops as soon as the target is taken from the priority queue.
+ * The heuristic must be ADMISSIBLE, i.e. it never overestimates the distance to the target (e.g. the straight line
+ * distance when weights are road lengths), for the path found to be a shortest one. If it is CONSISTENT as well, i.e.
+ * h(v) <= weight(v->w) + h(w) for every edge, each vertex is relaxed once, as in the Dijkstra's algorithm; otherwise, a
+ * vertex already relaxed is put back on the priority queue whenever a shorter path to it is found. The zero heuristic
+ * turns the algorithm into the Dijkstra's algorithm stopping at the target, and the closer the heuristic gets to the
+ * real distances, the fewer vertices are relaxed.
+ * Each thread answering queries reuses its own ShortestPathsWorkspace, allocated on its first query and stamped with
+ * versions, so a query neither allocates nor resets any vertex-indexed array. The engine is thread-safe, as long as
+ * the graph is not changed and the heuristic is thread-safe.
+ */
+public class AStarSP implements WeightedDigraphPointToPointShortestPaths {
+	private final WeightedGraph wg;
+	private final Heuristic heuristic;
+	private final ThreadLocal<ShortestPathsWorkspace> workspaces;
+
+	/**
+	 * An estimate of the distance from a vertex to the target of a query
+	 */
+	public interface Heuristic {
+		/**
+		 * Estimates the distance from a vertex to the target, never overestimating it
+		 *
+		 * @param v a vertex in the graph
+		 * @param target the target of the query
+		 * @return a non-negative estimate, not larger than the distance from v to target
+		 */
+		double estimate(int v, int target);
+	}
+
+	/**
+	 * Creates a query engine for this weighted digraph
+	 *
+	 * @param wg a weighted digraph
+	 * @param heuristic an admissible heuristic
+	 */
+	public AStarSP(final WeightedGraph wg, Heuristic heuristic) {
+		this.wg = wg;
+		this.heuristic = heuristic;
+
+		workspaces = new ThreadLocal<ShortestPathsWorkspace>() {
+			@Override
+			protected ShortestPathsWorkspace initialValue() {
+				return new ShortestPathsWorkspace(wg.size());
+			}
+		};
+	}
+
+	@Override
+	public double weightTo(int source, int target) {
+		return search(source, target).weightTo(target);
+	}
+
+	@Override
+	public boolean hasPathTo(int source, int target) {
+		return search(source, target).isReached(target);
+	}
+
+	@Override
+	public Iterable<Edge> pathTo(int source, int target) {
+		ShortestPathsWorkspace workspace = search(source, target);
+
+		if (!workspace.isReached(target)) {
+			return null;
+		}
+
+		Stack<Edge> path = new LinkedStack<>();
+
+		for (int w = target; workspace.edgeTo(w) != -1; w = workspace.edgeTo(w)) {
+			path.push(new Edge(workspace.edgeTo(w), w, workspace.edgeWeightTo(w)));
+		}
+
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nnumberOfVertices: " + wg.size() + "\n}";
+	}
+
+	private ShortestPathsWorkspace search(int source, int target) {
+		validateVertex(source);
+		validateVertex(target);
+
+		ShortestPathsWorkspace workspace = workspaces.get();
+		IndexMinPriorityQueue crossingEdges = workspace.crossingEdges();
+
+		workspace.reset();
+
+		workspace.reach(source, 0.0, -1, 0.0);
+		crossingEdges.insert(source, heuristic.estimate(source, target));
+
+		while (!crossingEdges.isEmpty()) {
+			int v = crossingEdges.delMin();
+
+			if (v == target) {
+				break;
+			}
+
+			for (int i = 0; i < wg.degree(v); i++) {
+				int w = wg.getAdjacentVertex(v, i);
+				double edgeWeight = wg.getIncidentWeight(v, i);
+				double newWeight = workspace.weightTo(v) + edgeWeight;
+
+				if (newWeight < workspace.weightTo(w)) {
+					workspace.reach(w, newWeight, v, edgeWeight);
+
+					// a relaxed vertex is inserted again if the heuristic is not consistent
+					if (crossingEdges.contains(w)) {
+						crossingEdges.decreaseKey(w, newWeight + heuristic.estimate(w, target));
+					}else {
+						crossingEdges.insert(w, newWeight + heuristic.estimate(w, target));
+					}
+				}
+			}
+		}
+
+		return workspace;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= wg.size()) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (wg.size() - 1));
+		}
+	}
+
+	public static void main(String[] args) {
+		// a grid of 10x10 vertices, with edges to the right and down costing 1 and edges to the left and up costing 2
+		final int side = 10;
+
+		CompressedSparseRowWeightedGraph.Builder builder = new CompressedSparseRowWeightedGraph.Builder(side * side, WeightedGraph.Type.DIRECTED);
+		for (int row = 0; row < side; row++) {
+			for (int column = 0; column < side; column++) {
+				int v = row * side + column;
+
+				if (column < side - 1) {
+					builder.addEdge(v, v + 1, 1.0);
+					builder.addEdge(v + 1, v, 2.0);
+				}
+
+				if (row < side - 1) {
+					builder.addEdge(v, v + side, 1.0);
+					builder.addEdge(v + side, v, 2.0);
+				}
+			}
+		}
+		CompressedSparseRowWeightedGraph grid = builder.build();
+
+		// Manhattan distance, as every edge costs at least 1
+		AStarSP aStarSP = new AStarSP(grid, new Heuristic() {
+			@Override
+			public double estimate(int v, int target) {
+				return Math.abs(v / side - target / side) + Math.abs(v % side - target % side);
+			}
+		});
+		System.out.println(aStarSP);
+
+		System.out.println("weightTo 0->99: " + aStarSP.weightTo(0, 99));
+		System.out.println("weightTo 99->0: " + aStarSP.weightTo(99, 0));
+		System.out.println("pathTo 12->34: " + aStarSP.pathTo(12, 34));
+
+		DijkstraSP dsp = new DijkstraSP(grid, 99);
+		System.out.println("weightTo 99->0 (DijkstraSP): " + dsp.weightTo(0));
+	}
+}
@@ -0,0 +1,287 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+
+/**
+ * A many-to-many Shortest Paths engine, which computes the distances from each vertex of a list of sources to each
+ * vertex of a list of targets (a distance matrix) with a Dijkstra's search per source, for edge-weighted digraphs with
+ * NON-NEGATIVE weights.
+ * The searches of a batch are run in parallel on a ForkJoinPool, one task per source, and each thread reuses its own
+ * ShortestPathsWorkspace, allocated on its first search and stamped with versions, so a search neither allocates nor
+ * resets any vertex-indexed array: the whole batch allocates the matrix and a vertex-indexed array of target marks,
+ * instead of a DijkstraSP (three vertex-indexed arrays and a priority queue) per source.
+ * Each search stops as soon as all the targets are taken from its priority queue, as their distances are final then,
+ * so it only explores the part of the graph closer to the source than the farthest target, and writes its row of the
+ * matrix, which is not shared with other tasks.
+ * The matrix keeps the distances in a single row-major array of doubles or, to halve its size for large batches, of
+ * floats (with about 7 significant digits).
+ * The engine is thread-safe, as long as the graph is not changed.
+ */
+public class BatchDijkstraSP {
+	private final WeightedGraph dwg;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<ShortestPathsWorkspace> workspaces;
+
+	/**
+	 * The precision of the distances kept in a DistanceMatrix
+	 */
+	public enum Precision {
+		DOUBLE,
+		FLOAT;
+	}
+
+	/**
+	 * Creates an engine for this weighted digraph running the batches on the common ForkJoinPool
+	 *
+	 * @param dwg a weighted digraph
+	 */
+	public BatchDijkstraSP(WeightedGraph dwg) {
+		this(dwg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates an engine for this weighted digraph
+	 *
+	 * @param dwg a weighted digraph
+	 * @param pool the pool to run the searches of each batch
+	 */
+	public BatchDijkstraSP(final WeightedGraph dwg, ForkJoinPool pool) {
+		this.dwg = dwg;
+		this.pool = pool;
+
+		workspaces = new ThreadLocal<ShortestPathsWorkspace>() {
+			@Override
+			protected ShortestPathsWorkspace initialValue() {
+				return new ShortestPathsWorkspace(dwg.size());
+			}
+		};
+	}
+
+	/**
+	 * Computes the distance from each source to each target with double precision
+	 *
+	 * @param sources the vertices of the rows of the matrix
+	 * @param targets the vertices of the columns of the matrix
+	 * @return the distance matrix
+	 */
+	public DistanceMatrix weights(int[] sources, int[] targets) {
+		return weights(sources, targets, Precision.DOUBLE);
+	}
+
+	/**
+	 * Computes the distance from each source to each target
+	 *
+	 * @param sources the vertices of the rows of the matrix
+	 * @param targets the vertices of the columns of the matrix
+	 * @param precision the precision of the distances kept in the matrix
+	 * @return the distance matrix
+	 */
+	public DistanceMatrix weights(final int[] sources, final int[] targets, Precision precision) {
+		for (int source : sources) {
+			validateVertex(source);
+		}
+
+		final boolean[] isTarget = new boolean[dwg.size()];
+		int numberOfTargets = 0;
+
+		for (int target : targets) {
+			validateVertex(target);
+
+			if (!isTarget[target]) {
+				isTarget[target] = true;
+
+				numberOfTargets++;
+			}
+		}
+
+		final DistanceMatrix matrix = new DistanceMatrix(sources.length, targets.length, precision);
+		final int distinctTargets = numberOfTargets;
+
+		if (distinctTargets == 0) {
+			return matrix;
+		}
+
+		ChunksAction.forEachChunk(pool, sources.length, new IntConsumer() {
+			@Override
+			public void accept(int row) {
+				ShortestPathsWorkspace workspace = search(sources[row], isTarget, distinctTargets);
+
+				for (int column = 0; column < targets.length; column++) {
+					matrix.set(row, column, workspace.weightTo(targets[column]));
+				}
+			}
+		});
+
+		return matrix;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nnumberOfVertices: " + dwg.size() + "\n}";
+	}
+
+	private ShortestPathsWorkspace search(int source, boolean[] isTarget, int numberOfTargets) {
+		ShortestPathsWorkspace workspace = workspaces.get();
+		IndexMinPriorityQueue crossingEdges = workspace.crossingEdges();
+
+		workspace.reset();
+
+		workspace.reach(source, 0.0, -1, 0.0);
+		crossingEdges.insert(source, 0.0);
+
+		int targetsLeft = numberOfTargets;
+
+		while (!crossingEdges.isEmpty()) {
+			int v = crossingEdges.delMin();
+
+			if (isTarget[v] && --targetsLeft == 0) {
+				break;
+			}
+
+			for (int i = 0; i < dwg.degree(v); i++) {
+				int w = dwg.getAdjacentVertex(v, i);
+				double edgeWeight = dwg.getIncidentWeight(v, i);
+				double newWeight = workspace.weightTo(v) + edgeWeight;
+
+				if (newWeight < workspace.weightTo(w)) {
+					workspace.reach(w, newWeight, v, edgeWeight);
+
+					if (crossingEdges.contains(w)) {
+						crossingEdges.decreaseKey(w, newWeight);
+					}else {
+						crossingEdges.insert(w, newWeight);
+					}
+				}
+			}
+		}
+
+		return workspace;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= dwg.size()) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (dwg.size() - 1));
+		}
+	}
+
+	/**
+	 * The distances from a list of sources (rows) to a list of targets (columns), kept in a single row-major array,
+	 * infinity if there is no path
+	 */
+	public static class DistanceMatrix {
+		private final int numberOfRows;
+		private final int numberOfColumns;
+		private final double[] doubleWeights;
+		private final float[] floatWeights;
+
+		DistanceMatrix(int numberOfRows, int numberOfColumns, Precision precision) {
+			long size = (long) numberOfRows * numberOfColumns;
+
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Matrix of " + numberOfRows + "x" + numberOfColumns + " is too large");
+			}
+
+			this.numberOfRows = numberOfRows;
+			this.numberOfColumns = numberOfColumns;
+
+			doubleWeights = precision == Precision.DOUBLE ? new double[(int) size] : null;
+			floatWeights = precision == Precision.FLOAT ? new float[(int) size] : null;
+		}
+
+		/**
+		 * Gets the distance from the source of a row to the target of a column
+		 *
+		 * @param row the index of the source in the list of sources
+		 * @param column the index of the target in the list of targets
+		 * @return the distance, infinity if there is no path
+		 */
+		public double weight(int row, int column) {
+			int i = index(row, column);
+
+			return doubleWeights != null ? doubleWeights[i] : floatWeights[i];
+		}
+
+		public int getNumberOfRows() {
+			return numberOfRows;
+		}
+
+		public int getNumberOfColumns() {
+			return numberOfColumns;
+		}
+
+		public Precision getPrecision() {
+			return doubleWeights != null ? Precision.DOUBLE : Precision.FLOAT;
+		}
+
+		void set(int row, int column, double weight) {
+			int i = index(row, column);
+
+			if (doubleWeights != null) {
+				doubleWeights[i] = weight;
+			}else {
+				floatWeights[i] = (float) weight;
+			}
+		}
+
+		private int index(int row, int column) {
+			if (row < 0 || row >= numberOfRows || column < 0 || column >= numberOfColumns) {
+				throw new IllegalArgumentException("Position (" + row + ", " + column + ") is not in a matrix of " + numberOfRows + "x" + numberOfColumns);
+			}
+
+			return row * numberOfColumns + column;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+
+			sb.append(getClass().getSimpleName());
+			sb.append(" {");
+			sb.append("\nprecision: ");
+			sb.append(getPrecision());
+			sb.append(",\nweights: {\n");
+
+			for (int row = 0; row < numberOfRows; row++) {
+				sb.append("[");
+
+				for (int column = 0; column < numberOfColumns; column++) {
+					if (column > 0) {
+						sb.append(", ");
+					}
+
+					sb.append(weight(row, column));
+				}
+
+				sb.append(row < numberOfRows - 1 ? "],\n" : "]\n");
+			}
+
+			sb.append("}\n}");
+
+			return sb.toString();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwg = new DirectedWeightedGraph("weighted_digraph_tiny.txt");
+
+		BatchDijkstraSP bdsp = new BatchDijkstraSP(dwg);
+		System.out.println(bdsp);
+
+		int[] sources = {0, 1, 2, 3, 4, 5, 6, 7};
+		int[] targets = {0, 1, 2, 3, 4, 5, 6, 7};
+
+		System.out.println(bdsp.weights(sources, targets));
+		System.out.println(bdsp.weights(new int[] {0, 3}, new int[] {6, 1}, Precision.FLOAT));
+
+		System.out.println("weightTo 0->6 (DijkstraSP): " + new DijkstraSP(dwg, 0).weightTo(6));
+	}
+}
@@ -6,11 +6,10 @@ package com.pablosesteban.api.impl;
 import java.io.IOException;
 import java.util.Arrays;
 
-import com.pablosesteban.adt.Queue;
 import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
 import com.pablosesteban.adt.impl.DirectedWeightedGraph;
 import com.pablosesteban.adt.impl.Edge;
-import com.pablosesteban.adt.impl.LinkedQueue;
 import com.pablosesteban.adt.impl.LinkedStack;
 import com.pablosesteban.api.WeightedDigraphShortestPaths;
 
@@ -25,47 +24,110 @@ import com.pablosesteban.api.WeightedDigraphShortestPaths;
  * If there is no negative cycle reachable from s, the algorithm terminates after
  * relaxations corresponding to the (V1)st pass (since all shortest paths have fewer
  * than V1 edges).
- * If there does exist a negative cycle reachable from s, the queue never empties, so
- * the algorithm never ends. If the queue is non empty after the Vth pass through all
- * the edges the subgraph of edges in our edgeTo[] array must contain a negative cycle.
+ * If there does exist a negative cycle reachable from s, the queue never empties, but
+ * sooner or later the subgraph of edges in our edgeTo[] array contains a cycle, which
+ * must be a negative one, as each edge on it was added because it lowered the weight
+ * of a path. The edgeTo[] array is checked after every V vertex relaxations, walking
+ * up the parent links from each vertex to the root of its tree (marking the vertices
+ * walked from the same vertex, so a cycle is found when a vertex is walked twice and
+ * each vertex is walked once per check), and the algorithm stops as soon as a cycle
+ * is found, so checking takes linear time, amortized over the relaxations.
+ * The order in which the vertices on the queue are relaxed is given at construction:
+ * <ul>
+ * <li>FIFO: the vertices are relaxed in the order they were put on the queue, i.e. in
+ * passes, as in the general algorithm.</li>
+ * <li>SLF_LLL: the queue is a deque where a vertex whose distance is lower than the
+ * distance of the first vertex is put first (Small Label First) and, before relaxing
+ * the first vertex, it is moved last while its distance is greater than the average
+ * distance of the vertices on the queue (Large Label Last), so vertices closer to the
+ * source, which are more likely to be final, are relaxed sooner. It usually relaxes
+ * fewer vertices than FIFO, although the worst case is the same.</li>
+ * </ul>
+ * The queue is a circular array of vertices of size V, as a vertex is never twice on
+ * it, and onQueue[] tells which vertices are on it.
+ * The SPT is kept as a parent-link representation, edgeTo[] holding the vertex the last edge on the path to each
+ * vertex comes from and edgeWeightTo[] its weight, and edges are scanned through the primitive cursor of
+ * WeightedGraph, so it runs on any backend without creating Edge objects but for the paths returned by pathTo.
  */
 public class BellmanFordQueueSP implements WeightedDigraphShortestPaths {
+	public enum Type {
+		FIFO,
+		SLF_LLL;
+	}
+	
 	private double[] weightTo;
-	private Edge[] edgeTo;
-	private Queue<Integer> queue;
+	private int[] edgeTo;
+	private double[] edgeWeightTo;
+	private Type type;
+	private int[] queue;
+	private int first;
+	private int queueSize;
+	// sum of the distances of the vertices on the queue, to get their average (LLL)
+	private double queueWeight;
 	private boolean[] onQueue;
+	private int relaxations;
+	private Iterable<Edge> negativeCycle;
 	
-	public BellmanFordQueueSP(DirectedWeightedGraph dwg, int source) {
+	/**
+	 * Computes the SPT relaxing the vertices in FIFO order
+	 * 
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 */
+	public BellmanFordQueueSP(WeightedGraph dwg, int source) {
+		this(dwg, source, Type.FIFO);
+	}
+	
+	/**
+	 * Computes the SPT relaxing the vertices in the order given by the type of queue, stopping if a negative cycle
+	 * reachable from source is found
+	 * 
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 * @param type the queue discipline
+	 */
+	public BellmanFordQueueSP(WeightedGraph dwg, int source, Type type) {
 		weightTo = new double[dwg.size()];
-		edgeTo = new Edge[dwg.size()];
+		edgeTo = new int[dwg.size()];
+		edgeWeightTo = new double[dwg.size()];
+		this.type = type;
 		// a vertex-indexed boolean array that indicates which vertices are on the queue, to avoid duplicates
 		onQueue = new boolean[dwg.size()];
 		// a queue of vertices to be relaxed
-		queue = new LinkedQueue<>();
+		queue = new int[dwg.size()];
 		
 		for (int v = 0; v < weightTo.length; v++) {
 			weightTo[v] = Double.POSITIVE_INFINITY;
+			edgeTo[v] = -1;
 		}
 		
 		weightTo[source] = 0.0;
 		
-		queue.enqueue(source);
-		while (!queue.isEmpty()) {
-			Integer vertex = queue.dequeue();
+		enqueue(source);
+		while (queueSize > 0 && !hasNegativeCycle()) {
+			int vertex = dequeue();
 			
-			onQueue[vertex] = true;
+			onQueue[vertex] = false;
 			
 			relaxEdges(dwg, vertex);
 		}
+		
+		// the queue is only needed while computing the SPT
+		queue = null;
+		onQueue = null;
 	}
 	
 	@Override
 	public double weightTo(int v) {
+		validateNoNegativeCycle();
+		
 		return weightTo[v];
 	}
 
 	@Override
 	public boolean hasPathTo(int v) {
+		validateNoNegativeCycle();
+		
 		return weightTo[v] != Double.POSITIVE_INFINITY;
 	}
 
@@ -77,19 +139,34 @@ public class BellmanFordQueueSP implements WeightedDigraphShortestPaths {
 		
 		Stack<Edge> path = new LinkedStack<>();
 		
-		Edge e = edgeTo[v];
-		while (e != null) {
-			path.push(e);
-			
-			e = edgeTo[e.getFrom()];
+		for (int w = v; edgeTo[w] != -1; w = edgeTo[w]) {
+			path.push(new Edge(edgeTo[w], w, edgeWeightTo[w]));
 		}
 		
 		return path;
 	}
 	
+	/**
+	 * Checks if there is a negative cycle reachable from source, in which case there are no shortest paths
+	 * 
+	 * @return true if, and only if, a negative cycle was found
+	 */
+	public boolean hasNegativeCycle() {
+		return negativeCycle != null;
+	}
+	
+	/**
+	 * Gets a negative cycle reachable from source
+	 * 
+	 * @return the edges of the cycle, null if none
+	 */
+	public Iterable<Edge> negativeCycle() {
+		return negativeCycle;
+	}
+	
 	@Override
 	public String toString() {
-		return getClass().getSimpleName() + " {\nweightTo: " + Arrays.toString(weightTo) + ",\nedgeTo: " + Arrays.toString(edgeTo) + "\n}";
+		return getClass().getSimpleName() + " {\ntype: " + type + ",\nweightTo: " + Arrays.toString(weightTo) + ",\nedgeTo: " + Arrays.toString(edgeTo) + ",\nnegativeCycle: " + negativeCycle + "\n}";
 	}
 
 	/**
@@ -103,25 +180,108 @@ public class BellmanFordQueueSP implements WeightedDigraphShortestPaths {
 	 * @param dwg a weighted digraph
 	 * @param v a vertex in the graph
 	 */
-	private void relaxEdges(DirectedWeightedGraph dwg, int v) {
-		if (dwg.getIncidentEdges(v) != null) {
-			for (Edge e : dwg.getIncidentEdges(v)) {
-				double newWeight = e.getWeight() + weightTo[e.getFrom()];
+	private void relaxEdges(WeightedGraph dwg, int v) {
+		for (int i = 0; i < dwg.degree(v); i++) {
+			int w = dwg.getAdjacentVertex(v, i);
+			double edgeWeight = dwg.getIncidentWeight(v, i);
+			double newWeight = edgeWeight + weightTo[v];
+			
+			// every vertex whose edgeTo[] and weightTo[] values change in some pass is processed in the next pass
+			if (newWeight < weightTo[w]) {
+				if (onQueue[w]) {
+					queueWeight += newWeight - weightTo[w];
+				}
 				
-				// every vertex whose edgeTo[] and weightTo[] values change in some pass is processed in the next pass
-				if (newWeight < weightTo[e.getTo()]) {
-					weightTo[e.getTo()] = newWeight;
-					
-					edgeTo[e.getTo()] = e;
-					
-					if (!onQueue[e.getTo()]) {
-						queue.enqueue(e.getTo());
-						
-						onQueue[e.getTo()] = true;
-					}
+				weightTo[w] = newWeight;
+				
+				edgeTo[w] = v;
+				edgeWeightTo[w] = edgeWeight;
+				
+				if (!onQueue[w]) {
+					enqueue(w);
 				}
 			}
 		}
+		
+		if (++relaxations % dwg.size() == 0) {
+			negativeCycle = findCycle(edgeTo, edgeWeightTo);
+		}
+	}
+	
+	private void enqueue(int v) {
+		// Small Label First
+		if (type == Type.SLF_LLL && queueSize > 0 && weightTo[v] < weightTo[queue[first]]) {
+			first = (first + queue.length - 1) % queue.length;
+			queue[first] = v;
+		}else {
+			queue[(first + queueSize) % queue.length] = v;
+		}
+		
+		queueSize++;
+		queueWeight += weightTo[v];
+		onQueue[v] = true;
+	}
+	
+	private int dequeue() {
+		// Large Label Last: some vertex is not above the average, so it ends after queueSize moves at most
+		if (type == Type.SLF_LLL) {
+			for (int i = 1; i < queueSize && weightTo[queue[first]] * queueSize > queueWeight; i++) {
+				queue[(first + queueSize) % queue.length] = queue[first];
+				first = (first + 1) % queue.length;
+			}
+		}
+		
+		int v = queue[first];
+		
+		first = (first + 1) % queue.length;
+		queueSize--;
+		queueWeight = queueSize == 0 ? 0.0 : queueWeight - weightTo[v];
+		
+		return v;
+	}
+	
+	private void validateNoNegativeCycle() {
+		if (hasNegativeCycle()) {
+			throw new UnsupportedOperationException("There is a negative cycle reachable from source: " + negativeCycle);
+		}
+	}
+	
+	/**
+	 * Finds a cycle in the parent-link representation of a SPT, walking up the parent links from each vertex until a root
+	 * (-1), a vertex walked from a previous vertex or a vertex walked from this vertex, which closes a cycle, is found
+	 * 
+	 * @param edgeTo the parent of each vertex, -1 if none
+	 * @param edgeWeightTo the weight of the edge from the parent of each vertex
+	 * @return the edges of a cycle, null if none
+	 */
+	static Iterable<Edge> findCycle(int[] edgeTo, double[] edgeWeightTo) {
+		// the vertex each vertex was walked from, plus one (0 if not walked yet)
+		int[] walkedFrom = new int[edgeTo.length];
+		
+		for (int v = 0; v < edgeTo.length; v++) {
+			int w = v;
+			
+			while (w != -1 && walkedFrom[w] == 0) {
+				walkedFrom[w] = v + 1;
+				
+				w = edgeTo[w];
+			}
+			
+			if (w != -1 && walkedFrom[w] == v + 1) {
+				Stack<Edge> cycle = new LinkedStack<>();
+				
+				int x = w;
+				do {
+					cycle.push(new Edge(edgeTo[x], x, edgeWeightTo[x]));
+					
+					x = edgeTo[x];
+				} while (x != w);
+				
+				return cycle;
+			}
+		}
+		
+		return null;
 	}
 	
 	public static void main(String[] args) throws IOException {
@@ -146,7 +306,10 @@ public class BellmanFordQueueSP implements WeightedDigraphShortestPaths {
 		BellmanFordQueueSP bfq3 = new BellmanFordQueueSP(dwgNegativeCycle, 0);
 		System.out.println(bfq3);
 		
-		System.out.println("pathTo 5: " + bfq3.pathTo(5));
-		System.out.println("pathTo 6: " + bfq3.pathTo(6));
+		System.out.println("hasNegativeCycle: " + bfq3.hasNegativeCycle());
+		System.out.println("negativeCycle: " + bfq3.negativeCycle());
+		
+		BellmanFordQueueSP bfq4 = new BellmanFordQueueSP(dwgNegativeEdges, 0, Type.SLF_LLL);
+		System.out.println("pathTo 6 (SLF/LLL): " + bfq4.pathTo(6));
 	}
 }
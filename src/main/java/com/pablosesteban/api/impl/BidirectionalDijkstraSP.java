@@ -0,0 +1,248 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphPointToPointShortestPaths;
+
+/**
+ * A point-to-point Shortest Paths implementation based on the bidirectional Dijkstra's algorithm, which, as the
+ * Dijkstra's algorithm, solves the problem in edge-weighted digraphs with NON-NEGATIVE weights.
+ * Consists on running two Dijkstra's searches at the same time, alternating them: a forward search from the source on
+ * the digraph and a backward search from the target on its reverse, i.e. on the digraph with all edges reversed. Each
+ * time a search relaxes an edge to a vertex already reached by the other search, a path from source to target through
+ * that vertex is found, and the shortest one (mu) is kept.
+ * The algorithm stops as soon as the sum of the distances of the last vertices relaxed by both searches is not lower
+ * than mu, since any path shorter than mu would have been found by then, so both searches together explore roughly two
+ * balls whose radius is half the distance from source to target, instead of a ball of the whole radius.
+ * The side to relax next is the search with the smaller priority queue, which balances the work of both searches.
+ * Each thread answering queries reuses its own ShortestPathsWorkspace (one per search), allocated on its first query
+ * and stamped with versions, so a query neither allocates nor resets any vertex-indexed array, and it takes time
+ * proportional to the part of the graph it explores. The engine is thread-safe, as long as the graph is not changed.
+ */
+public class BidirectionalDijkstraSP implements WeightedDigraphPointToPointShortestPaths {
+	private final WeightedGraph wg;
+	private final WeightedGraph reverse;
+	private final ThreadLocal<Query> queries;
+
+	/**
+	 * Creates a query engine for this weighted digraph, building its reverse as a CompressedSparseRowWeightedGraph
+	 *
+	 * @param wg a weighted digraph
+	 */
+	public BidirectionalDijkstraSP(WeightedGraph wg) {
+		this(wg, reverse(wg));
+	}
+
+	/**
+	 * Creates a query engine for this weighted digraph given its reverse (the weighted graph itself if undirected)
+	 *
+	 * @param wg a weighted digraph
+	 * @param reverse the reverse of the weighted digraph
+	 */
+	public BidirectionalDijkstraSP(final WeightedGraph wg, WeightedGraph reverse) {
+		if (wg.size() != reverse.size()) {
+			throw new IllegalArgumentException("Reverse graph must have " + wg.size() + " vertices: " + reverse.size());
+		}
+
+		this.wg = wg;
+		this.reverse = reverse;
+
+		queries = new ThreadLocal<Query>() {
+			@Override
+			protected Query initialValue() {
+				return new Query(wg.size());
+			}
+		};
+	}
+
+	@Override
+	public double weightTo(int source, int target) {
+		return search(source, target).weight;
+	}
+
+	@Override
+	public boolean hasPathTo(int source, int target) {
+		return search(source, target).meetingVertex != -1;
+	}
+
+	/**
+	 * Joins the path from source to the meeting vertex found by the forward search with the path from the meeting
+	 * vertex to target found by the backward search
+	 */
+	@Override
+	public Iterable<Edge> pathTo(int source, int target) {
+		Query query = search(source, target);
+
+		if (query.meetingVertex == -1) {
+			return null;
+		}
+
+		Stack<Edge> backwardPath = new LinkedStack<>();
+		for (int v = query.meetingVertex; query.backward.edgeTo(v) != -1; v = query.backward.edgeTo(v)) {
+			backwardPath.push(new Edge(v, query.backward.edgeTo(v), query.backward.edgeWeightTo(v)));
+		}
+
+		Stack<Edge> path = new LinkedStack<>();
+		while (!backwardPath.isEmpty()) {
+			path.push(backwardPath.pop());
+		}
+
+		for (int w = query.meetingVertex; query.forward.edgeTo(w) != -1; w = query.forward.edgeTo(w)) {
+			path.push(new Edge(query.forward.edgeTo(w), w, query.forward.edgeWeightTo(w)));
+		}
+
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nnumberOfVertices: " + wg.size() + "\n}";
+	}
+
+	private Query search(int source, int target) {
+		validateVertex(source);
+		validateVertex(target);
+
+		Query query = queries.get();
+
+		ShortestPathsWorkspace forward = query.forward;
+		ShortestPathsWorkspace backward = query.backward;
+
+		forward.reset();
+		backward.reset();
+
+		forward.reach(source, 0.0, -1, 0.0);
+		backward.reach(target, 0.0, -1, 0.0);
+
+		if (source == target) {
+			query.weight = 0.0;
+			query.meetingVertex = source;
+
+			return query;
+		}
+
+		query.weight = Double.POSITIVE_INFINITY;
+		query.meetingVertex = -1;
+
+		forward.crossingEdges().insert(source, 0.0);
+		backward.crossingEdges().insert(target, 0.0);
+
+		double forwardRadius = 0.0;
+		double backwardRadius = 0.0;
+
+		while (!forward.crossingEdges().isEmpty() && !backward.crossingEdges().isEmpty()) {
+			boolean isForward = forward.crossingEdges().size() <= backward.crossingEdges().size();
+
+			ShortestPathsWorkspace workspace = isForward ? forward : backward;
+			ShortestPathsWorkspace other = isForward ? backward : forward;
+
+			int v = workspace.crossingEdges().delMin();
+
+			if (isForward) {
+				forwardRadius = workspace.weightTo(v);
+			}else {
+				backwardRadius = workspace.weightTo(v);
+			}
+
+			// no path through unrelaxed vertices can be shorter
+			if (forwardRadius + backwardRadius >= query.weight) {
+				break;
+			}
+
+			relaxEdges(isForward ? wg : reverse, v, workspace, other, query);
+		}
+
+		return query;
+	}
+
+	private void relaxEdges(WeightedGraph g, int v, ShortestPathsWorkspace workspace, ShortestPathsWorkspace other, Query query) {
+		IndexMinPriorityQueue crossingEdges = workspace.crossingEdges();
+
+		for (int i = 0; i < g.degree(v); i++) {
+			int w = g.getAdjacentVertex(v, i);
+			double edgeWeight = g.getIncidentWeight(v, i);
+			double newWeight = workspace.weightTo(v) + edgeWeight;
+
+			if (newWeight < workspace.weightTo(w)) {
+				workspace.reach(w, newWeight, v, edgeWeight);
+
+				if (crossingEdges.contains(w)) {
+					crossingEdges.decreaseKey(w, newWeight);
+				}else {
+					crossingEdges.insert(w, newWeight);
+				}
+
+				double pathWeight = newWeight + other.weightTo(w);
+
+				if (pathWeight < query.weight) {
+					query.weight = pathWeight;
+					query.meetingVertex = w;
+				}
+			}
+		}
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= wg.size()) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (wg.size() - 1));
+		}
+	}
+
+	/**
+	 * Builds the reverse of a weighted digraph through its primitive cursor
+	 */
+	static CompressedSparseRowWeightedGraph reverse(WeightedGraph wg) {
+		CompressedSparseRowWeightedGraph.Builder builder = new CompressedSparseRowWeightedGraph.Builder(wg.size(), WeightedGraph.Type.DIRECTED);
+
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				builder.addEdge(wg.getAdjacentVertex(v, i), v, wg.getIncidentWeight(v, i));
+			}
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * The state of the last query of a thread: the workspaces of both searches plus the shortest path found so far,
+	 * given by its weight and the vertex where both searches meet (-1 if none)
+	 */
+	private static class Query {
+		private final ShortestPathsWorkspace forward;
+		private final ShortestPathsWorkspace backward;
+		private double weight;
+		private int meetingVertex;
+
+		Query(int numberOfVertices) {
+			forward = new ShortestPathsWorkspace(numberOfVertices);
+			backward = new ShortestPathsWorkspace(numberOfVertices);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwg = new DirectedWeightedGraph("weighted_digraph_tiny.txt");
+
+		BidirectionalDijkstraSP bsp = new BidirectionalDijkstraSP(dwg);
+		System.out.println(bsp);
+
+		System.out.println("weightTo 0->6: " + bsp.weightTo(0, 6));
+		System.out.println("pathTo 0->6: " + bsp.pathTo(0, 6));
+		System.out.println("pathTo 3->5: " + bsp.pathTo(3, 5));
+		System.out.println("hasPathTo 0->0: " + bsp.hasPathTo(0, 0));
+
+		DijkstraSP dsp = new DijkstraSP(dwg, 0);
+		for (int v = 0; v < dwg.size(); v++) {
+			System.out.println("\t--0->" + v + ": " + bsp.weightTo(0, v) + " (DijkstraSP: " + dsp.weightTo(v) + ")");
+		}
+	}
+}
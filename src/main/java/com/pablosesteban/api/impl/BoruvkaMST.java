@@ -0,0 +1,287 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.UnionFind;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.ConcurrentUnionFind;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.adt.impl.UndirectedWeightedGraph;
+import com.pablosesteban.api.WeightedUngraphMinimumSpanningTree;
+
+/**
+ * A MST implementation based on the Boruvka's Algorithm.
+ * Consists on growing a forest of trees, starting with each vertex as a single-vertex tree, in rounds: at each round
+ * the cheapest edge leaving each tree (connected component) is found and all of them are added to the MST at once,
+ * merging the trees they connect. The number of trees is at least halved at each round, as each tree is merged with
+ * at least another one, so there are at most log V rounds.
+ * Ties are broken by edge index, so the edges of a round never form a cycle, even with equal weights.
+ * Unlike the Prim's and Kruskal's algorithms, the work of each round is independent for each edge and each tree, so it
+ * is split in chunks run in parallel on a ForkJoinPool:
+ * <li>Each task scans its chunk of edges, finding the trees of both vertices in a ConcurrentUnionFind, and offers the
+ * edge as the cheapest of both trees with a CAS on a vertex-indexed AtomicIntegerArray. Edges within a tree are dropped
+ * for the next rounds, compacting the chunk in place.</li>
+ * <li>Each task takes its chunk of trees and selects their cheapest edges (once, if it is the cheapest of both trees).</li>
+ * <li>Each task merges the trees of the selected edges on the ConcurrentUnionFind.</li>
+ * The implementation uses space proportional to the number of edges (E) plus the number of vertices (V) and does work
+ * proportional to E log V in the worst case. If the graph is not connected, it computes the Minimum Spanning Forest.
+ * Edges are not objects while processing: they are copied through the primitive cursor of WeightedGraph into three
+ * parallel arrays (from, to and weight), so no object is created but for the V - 1 edges of the MST.
+ */
+public class BoruvkaMST implements WeightedUngraphMinimumSpanningTree {
+	// edges or trees handled by each task
+	private static final int GRAIN = 4096;
+	private static final int NONE = -1;
+
+	private Queue<Edge> mst;
+	private double weight;
+
+	private int[] from;
+	private int[] to;
+	private double[] weights;
+	private UnionFind uf;
+	private AtomicIntegerArray cheapest;
+	private ForkJoinPool pool;
+
+	/**
+	 * Computes the MST for this undirected weighted graph using the common ForkJoinPool
+	 *
+	 * @param wg a weighted graph
+	 */
+	public BoruvkaMST(WeightedGraph wg) {
+		this(wg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the MST for this undirected weighted graph
+	 *
+	 * @param wg a weighted graph
+	 * @param pool the pool to run each round
+	 */
+	public BoruvkaMST(WeightedGraph wg, ForkJoinPool pool) {
+		this.pool = pool;
+		uf = new ConcurrentUnionFind(wg.size());
+		mst = new LinkedQueue<>();
+
+		int numberOfEdges = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				if (wg.getAdjacentVertex(v, i) > v) {
+					numberOfEdges++;
+				}
+			}
+		}
+
+		from = new int[numberOfEdges];
+		to = new int[numberOfEdges];
+		weights = new double[numberOfEdges];
+
+		int e = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				int w = wg.getAdjacentVertex(v, i);
+
+				if (w > v) {
+					from[e] = v;
+					to[e] = w;
+					weights[e] = wg.getIncidentWeight(v, i);
+
+					e++;
+				}
+			}
+		}
+
+		cheapest = new AtomicIntegerArray(wg.size());
+		for (int v = 0; v < wg.size(); v++) {
+			cheapest.set(v, NONE);
+		}
+
+		boruvka(numberOfEdges, wg.size());
+
+		// the arrays are only needed while computing the MST
+		from = null;
+		to = null;
+		weights = null;
+		cheapest = null;
+	}
+
+	@Override
+	public Iterable<Edge> getEdges() {
+		return mst;
+	}
+
+	@Override
+	public double getWeight() {
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nmst: " + mst + ",\nweight: " + weight + "\n}";
+	}
+
+	private void boruvka(int numberOfEdges, int numberOfVertices) {
+		final int[] edges = new int[numberOfEdges];
+		for (int i = 0; i < numberOfEdges; i++) {
+			edges[i] = i;
+		}
+
+		// the edges of each chunk still crossing two trees are kept at the beginning of the chunk
+		final int numberOfChunks = (numberOfEdges + GRAIN - 1) / GRAIN;
+		final int[] liveEdges = new int[numberOfChunks];
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			liveEdges[chunk] = Math.min(GRAIN, numberOfEdges - chunk * GRAIN);
+		}
+
+		// roots of the trees, i.e. the identifiers of the connected components
+		final int[] roots = new int[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			roots[v] = v;
+		}
+		int numberOfRoots = numberOfVertices;
+
+		final int[] selected = new int[numberOfVertices];
+
+		while (numberOfRoots > 1) {
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int start = chunk * GRAIN;
+					int end = start + liveEdges[chunk];
+
+					int live = start;
+					for (int i = start; i < end; i++) {
+						int e = edges[i];
+
+						int fromRoot = uf.find(from[e]);
+						int toRoot = uf.find(to[e]);
+
+						if (fromRoot == toRoot) {
+							continue;
+						}
+
+						edges[live++] = e;
+
+						offerCheapest(fromRoot, e);
+						offerCheapest(toRoot, e);
+					}
+
+					liveEdges[chunk] = live - start;
+				}
+			});
+
+			final int rootsInRound = numberOfRoots;
+			int numberOfRootChunks = (rootsInRound + GRAIN - 1) / GRAIN;
+
+			// no union is made while selecting, so the roots do not change
+			forEachChunk(numberOfRootChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(rootsInRound, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						int root = roots[i];
+						int e = cheapest.get(root);
+
+						selected[i] = NONE;
+
+						if (e == NONE) {
+							continue;
+						}
+
+						int fromRoot = uf.find(from[e]);
+						int otherRoot = fromRoot == root ? uf.find(to[e]) : fromRoot;
+
+						// an edge which is the cheapest of both trees is selected by the lowest root
+						if (cheapest.get(otherRoot) != e || root < otherRoot) {
+							selected[i] = e;
+						}
+					}
+				}
+			});
+
+			forEachChunk(numberOfRootChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(rootsInRound, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						cheapest.set(roots[i], NONE);
+
+						if (selected[i] != NONE) {
+							uf.union(from[selected[i]], to[selected[i]]);
+						}
+					}
+				}
+			});
+
+			boolean merged = false;
+			numberOfRoots = 0;
+			for (int i = 0; i < rootsInRound; i++) {
+				int e = selected[i];
+
+				if (e != NONE) {
+					mst.enqueue(new Edge(from[e], to[e], weights[e]));
+
+					weight += weights[e];
+
+					merged = true;
+				}
+
+				if (uf.find(roots[i]) == roots[i]) {
+					roots[numberOfRoots++] = roots[i];
+				}
+			}
+
+			// no tree has edges leaving it: the graph is not connected
+			if (!merged) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Makes the edge the cheapest one leaving the tree if it is lighter than the current one, retrying if another
+	 * thread changes it in the meantime
+	 */
+	private void offerCheapest(int root, int e) {
+		while (true) {
+			int current = cheapest.get(root);
+
+			if (current != NONE && !isLighter(e, current)) {
+				return;
+			}
+
+			if (cheapest.compareAndSet(root, current, e)) {
+				return;
+			}
+		}
+	}
+
+	private boolean isLighter(int e, int f) {
+		return weights[e] < weights[f] || (weights[e] == weights[f] && e < f);
+	}
+
+	private void forEachChunk(int numberOfChunks, IntConsumer action) {
+		ChunksAction.forEachChunk(pool, numberOfChunks, action);
+	}
+
+	public static void main(String[] args) throws IOException {
+		UndirectedWeightedGraph uwg = new UndirectedWeightedGraph("weighted_graph_tiny.txt");
+		System.out.println(uwg);
+
+		BoruvkaMST boruvkaMST = new BoruvkaMST(uwg);
+		System.out.println(boruvkaMST);
+
+		UndirectedWeightedGraph mediumUwg = new UndirectedWeightedGraph("weighted_graph_medium.txt");
+		System.out.println("Weight (medium): " + new BoruvkaMST(mediumUwg).getWeight());
+	}
+}
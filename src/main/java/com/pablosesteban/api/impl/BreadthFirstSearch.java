@@ -4,9 +4,7 @@
 package com.pablosesteban.api.impl;
 
 import com.pablosesteban.adt.Graph;
-import com.pablosesteban.adt.Queue;
 import com.pablosesteban.adt.Stack;
-import com.pablosesteban.adt.impl.LinkedQueue;
 import com.pablosesteban.adt.impl.LinkedStack;
 import com.pablosesteban.adt.impl.UndirectedGraph;
 import com.pablosesteban.api.GraphSearch;
@@ -89,23 +87,29 @@ public class BreadthFirstSearch implements GraphSearch {
         return count;
     }
     
-    // the queue is explicitly managed by the code
+    // the queue is explicitly managed by the code: as each vertex is enqueued
+    // at most once, a vertex-indexed int array with head and tail pointers is
+    // enough, so no node nor boxed vertex is allocated per step
     private void bfs(Graph g, int source) {
         marked[source] = true;
         
         count++;
         
-        Queue<Integer> queue = new LinkedQueue<>();
-        queue.enqueue(source);
+        int[] queue = new int[g.size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
         
-        while(!queue.isEmpty()) {
-            int v = queue.dequeue();
+        while(head < tail) {
+            int v = queue[head++];
             
-            for (Integer adjacentVertex : g.getAdjacentVertices(v)) {
+            for (int i = 0; i < g.degree(v); i++) {
+                int adjacentVertex = g.getAdjacentVertex(v, i);
+                
                 if (!marked[adjacentVertex]) {
                     marked[adjacentVertex] = true;
                     
-                    queue.enqueue(adjacentVertex);
+                    queue[tail++] = adjacentVertex;
                 
                     edgeTo[adjacentVertex] = v;
                     
@@ -0,0 +1,85 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A fork-join task which runs an action once for each chunk between lo and hi - 1, splitting the range of chunks in
+ * halves until a single chunk is left, so the chunks are run in parallel by the threads of a ForkJoinPool, balancing
+ * the work through work stealing.
+ * It is the building block of the algorithms splitting their work (edges, vertices, ...) in chunks of contiguous
+ * positions, where each chunk only writes its own positions or synchronizes through atomic variables.
+ */
+class ChunksAction extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final IntConsumer action;
+	private final int lo;
+	private final int hi;
+
+	ChunksAction(IntConsumer action, int lo, int hi) {
+		this.action = action;
+		this.lo = lo;
+		this.hi = hi;
+	}
+
+	/**
+	 * Runs the action for each chunk between 0 and numberOfChunks - 1 on the pool, or on the calling thread if there is
+	 * a single chunk, returning once all of them are done. When called from a task already running on the pool, the
+	 * chunks are forked from that task, so it helps running them instead of blocking its thread
+	 *
+	 * @param pool the pool to run the chunks
+	 * @param numberOfChunks the number of chunks
+	 * @param action the action to run for each chunk
+	 */
+	static void forEachChunk(ForkJoinPool pool, int numberOfChunks, IntConsumer action) {
+		if (numberOfChunks == 1) {
+			action.accept(0);
+		}else if (numberOfChunks > 1 && ForkJoinTask.getPool() == pool) {
+			new ChunksAction(action, 0, numberOfChunks).invoke();
+		}else if (numberOfChunks > 1) {
+			pool.invoke(new ChunksAction(action, 0, numberOfChunks));
+		}
+	}
+
+	/**
+	 * Concatenates the items found by each chunk, in the order of the chunks
+	 *
+	 * @param chunks the items of each chunk
+	 * @return a new array with the items of all the chunks
+	 */
+	static int[] concat(int[][] chunks) {
+		int size = 0;
+		for (int[] chunk : chunks) {
+			size += chunk.length;
+		}
+
+		int[] result = new int[size];
+		int i = 0;
+		for (int[] chunk : chunks) {
+			System.arraycopy(chunk, 0, result, i, chunk.length);
+
+			i += chunk.length;
+		}
+
+		return result;
+	}
+
+	@Override
+	protected void compute() {
+		if (hi - lo == 1) {
+			action.accept(lo);
+
+			return;
+		}
+
+		int mid = (lo + hi) >>> 1;
+
+		invokeAll(new ChunksAction(action, lo, mid), new ChunksAction(action, mid, hi));
+	}
+}
@@ -0,0 +1,500 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.WeightedGraph;
+
+/**
+ * Builds the Contraction Hierarchy (CH) of an edge-weighted digraph with NON-NEGATIVE weights.
+ * Contracting a vertex u means removing it from the graph while keeping the distances between the remaining vertices:
+ * for each pair of edges x->u and u->y, a shortcut x->y with weight(x->u) + weight(u->y) is added, unless a witness
+ * search (a Dijkstra's search from x which avoids u) finds a path from x to y not heavier than the shortcut. Every
+ * shortcut remembers the contracted vertex it skips (its middle vertex), so it can be unpacked into the original edges.
+ * Contracting all the vertices, one after the other, ranks them by contraction order: the edges of each vertex to
+ * vertices not contracted yet (original ones or shortcuts) are its upward edges (u->x) and its downward edges (x->u)
+ * in the hierarchy, which are all the queries need.
+ * The contraction works on an overlay graph, where each vertex keeps resizing arrays of its outgoing and incoming edges
+ * to the vertices not contracted yet, without parallel edges (only the lightest one is kept) nor self-loops.
+ * The contraction order matters, as it decides how many shortcuts are added: vertices are contracted by increasing
+ * priority, which is twice the edge difference (the number of shortcuts its contraction would add minus the number of
+ * its edges, as it is estimated by simulating the contraction) plus the number of its neighbors already contracted and
+ * its level (the depth of the hierarchy below it so far), which spread the contraction uniformly over the graph and
+ * keep the hierarchy shallow, so queries relax fewer vertices.
+ * Vertices are contracted in rounds, in parallel on a ForkJoinPool:
+ * <li>Each task selects, among its chunk of remaining vertices, the ones whose priority is lower than the priority of
+ * all of their neighbors (ties broken by index), which are an independent set, i.e. no two of them are adjacent.</li>
+ * <li>Each task runs the witness searches of its chunk of selected vertices, avoiding all the vertices of the set, so
+ * that the shortcuts of a vertex never rely on a path through another vertex contracted at the same time.</li>
+ * <li>The selected vertices are removed from the overlay graph and their shortcuts are added, sequentially.</li>
+ * <li>Each task recomputes the priorities of its chunk of neighbors of the contracted vertices.</li>
+ * Witness searches are limited to a number of relaxed vertices, taking the weight of the best path known to y as the
+ * witness when the limit is reached: a lost witness just adds an unnecessary shortcut, never a wrong distance.
+ * Each thread reuses its own ShortestPathsWorkspace for the witness searches.
+ */
+class ContractionHierarchyPreprocessor {
+	// vertices relaxed by each witness search, at most
+	private static final int WITNESS_SEARCH_LIMIT = 64;
+	// vertices handled by each task
+	private static final int GRAIN = 256;
+
+	private final int numberOfVertices;
+	private final ForkJoinPool pool;
+
+	// overlay graph of the vertices not contracted yet
+	private final Arcs outgoing;
+	private final Arcs incoming;
+	private final boolean[] contracted;
+	private final int[] contractedNeighbors;
+	private final int[] priorities;
+	private final int[] levels;
+	private final ThreadLocal<ShortestPathsWorkspace> workspaces;
+
+	// the hierarchy
+	private final int[] ranks;
+	private final Arcs upward;
+	private final Arcs downward;
+
+	ContractionHierarchyPreprocessor(WeightedGraph wg, ForkJoinPool pool) {
+		this.numberOfVertices = wg.size();
+		this.pool = pool;
+
+		outgoing = new Arcs(numberOfVertices);
+		incoming = new Arcs(numberOfVertices);
+		contracted = new boolean[numberOfVertices];
+		contractedNeighbors = new int[numberOfVertices];
+		priorities = new int[numberOfVertices];
+		levels = new int[numberOfVertices];
+		ranks = new int[numberOfVertices];
+		upward = new Arcs(numberOfVertices);
+		downward = new Arcs(numberOfVertices);
+
+		workspaces = new ThreadLocal<ShortestPathsWorkspace>() {
+			@Override
+			protected ShortestPathsWorkspace initialValue() {
+				return new ShortestPathsWorkspace(numberOfVertices);
+			}
+		};
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				int w = wg.getAdjacentVertex(v, i);
+				double weight = wg.getIncidentWeight(v, i);
+
+				if (weight < 0.0) {
+					throw new IllegalArgumentException("Edge " + v + "->" + w + " has negative weight " + weight);
+				}
+
+				if (v != w) {
+					addArc(v, w, weight, -1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Contracts all the vertices and freezes the hierarchy
+	 *
+	 * @return the contraction hierarchy
+	 */
+	ContractionHierarchySP preprocess() {
+		final int[] remaining = new int[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			remaining[v] = v;
+		}
+		int numberOfRemaining = numberOfVertices;
+
+		updatePriorities(remaining, numberOfRemaining);
+
+		final boolean[] isSelected = new boolean[numberOfVertices];
+		final int[] selected = new int[numberOfVertices];
+		final Shortcuts[] shortcuts = new Shortcuts[numberOfVertices];
+		final int[] dirty = new int[numberOfVertices];
+		final boolean[] isDirty = new boolean[numberOfVertices];
+		int rank = 0;
+
+		while (numberOfRemaining > 0) {
+			final int remainingInRound = numberOfRemaining;
+
+			forEachChunk(remainingInRound, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(remainingInRound, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						isSelected[remaining[i]] = isLocalMinimum(remaining[i]);
+					}
+				}
+			});
+
+			int numberOfSelected = 0;
+			numberOfRemaining = 0;
+			for (int i = 0; i < remainingInRound; i++) {
+				int v = remaining[i];
+
+				if (isSelected[v]) {
+					selected[numberOfSelected++] = v;
+
+					contracted[v] = true;
+					ranks[v] = rank++;
+				}else {
+					remaining[numberOfRemaining++] = v;
+				}
+			}
+
+			final int selectedInRound = numberOfSelected;
+
+			// the witness searches avoid all the vertices contracted in this round
+			forEachChunk(selectedInRound, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(selectedInRound, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						Shortcuts vertexShortcuts = new Shortcuts();
+
+						findShortcuts(selected[i], -1, vertexShortcuts);
+
+						shortcuts[i] = vertexShortcuts;
+					}
+				}
+			});
+
+			int numberOfDirty = 0;
+			for (int i = 0; i < selectedInRound; i++) {
+				int u = selected[i];
+
+				for (int j = 0; j < outgoing.size(u); j++) {
+					int x = outgoing.vertex(u, j);
+
+					upward.add(u, x, outgoing.weight(u, j), outgoing.middle(u, j));
+					incoming.remove(x, u);
+
+					contractedNeighbors[x]++;
+					levels[x] = Math.max(levels[x], levels[u] + 1);
+
+					if (!isDirty[x]) {
+						isDirty[x] = true;
+						dirty[numberOfDirty++] = x;
+					}
+				}
+
+				for (int j = 0; j < incoming.size(u); j++) {
+					int x = incoming.vertex(u, j);
+
+					downward.add(u, x, incoming.weight(u, j), incoming.middle(u, j));
+					outgoing.remove(x, u);
+
+					contractedNeighbors[x]++;
+					levels[x] = Math.max(levels[x], levels[u] + 1);
+
+					if (!isDirty[x]) {
+						isDirty[x] = true;
+						dirty[numberOfDirty++] = x;
+					}
+				}
+
+				outgoing.release(u);
+				incoming.release(u);
+
+				Shortcuts vertexShortcuts = shortcuts[i];
+				for (int j = 0; j < vertexShortcuts.size; j++) {
+					addArc(vertexShortcuts.from[j], vertexShortcuts.to[j], vertexShortcuts.weights[j], u);
+				}
+
+				shortcuts[i] = null;
+			}
+
+			for (int i = 0; i < numberOfDirty; i++) {
+				isDirty[dirty[i]] = false;
+			}
+
+			updatePriorities(dirty, numberOfDirty);
+		}
+
+		return new ContractionHierarchySP(ranks, upward.freeze(), downward.freeze());
+	}
+
+	private void updatePriorities(final int[] vertices, final int numberOfVertices) {
+		forEachChunk(numberOfVertices, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+
+				for (int i = chunk * GRAIN; i < end; i++) {
+					int v = vertices[i];
+
+					int edgeDifference = findShortcuts(v, v, null) - outgoing.size(v) - incoming.size(v);
+
+					priorities[v] = 2 * edgeDifference + contractedNeighbors[v] + levels[v];
+				}
+			}
+		});
+	}
+
+	private boolean isLocalMinimum(int v) {
+		for (int i = 0; i < outgoing.size(v); i++) {
+			if (hasLowerPriority(outgoing.vertex(v, i), v)) {
+				return false;
+			}
+		}
+
+		for (int i = 0; i < incoming.size(v); i++) {
+			if (hasLowerPriority(incoming.vertex(v, i), v)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean hasLowerPriority(int v, int w) {
+		return priorities[v] < priorities[w] || (priorities[v] == priorities[w] && v < w);
+	}
+
+	/**
+	 * Finds the shortcuts needed to contract u, running a witness search from each vertex x with an edge x->u
+	 *
+	 * @param u the vertex to contract
+	 * @param avoided a vertex the witness searches must avoid besides the contracted ones (-1 if none)
+	 * @param shortcuts where the shortcuts are added, null to just count them
+	 * @return the number of shortcuts
+	 */
+	private int findShortcuts(int u, int avoided, Shortcuts shortcuts) {
+		ShortestPathsWorkspace workspace = workspaces.get();
+
+		double maxOutgoingWeight = 0.0;
+		for (int j = 0; j < outgoing.size(u); j++) {
+			maxOutgoingWeight = Math.max(maxOutgoingWeight, outgoing.weight(u, j));
+		}
+
+		int numberOfShortcuts = 0;
+		for (int i = 0; i < incoming.size(u); i++) {
+			int x = incoming.vertex(u, i);
+			double incomingWeight = incoming.weight(u, i);
+
+			witnessSearch(workspace, x, avoided, incomingWeight + maxOutgoingWeight);
+
+			for (int j = 0; j < outgoing.size(u); j++) {
+				int y = outgoing.vertex(u, j);
+				double shortcutWeight = incomingWeight + outgoing.weight(u, j);
+
+				if (y == x || workspace.weightTo(y) <= shortcutWeight) {
+					continue;
+				}
+
+				numberOfShortcuts++;
+
+				if (shortcuts != null) {
+					shortcuts.add(x, y, shortcutWeight);
+				}
+			}
+		}
+
+		return numberOfShortcuts;
+	}
+
+	private void witnessSearch(ShortestPathsWorkspace workspace, int source, int avoided, double maxWeight) {
+		IndexMinPriorityQueue crossingEdges = workspace.crossingEdges();
+
+		workspace.reset();
+
+		workspace.reach(source, 0.0, -1, 0.0);
+		crossingEdges.insert(source, 0.0);
+
+		int relaxed = 0;
+		while (!crossingEdges.isEmpty()) {
+			int v = crossingEdges.delMin();
+
+			if (workspace.weightTo(v) > maxWeight || ++relaxed > WITNESS_SEARCH_LIMIT) {
+				return;
+			}
+
+			for (int i = 0; i < outgoing.size(v); i++) {
+				int w = outgoing.vertex(v, i);
+
+				if (w == avoided || contracted[w]) {
+					continue;
+				}
+
+				double newWeight = workspace.weightTo(v) + outgoing.weight(v, i);
+
+				if (newWeight < workspace.weightTo(w)) {
+					workspace.reach(w, newWeight, v, outgoing.weight(v, i));
+
+					if (crossingEdges.contains(w)) {
+						crossingEdges.decreaseKey(w, newWeight);
+					}else {
+						crossingEdges.insert(w, newWeight);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the edge v->w to the overlay graph, or makes the existing one lighter
+	 */
+	private void addArc(int v, int w, double weight, int middle) {
+		int i = outgoing.indexOf(v, w);
+
+		if (i == -1) {
+			outgoing.add(v, w, weight, middle);
+			incoming.add(w, v, weight, middle);
+		}else if (weight < outgoing.weight(v, i)) {
+			outgoing.set(v, i, weight, middle);
+			incoming.set(w, incoming.indexOf(w, v), weight, middle);
+		}
+	}
+
+	private void forEachChunk(int numberOfItems, IntConsumer action) {
+		ChunksAction.forEachChunk(pool, (numberOfItems + GRAIN - 1) / GRAIN, action);
+	}
+
+	/**
+	 * A vertex-indexed array of resizing arrays of edges (arcs), where each arc is given by the other vertex, its weight
+	 * and its middle vertex (-1 if it is an original edge), kept in three parallel arrays
+	 */
+	static class Arcs {
+		private static final int INITIAL_CAPACITY = 4;
+
+		private int[][] vertices;
+		private double[][] weights;
+		private int[][] middles;
+		private int[] sizes;
+
+		Arcs(int numberOfVertices) {
+			vertices = new int[numberOfVertices][];
+			weights = new double[numberOfVertices][];
+			middles = new int[numberOfVertices][];
+			sizes = new int[numberOfVertices];
+		}
+
+		void add(int v, int w, double weight, int middle) {
+			if (vertices[v] == null) {
+				vertices[v] = new int[INITIAL_CAPACITY];
+				weights[v] = new double[INITIAL_CAPACITY];
+				middles[v] = new int[INITIAL_CAPACITY];
+			}else if (sizes[v] == vertices[v].length) {
+				vertices[v] = Arrays.copyOf(vertices[v], sizes[v] * 2);
+				weights[v] = Arrays.copyOf(weights[v], sizes[v] * 2);
+				middles[v] = Arrays.copyOf(middles[v], sizes[v] * 2);
+			}
+
+			vertices[v][sizes[v]] = w;
+			weights[v][sizes[v]] = weight;
+			middles[v][sizes[v]] = middle;
+
+			sizes[v]++;
+		}
+
+		void set(int v, int i, double weight, int middle) {
+			weights[v][i] = weight;
+			middles[v][i] = middle;
+		}
+
+		int indexOf(int v, int w) {
+			for (int i = 0; i < sizes[v]; i++) {
+				if (vertices[v][i] == w) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		/**
+		 * Removes the arc of v to w, moving the last arc to its position
+		 */
+		void remove(int v, int w) {
+			int i = indexOf(v, w);
+
+			if (i == -1) {
+				return;
+			}
+
+			int last = --sizes[v];
+
+			vertices[v][i] = vertices[v][last];
+			weights[v][i] = weights[v][last];
+			middles[v][i] = middles[v][last];
+		}
+
+		void release(int v) {
+			vertices[v] = null;
+			weights[v] = null;
+			middles[v] = null;
+			sizes[v] = 0;
+		}
+
+		int size(int v) {
+			return sizes[v];
+		}
+
+		int vertex(int v, int i) {
+			return vertices[v][i];
+		}
+
+		double weight(int v, int i) {
+			return weights[v][i];
+		}
+
+		int middle(int v, int i) {
+			return middles[v][i];
+		}
+
+		/**
+		 * Packs the arcs into Compressed Sparse Row arrays
+		 */
+		ContractionHierarchySP.HierarchyArcs freeze() {
+			int[] offsets = new int[sizes.length + 1];
+			for (int v = 0; v < sizes.length; v++) {
+				offsets[v + 1] = offsets[v] + sizes[v];
+			}
+
+			int numberOfArcs = offsets[sizes.length];
+			int[] packedVertices = new int[numberOfArcs];
+			double[] packedWeights = new double[numberOfArcs];
+			int[] packedMiddles = new int[numberOfArcs];
+
+			for (int v = 0; v < sizes.length; v++) {
+				if (sizes[v] > 0) {
+					System.arraycopy(vertices[v], 0, packedVertices, offsets[v], sizes[v]);
+					System.arraycopy(weights[v], 0, packedWeights, offsets[v], sizes[v]);
+					System.arraycopy(middles[v], 0, packedMiddles, offsets[v], sizes[v]);
+				}
+			}
+
+			return new ContractionHierarchySP.HierarchyArcs(offsets, packedVertices, packedWeights, packedMiddles);
+		}
+	}
+
+	/**
+	 * The shortcuts found for a vertex, as three parallel resizing arrays
+	 */
+	private static class Shortcuts {
+		private int[] from = new int[4];
+		private int[] to = new int[4];
+		private double[] weights = new double[4];
+		private int size;
+
+		void add(int v, int w, double weight) {
+			if (size == from.length) {
+				from = Arrays.copyOf(from, size * 2);
+				to = Arrays.copyOf(to, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+
+			from[size] = v;
+			to[size] = w;
+			weights[size] = weight;
+
+			size++;
+		}
+	}
+}
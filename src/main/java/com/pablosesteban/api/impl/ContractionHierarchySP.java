@@ -0,0 +1,467 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphPointToPointShortestPaths;
+
+/**
+ * A point-to-point Shortest Paths implementation based on a Contraction Hierarchy (CH), for edge-weighted digraphs with
+ * NON-NEGATIVE weights, which answers queries on large road-like graphs exploring a few hundred vertices instead of
+ * the whole graph.
+ * The hierarchy is built once by preprocessing the digraph (see ContractionHierarchyPreprocessor): every vertex is
+ * ranked and shortcuts are added, so that, for any pair of vertices, there is a shortest path which first only goes
+ * up (to vertices of higher rank) and then only goes down. The hierarchy keeps, for each vertex, its upward edges (to
+ * higher vertices) and its downward edges (from higher vertices), each of them an original edge or a shortcut which
+ * remembers the vertex it skips (its middle vertex), packed in Compressed Sparse Row arrays.
+ * A query runs a bidirectional Dijkstra's search where both searches only go up: the forward one from the source
+ * along upward edges and the backward one from the target along downward edges, reversed, keeping the shortest path
+ * found through a vertex reached by both (mu). Each search stops as soon as the next vertex to relax is not closer
+ * than mu. The path found is unpacked into original edges by replacing each shortcut with the two edges through its
+ * middle vertex, recursively.
+ * The hierarchy can be saved to a file and loaded back, so the preprocessing is done once per graph.
+ * Each thread answering queries reuses its own ShortestPathsWorkspaces, allocated on its first query and stamped with
+ * versions, so a query neither allocates nor resets any vertex-indexed array. The engine is thread-safe.
+ */
+public class ContractionHierarchySP implements WeightedDigraphPointToPointShortestPaths {
+	private static final int MAGIC_NUMBER = 0x43484731;
+
+	private final int[] ranks;
+	private final HierarchyArcs upward;
+	private final HierarchyArcs downward;
+	private final ThreadLocal<Query> queries;
+
+	ContractionHierarchySP(final int[] ranks, HierarchyArcs upward, HierarchyArcs downward) {
+		this.ranks = ranks;
+		this.upward = upward;
+		this.downward = downward;
+
+		queries = new ThreadLocal<Query>() {
+			@Override
+			protected Query initialValue() {
+				return new Query(ranks.length);
+			}
+		};
+	}
+
+	/**
+	 * Builds the contraction hierarchy of this weighted digraph using the common ForkJoinPool
+	 *
+	 * @param wg a weighted digraph with non-negative weights
+	 * @return the contraction hierarchy
+	 */
+	public static ContractionHierarchySP preprocess(WeightedGraph wg) {
+		return preprocess(wg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Builds the contraction hierarchy of this weighted digraph
+	 *
+	 * @param wg a weighted digraph with non-negative weights
+	 * @param pool the pool to contract vertices
+	 * @return the contraction hierarchy
+	 */
+	public static ContractionHierarchySP preprocess(WeightedGraph wg, ForkJoinPool pool) {
+		return new ContractionHierarchyPreprocessor(wg, pool).preprocess();
+	}
+
+	/**
+	 * Loads a contraction hierarchy saved by save()
+	 *
+	 * @param filename the path of the file
+	 * @return the contraction hierarchy
+	 * @throws IOException if the file can not be read or it is not a contraction hierarchy
+	 */
+	public static ContractionHierarchySP load(String filename) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+			if (in.readInt() != MAGIC_NUMBER) {
+				throw new IOException(filename + " is not a contraction hierarchy");
+			}
+
+			int[] ranks = readInts(in);
+			HierarchyArcs upward = HierarchyArcs.read(in);
+			HierarchyArcs downward = HierarchyArcs.read(in);
+
+			return new ContractionHierarchySP(ranks, upward, downward);
+		}
+	}
+
+	/**
+	 * Saves the contraction hierarchy in a binary file
+	 *
+	 * @param filename the path of the file
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(String filename) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC_NUMBER);
+
+			writeInts(out, ranks);
+			upward.write(out);
+			downward.write(out);
+		}
+	}
+
+	@Override
+	public double weightTo(int source, int target) {
+		return search(source, target).weight;
+	}
+
+	@Override
+	public boolean hasPathTo(int source, int target) {
+		return search(source, target).meetingVertex != -1;
+	}
+
+	/**
+	 * Unpacks the upward path from source to the meeting vertex and the downward path from the meeting vertex to
+	 * target into original edges
+	 */
+	@Override
+	public Iterable<Edge> pathTo(int source, int target) {
+		Query query = search(source, target);
+
+		if (query.meetingVertex == -1) {
+			return null;
+		}
+
+		Stack<Integer> upwardPath = new LinkedStack<>();
+		for (int v = query.meetingVertex; v != -1; v = query.forward.edgeTo(v)) {
+			upwardPath.push(v);
+		}
+
+		Queue<Edge> path = new LinkedQueue<>();
+
+		int v = upwardPath.pop();
+		while (!upwardPath.isEmpty()) {
+			int w = upwardPath.pop();
+			int i = upward.indexOf(v, w);
+
+			unpack(v, w, upward.weights[i], upward.middles[i], path);
+
+			v = w;
+		}
+
+		for (int w = query.backward.edgeTo(v); w != -1; v = w, w = query.backward.edgeTo(v)) {
+			int i = downward.indexOf(w, v);
+
+			unpack(v, w, downward.weights[i], downward.middles[i], path);
+		}
+
+		return path;
+	}
+
+	/**
+	 * Gets the rank of a vertex in the hierarchy, i.e. the order in which it was contracted
+	 *
+	 * @param v a vertex in the graph
+	 * @return the rank of v
+	 */
+	public int getRank(int v) {
+		return ranks[v];
+	}
+
+	/**
+	 * Gets the number of shortcuts added by the preprocessing
+	 *
+	 * @return the number of shortcuts
+	 */
+	public int getNumberOfShortcuts() {
+		return upward.getNumberOfShortcuts() + downward.getNumberOfShortcuts();
+	}
+
+	public int size() {
+		return ranks.length;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(getClass().getSimpleName());
+		sb.append(" {");
+		sb.append("\nnumberOfVertices: ");
+		sb.append(size());
+		sb.append(",\nnumberOfUpwardEdges: ");
+		sb.append(upward.vertices.length);
+		sb.append(",\nnumberOfDownwardEdges: ");
+		sb.append(downward.vertices.length);
+		sb.append(",\nnumberOfShortcuts: ");
+		sb.append(getNumberOfShortcuts());
+		sb.append("\n}");
+
+		return sb.toString();
+	}
+
+	/**
+	 * Adds the original edges of the edge v->w to the path, replacing a shortcut with the edge to its middle vertex
+	 * (a downward edge of the middle vertex) and the edge from it (an upward edge of the middle vertex)
+	 */
+	private void unpack(int v, int w, double weight, int middle, Queue<Edge> path) {
+		if (middle == -1) {
+			path.enqueue(new Edge(v, w, weight));
+
+			return;
+		}
+
+		int i = downward.indexOf(middle, v);
+		unpack(v, middle, downward.weights[i], downward.middles[i], path);
+
+		int j = upward.indexOf(middle, w);
+		unpack(middle, w, upward.weights[j], upward.middles[j], path);
+	}
+
+	private Query search(int source, int target) {
+		validateVertex(source);
+		validateVertex(target);
+
+		Query query = queries.get();
+
+		ShortestPathsWorkspace forward = query.forward;
+		ShortestPathsWorkspace backward = query.backward;
+
+		forward.reset();
+		backward.reset();
+
+		forward.reach(source, 0.0, -1, 0.0);
+		backward.reach(target, 0.0, -1, 0.0);
+
+		if (source == target) {
+			query.weight = 0.0;
+			query.meetingVertex = source;
+
+			return query;
+		}
+
+		query.weight = Double.POSITIVE_INFINITY;
+		query.meetingVertex = -1;
+
+		forward.crossingEdges().insert(source, 0.0);
+		backward.crossingEdges().insert(target, 0.0);
+
+		boolean isForwardDone = false;
+		boolean isBackwardDone = false;
+		boolean isForward = true;
+
+		while (!isForwardDone || !isBackwardDone) {
+			if (isForwardDone) {
+				isForward = false;
+			}else if (isBackwardDone) {
+				isForward = true;
+			}
+
+			if (!relaxNextVertex(query, isForward)) {
+				if (isForward) {
+					isForwardDone = true;
+				}else {
+					isBackwardDone = true;
+				}
+			}
+
+			isForward = !isForward;
+		}
+
+		return query;
+	}
+
+	/**
+	 * Takes the next vertex of one of the searches and relaxes its edges, unless it is not closer than the shortest
+	 * path found, which means that the search is done
+	 *
+	 * @return false if the search is done
+	 */
+	private boolean relaxNextVertex(Query query, boolean isForward) {
+		ShortestPathsWorkspace workspace = isForward ? query.forward : query.backward;
+		ShortestPathsWorkspace other = isForward ? query.backward : query.forward;
+		HierarchyArcs arcs = isForward ? upward : downward;
+		IndexMinPriorityQueue crossingEdges = workspace.crossingEdges();
+
+		if (crossingEdges.isEmpty()) {
+			return false;
+		}
+
+		int v = crossingEdges.delMin();
+
+		if (workspace.weightTo(v) >= query.weight) {
+			return false;
+		}
+
+		for (int i = arcs.offsets[v]; i < arcs.offsets[v + 1]; i++) {
+			int w = arcs.vertices[i];
+			double newWeight = workspace.weightTo(v) + arcs.weights[i];
+
+			if (newWeight < workspace.weightTo(w)) {
+				workspace.reach(w, newWeight, v, arcs.weights[i]);
+
+				if (crossingEdges.contains(w)) {
+					crossingEdges.decreaseKey(w, newWeight);
+				}else {
+					crossingEdges.insert(w, newWeight);
+				}
+
+				double pathWeight = newWeight + other.weightTo(w);
+
+				if (pathWeight < query.weight) {
+					query.weight = pathWeight;
+					query.meetingVertex = w;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= size()) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (size() - 1));
+		}
+	}
+
+	private static int[] readInts(DataInputStream in) throws IOException {
+		int[] values = new int[in.readInt()];
+
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readInt();
+		}
+
+		return values;
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	/**
+	 * The upward (or downward) edges of every vertex in Compressed Sparse Row arrays: the edges of v are the positions
+	 * offsets[v] through offsets[v+1]-1 of three parallel arrays with the other vertex of each edge, its weight and its
+	 * middle vertex (-1 if it is an original edge)
+	 */
+	static class HierarchyArcs {
+		private final int[] offsets;
+		private final int[] vertices;
+		private final double[] weights;
+		private final int[] middles;
+
+		HierarchyArcs(int[] offsets, int[] vertices, double[] weights, int[] middles) {
+			this.offsets = offsets;
+			this.vertices = vertices;
+			this.weights = weights;
+			this.middles = middles;
+		}
+
+		/**
+		 * Gets the position of the edge between v and w, there is at most one
+		 */
+		int indexOf(int v, int w) {
+			for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+				if (vertices[i] == w) {
+					return i;
+				}
+			}
+
+			throw new IllegalStateException("No edge between " + v + " and " + w + " in the hierarchy");
+		}
+
+		int getNumberOfShortcuts() {
+			int numberOfShortcuts = 0;
+
+			for (int middle : middles) {
+				if (middle != -1) {
+					numberOfShortcuts++;
+				}
+			}
+
+			return numberOfShortcuts;
+		}
+
+		static HierarchyArcs read(DataInputStream in) throws IOException {
+			int[] offsets = readInts(in);
+			int[] vertices = readInts(in);
+
+			double[] weights = new double[vertices.length];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = in.readDouble();
+			}
+
+			int[] middles = readInts(in);
+
+			return new HierarchyArcs(offsets, vertices, weights, middles);
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			writeInts(out, offsets);
+			writeInts(out, vertices);
+
+			for (double weight : weights) {
+				out.writeDouble(weight);
+			}
+
+			writeInts(out, middles);
+		}
+	}
+
+	/**
+	 * The state of the last query of a thread: the workspaces of both searches plus the shortest path found so far,
+	 * given by its weight and the vertex where both searches meet (-1 if none)
+	 */
+	private static class Query {
+		private final ShortestPathsWorkspace forward;
+		private final ShortestPathsWorkspace backward;
+		private double weight;
+		private int meetingVertex;
+
+		Query(int numberOfVertices) {
+			forward = new ShortestPathsWorkspace(numberOfVertices);
+			backward = new ShortestPathsWorkspace(numberOfVertices);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwg = new DirectedWeightedGraph("weighted_digraph_tiny.txt");
+
+		ContractionHierarchySP ch = ContractionHierarchySP.preprocess(dwg);
+		System.out.println(ch);
+
+		System.out.println("weightTo 0->6: " + ch.weightTo(0, 6));
+		System.out.println("pathTo 0->6: " + ch.pathTo(0, 6));
+
+		File file = File.createTempFile("contraction_hierarchy", ".ch");
+		file.deleteOnExit();
+
+		ch.save(file.getPath());
+		ContractionHierarchySP loadedCh = ContractionHierarchySP.load(file.getPath());
+		System.out.println("pathTo 0->6 (loaded): " + loadedCh.pathTo(0, 6));
+
+		for (int v = 0; v < dwg.size(); v++) {
+			DijkstraSP dsp = new DijkstraSP(dwg, v);
+
+			for (int w = 0; w < dwg.size(); w++) {
+				if (Math.abs(dsp.weightTo(w) - loadedCh.weightTo(v, w)) > 1e-9) {
+					System.out.println("\t--" + v + "->" + w + ": " + loadedCh.weightTo(v, w) + " (DijkstraSP: " + dsp.weightTo(w) + ")");
+				}
+			}
+		}
+		System.out.println("All pairs checked against DijkstraSP");
+	}
+}
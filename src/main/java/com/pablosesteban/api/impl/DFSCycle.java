@@ -13,7 +13,7 @@ import com.pablosesteban.api.DigraphCycle;
 
 /**
  * A DFS implementation based on the fact that the recursive call stack
- * maintained by the system represents the "current" path under consideration.
+ * represents the "current" path under consideration.
  * If it ever finds an edge v-w to a vertex w that is on that stack, it has found
  * a cycle, since the stack is evidence of a path from w to v, and the edge v-w
  * completes the cycle.
@@ -22,6 +22,10 @@ import com.pablosesteban.api.DigraphCycle;
  * to true on entry and to false on exit), and when it finds an edge v->w to a
  * vertex w that is on the stack, it has discovered a directed cycle, which it can
  * recover by following edgeTo[] links.
+ * The call stack is not maintained by the system but by the code, with an explicit
+ * int array stack and a vertex-indexed int array with the position of the next
+ * adjacent vertex to check for each vertex on it, so long paths do not overflow the
+ * thread stack. The search stops as soon as the first cycle is found.
  */
 public class DFSCycle implements DigraphCycle {
 	private boolean[] marked;
@@ -29,18 +33,26 @@ public class DFSCycle implements DigraphCycle {
     private Graph g;
     private Stack<Integer> cycle;
     private boolean[] onStack;
+    private int[] stack;
+    private int[] nextAdjacentVertex;
     
-    public DFSCycle(DirectedGraph dg) {
+    public DFSCycle(Graph dg) {
         marked = new boolean[dg.size()];
         edgeTo = new int[dg.size()];
         this.g = dg;
         onStack = new boolean[dg.size()];
+        stack = new int[dg.size()];
+        nextAdjacentVertex = new int[dg.size()];
         
-        for (int v = 0; v < dg.size(); v++) {
+        for (int v = 0; v < dg.size() && !hasCycle(); v++) {
             if (!marked[v]) {
                 dfs(dg, v);
             }
         }
+
+        // the arrays are only needed while looking for a cycle
+        stack = null;
+        nextAdjacentVertex = null;
     }
     
     @Override
@@ -74,18 +86,25 @@ public class DFSCycle implements DigraphCycle {
         return sb.toString();
     }
     
-    private void dfs(Graph g, int current) {
-        marked[current] = true;
-        onStack[current] = true;
+    private void dfs(Graph g, int source) {
+        int top = 0;
+        
+        marked[source] = true;
+        onStack[source] = true;
+        stack[top++] = source;
         
-        if (g.getAdjacentVertices(current) != null) {
-            for (Integer adjacentVertex : g.getAdjacentVertices(current)) {
-                if (hasCycle()) {
-                    return;
-                }else if (!marked[adjacentVertex]) {
+        while (top > 0 && !hasCycle()) {
+            int current = stack[top - 1];
+            
+            if (nextAdjacentVertex[current] < g.degree(current)) {
+                int adjacentVertex = g.getAdjacentVertex(current, nextAdjacentVertex[current]++);
+                
+                if (!marked[adjacentVertex]) {
                     edgeTo[adjacentVertex] = current;
                     
-                    dfs(g, adjacentVertex);
+                    marked[adjacentVertex] = true;
+                    onStack[adjacentVertex] = true;
+                    stack[top++] = adjacentVertex;
                 }else if (onStack[adjacentVertex]) {
                     cycle = new LinkedStack<>();
                     
@@ -96,10 +115,12 @@ public class DFSCycle implements DigraphCycle {
                     cycle.push(adjacentVertex);
                     cycle.push(current);
                 }
+            }else {
+                top--;
+                
+                onStack[current] = false;
             }
         }
-        
-        onStack[current] = false;
     }
     
     public static void main(String[] args) {
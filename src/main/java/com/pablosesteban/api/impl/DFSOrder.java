@@ -18,6 +18,12 @@ import com.pablosesteban.api.DigraphOrder;
  * We save the current visited vertex in a data structure and then iterate through
  * that data structure in order determined by the nature of the data structure and 
  * by whether we do the save before or after the recursive calls.
+ * The recursion is managed by the code with an explicit int array stack, where a
+ * vertex is pushed when its "recursive call" starts (pre order) and popped when it
+ * completes (post order), and a vertex-indexed int array with the position of the
+ * next adjacent vertex to check for each vertex on the stack, so the orders are
+ * the same than the recursive method would give, but the depth of the search is
+ * not bounded by the size of the thread stack.
  */
 public class DFSOrder implements DigraphOrder {
 	private boolean[] marked;
@@ -26,20 +32,30 @@ public class DFSOrder implements DigraphOrder {
 	private Queue<Integer> preOrder;
 	private Queue<Integer> postOrder;
 	private Stack<Integer> reversePostOrder;
+	
+	private int[] stack;
+	private int[] nextAdjacentVertex;
 
-	public DFSOrder(DirectedGraph dg) {
+	public DFSOrder(Graph dg) {
 		marked = new boolean[dg.size()];
 		this.g = dg;
 		
 		preOrder = new LinkedQueue<>();
 		postOrder = new LinkedQueue<>();
 		reversePostOrder = new LinkedStack<>();
+		
+		stack = new int[dg.size()];
+		nextAdjacentVertex = new int[dg.size()];
 
 		for (int v = 0; v < dg.size(); v++) {
 			if (!marked[v]) {
 				dfs(dg, v);
 			}
 		}
+
+		// the arrays are only needed while computing the orders
+		stack = null;
+		nextAdjacentVertex = null;
 	}
 
 	@Override
@@ -77,21 +93,31 @@ public class DFSOrder implements DigraphOrder {
 		return sb.toString();
 	}
 
-	private void dfs(Graph g, int current) {
-		marked[current] = true;
+	private void dfs(Graph g, int source) {
+		int top = 0;
 		
-		preOrder.enqueue(current);
-
-		if (g.getAdjacentVertices(current) != null) {
-			for (Integer adjacentVertex : g.getAdjacentVertices(current)) {
+		marked[source] = true;
+		preOrder.enqueue(source);
+		stack[top++] = source;
+		
+		while (top > 0) {
+			int current = stack[top - 1];
+			
+			if (nextAdjacentVertex[current] < g.degree(current)) {
+				int adjacentVertex = g.getAdjacentVertex(current, nextAdjacentVertex[current]++);
+				
 				if (!marked[adjacentVertex]) {
-					dfs(g, adjacentVertex);
+					marked[adjacentVertex] = true;
+					preOrder.enqueue(adjacentVertex);
+					stack[top++] = adjacentVertex;
 				}
+			}else {
+				top--;
+				
+				postOrder.enqueue(current);
+				reversePostOrder.push(current);
 			}
 		}
-		
-		postOrder.enqueue(current);
-		reversePostOrder.push(current);
 	}
 
 	public static void main(String[] args) {
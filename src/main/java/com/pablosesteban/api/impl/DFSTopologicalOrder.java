@@ -3,6 +3,7 @@
  */
 package com.pablosesteban.api.impl;
 
+import com.pablosesteban.adt.Graph;
 import com.pablosesteban.adt.impl.DirectedGraph;
 import com.pablosesteban.api.DigraphCycle;
 import com.pablosesteban.api.DigraphOrder;
@@ -24,7 +25,7 @@ import com.pablosesteban.api.DigraphTopologicalOrder;
 public class DFSTopologicalOrder implements DigraphTopologicalOrder {
 	private Iterable<Integer> order;
 	
-	public DFSTopologicalOrder(DirectedGraph dg) {
+	public DFSTopologicalOrder(Graph dg) {
 		DigraphCycle dfsCycle = new DFSCycle(dg);
 		
 		if (!dfsCycle.hasCycle()) {
@@ -36,7 +37,7 @@ public class DFSTopologicalOrder implements DigraphTopologicalOrder {
 	
 	@Override
 	public boolean isDag() {
-		return order == null;
+		return order != null;
 	}
 
 	@Override
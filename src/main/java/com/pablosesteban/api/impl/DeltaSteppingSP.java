@@ -0,0 +1,443 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphShortestPaths;
+
+/**
+ * A parallel Shortest Paths implementation based on the Delta-Stepping algorithm (Meyer and Sanders), for edge-weighted
+ * digraphs with NON-NEGATIVE weights.
+ * It lies between the Dijkstra's algorithm, which relaxes one vertex at a time, and the Bellman-Ford's algorithm, which
+ * relaxes all of them at once: vertices are kept in buckets of width delta by their tentative distance, i.e. the
+ * vertex v is in bucket floor(weightTo[v] / delta), and the buckets are emptied in order, relaxing all the vertices of
+ * a bucket at once, in parallel on a ForkJoinPool.
+ * Edges are split in light edges (weight <= delta), which may put a vertex back in the bucket being emptied, and heavy
+ * edges (weight > delta), which never do:
+ * <li>While the current bucket is not empty, its vertices are taken (a phase) and their light edges are relaxed,
+ * reinserting the vertices whose distance decreases (some of them in the current bucket again).</li>
+ * <li>Once it is empty, the heavy edges of all the vertices taken from it are relaxed, once per vertex, as their
+ * distances are final.</li>
+ * Delta is the trade-off between both algorithms: a small delta means few vertices relaxed more than once, but many
+ * phases with little parallel work each, while a large delta means many vertices per phase, relaxed more than once.
+ * By default it is the maximum weight divided by the average out-degree, which keeps the expected number of
+ * relaxations per vertex constant for random weights.
+ * Each relaxation is an atomic min-update on a vertex-indexed AtomicLongArray of distances, holding the bits of each
+ * double, whose order as longs is the order of the doubles as they are never negative, so a CAS only succeeds when it
+ * makes the distance lower. The successful updates of each task are kept in its own buffers and, once the phase is
+ * over, the update which left the final distance of each vertex (there is exactly one, as no two updates leave the same
+ * distance) writes its edgeTo[] and edgeWeightTo[] entries and puts it in its bucket. Thus, the SPT is consistent with
+ * the distances, without locks.
+ * Buckets are kept in a cyclic array, as the vertices waiting in them are never farther than the maximum weight from
+ * the current bucket, so only maxWeight / delta + 2 buckets are needed. A vertex is not removed from its old bucket when
+ * its distance decreases: it is just skipped when its bucket is emptied.
+ * The implementation uses extra space proportional to V, plus the buckets, and the same work as the Bellman-Ford's
+ * algorithm in the worst case, but close to the Dijkstra's algorithm when delta is well chosen, split in phases run in
+ * parallel.
+ */
+public class DeltaSteppingSP implements WeightedDigraphShortestPaths {
+	// vertices relaxed by each task
+	private static final int GRAIN = 256;
+	private static final int MAX_NUMBER_OF_BUCKETS = 1 << 24;
+
+	private final WeightedGraph dwg;
+	private final double delta;
+	private final ForkJoinPool pool;
+
+	private double[] weightTo;
+	private int[] edgeTo;
+	private double[] edgeWeightTo;
+
+	// the bits of the tentative distances while computing the SPT
+	private AtomicLongArray tentativeWeightTo;
+	private int[][] buckets;
+	private int[] bucketSizes;
+	private long numberOfWaitingVertices;
+	// phase (or bucket) in which each vertex was last taken, to take it once per phase (or bucket)
+	private int[] phases;
+	private long[] relaxedBuckets;
+
+	// successful updates of each task: target vertex, vertex relaxed, edge weight and the new distance
+	private int[][] targets;
+	private int[][] parents;
+	private double[][] edgeWeights;
+	private double[][] newWeights;
+	private int[] numberOfUpdates;
+
+	/**
+	 * Computes the SPT with the default delta using the common ForkJoinPool
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 */
+	public DeltaSteppingSP(WeightedGraph dwg, int source) {
+		this(dwg, source, defaultDelta(dwg));
+	}
+
+	/**
+	 * Computes the SPT with this delta using the common ForkJoinPool
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 * @param delta the width of the buckets
+	 */
+	public DeltaSteppingSP(WeightedGraph dwg, int source, double delta) {
+		this(dwg, source, delta, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the SPT with this delta
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 * @param delta the width of the buckets
+	 * @param pool the pool to run each phase
+	 */
+	public DeltaSteppingSP(WeightedGraph dwg, int source, double delta, ForkJoinPool pool) {
+		if (!(delta > 0.0) || Double.isInfinite(delta)) {
+			throw new IllegalArgumentException("Delta must be positive and finite: " + delta);
+		}
+
+		if (source < 0 || source >= dwg.size()) {
+			throw new IllegalArgumentException("Vertex " + source + " is not between 0 and " + (dwg.size() - 1));
+		}
+
+		this.dwg = dwg;
+		this.delta = delta;
+		this.pool = pool;
+
+		double maxWeight = maxWeight(dwg);
+
+		long numberOfBuckets = (long) (maxWeight / delta) + 2;
+		if (numberOfBuckets > MAX_NUMBER_OF_BUCKETS) {
+			throw new IllegalArgumentException("Delta " + delta + " is too small for the maximum weight " + maxWeight);
+		}
+
+		int numberOfVertices = dwg.size();
+		int numberOfChunks = (numberOfVertices + GRAIN - 1) / GRAIN;
+
+		tentativeWeightTo = new AtomicLongArray(numberOfVertices);
+		edgeTo = new int[numberOfVertices];
+		edgeWeightTo = new double[numberOfVertices];
+		buckets = new int[(int) numberOfBuckets][];
+		bucketSizes = new int[(int) numberOfBuckets];
+		phases = new int[numberOfVertices];
+		relaxedBuckets = new long[numberOfVertices];
+		targets = new int[numberOfChunks][];
+		parents = new int[numberOfChunks][];
+		edgeWeights = new double[numberOfChunks][];
+		newWeights = new double[numberOfChunks][];
+		numberOfUpdates = new int[numberOfChunks];
+
+		long infinity = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+		for (int v = 0; v < numberOfVertices; v++) {
+			tentativeWeightTo.set(v, infinity);
+			edgeTo[v] = -1;
+			relaxedBuckets[v] = -1;
+		}
+
+		tentativeWeightTo.set(source, Double.doubleToLongBits(0.0));
+		addToBucket(source, 0);
+
+		deltaStepping();
+
+		weightTo = new double[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			weightTo[v] = Double.longBitsToDouble(tentativeWeightTo.get(v));
+		}
+
+		// the buckets and the buffers are only needed while computing the SPT
+		tentativeWeightTo = null;
+		buckets = null;
+		bucketSizes = null;
+		phases = null;
+		relaxedBuckets = null;
+		targets = null;
+		parents = null;
+		edgeWeights = null;
+		newWeights = null;
+		numberOfUpdates = null;
+	}
+
+	@Override
+	public double weightTo(int v) {
+		return weightTo[v];
+	}
+
+	@Override
+	public boolean hasPathTo(int v) {
+		return weightTo[v] != Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public Iterable<Edge> pathTo(int v) {
+		if (!hasPathTo(v)) {
+			return null;
+		}
+
+		Stack<Edge> path = new LinkedStack<>();
+
+		for (int w = v; edgeTo[w] != -1; w = edgeTo[w]) {
+			path.push(new Edge(edgeTo[w], w, edgeWeightTo[w]));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Gets the width of the buckets
+	 *
+	 * @return the delta used to compute the SPT
+	 */
+	public double getDelta() {
+		return delta;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\ndelta: " + delta + ",\nweightTo: " + Arrays.toString(weightTo) + ",\nedgeTo: " + Arrays.toString(edgeTo) + "\n}";
+	}
+
+	private void deltaStepping() {
+		int[] frontier = new int[dwg.size()];
+		int[] relaxed = new int[dwg.size()];
+		int phase = 0;
+
+		for (long bucket = 0; numberOfWaitingVertices > 0; bucket++) {
+			int slot = (int) (bucket % buckets.length);
+
+			if (bucketSizes[slot] == 0) {
+				continue;
+			}
+
+			int numberOfRelaxed = 0;
+
+			while (bucketSizes[slot] > 0) {
+				phase++;
+
+				// takes the vertices still in this bucket, once each
+				int frontierSize = 0;
+				for (int i = 0; i < bucketSizes[slot]; i++) {
+					int v = buckets[slot][i];
+
+					if (phases[v] != phase && bucketOf(v) == bucket) {
+						phases[v] = phase;
+						frontier[frontierSize++] = v;
+
+						if (relaxedBuckets[v] != bucket) {
+							relaxedBuckets[v] = bucket;
+							relaxed[numberOfRelaxed++] = v;
+						}
+					}
+				}
+
+				numberOfWaitingVertices -= bucketSizes[slot];
+				bucketSizes[slot] = 0;
+
+				relax(frontier, frontierSize, true);
+			}
+
+			relax(relaxed, numberOfRelaxed, false);
+		}
+	}
+
+	/**
+	 * Relaxes the light (or heavy) edges of these vertices in parallel and then puts in their buckets the vertices whose
+	 * distance decreased, writing their edgeTo[] and edgeWeightTo[] entries
+	 */
+	private void relax(final int[] vertices, final int size, final boolean light) {
+		final int numberOfChunks = (size + GRAIN - 1) / GRAIN;
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(size, (chunk + 1) * GRAIN);
+
+				numberOfUpdates[chunk] = 0;
+
+				for (int j = chunk * GRAIN; j < end; j++) {
+					int v = vertices[j];
+					double weight = Double.longBitsToDouble(tentativeWeightTo.get(v));
+
+					for (int i = 0; i < dwg.degree(v); i++) {
+						double edgeWeight = dwg.getIncidentWeight(v, i);
+
+						if ((edgeWeight <= delta) != light) {
+							continue;
+						}
+
+						int w = dwg.getAdjacentVertex(v, i);
+						double newWeight = weight + edgeWeight;
+
+						if (updateMin(w, newWeight)) {
+							addUpdate(chunk, w, v, edgeWeight, newWeight);
+						}
+					}
+				}
+			}
+		});
+
+		// the last update of each vertex is the one which left its distance, as each update lowered it
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int last = 0;
+
+				for (int i = 0; i < numberOfUpdates[chunk]; i++) {
+					int w = targets[chunk][i];
+
+					if (Double.doubleToLongBits(newWeights[chunk][i]) == tentativeWeightTo.get(w)) {
+						edgeTo[w] = parents[chunk][i];
+						edgeWeightTo[w] = edgeWeights[chunk][i];
+
+						targets[chunk][last++] = w;
+					}
+				}
+
+				numberOfUpdates[chunk] = last;
+			}
+		});
+
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			for (int i = 0; i < numberOfUpdates[chunk]; i++) {
+				int w = targets[chunk][i];
+
+				addToBucket(w, bucketOf(w));
+			}
+		}
+	}
+
+	/**
+	 * Lowers the distance to w to newWeight if it is lower than the current one, retrying if another thread changes it
+	 * in the meantime
+	 *
+	 * @return true if, and only if, this call lowered the distance
+	 */
+	private boolean updateMin(int w, double newWeight) {
+		long newBits = Double.doubleToLongBits(newWeight);
+
+		while (true) {
+			long current = tentativeWeightTo.get(w);
+
+			if (newBits >= current) {
+				return false;
+			}
+
+			if (tentativeWeightTo.compareAndSet(w, current, newBits)) {
+				return true;
+			}
+		}
+	}
+
+	private void addUpdate(int chunk, int w, int v, double edgeWeight, double newWeight) {
+		int size = numberOfUpdates[chunk];
+
+		if (targets[chunk] == null) {
+			targets[chunk] = new int[GRAIN];
+			parents[chunk] = new int[GRAIN];
+			edgeWeights[chunk] = new double[GRAIN];
+			newWeights[chunk] = new double[GRAIN];
+		}else if (size == targets[chunk].length) {
+			targets[chunk] = Arrays.copyOf(targets[chunk], size * 2);
+			parents[chunk] = Arrays.copyOf(parents[chunk], size * 2);
+			edgeWeights[chunk] = Arrays.copyOf(edgeWeights[chunk], size * 2);
+			newWeights[chunk] = Arrays.copyOf(newWeights[chunk], size * 2);
+		}
+
+		targets[chunk][size] = w;
+		parents[chunk][size] = v;
+		edgeWeights[chunk][size] = edgeWeight;
+		newWeights[chunk][size] = newWeight;
+
+		numberOfUpdates[chunk] = size + 1;
+	}
+
+	private long bucketOf(int v) {
+		return (long) (Double.longBitsToDouble(tentativeWeightTo.get(v)) / delta);
+	}
+
+	private void addToBucket(int v, long bucket) {
+		int slot = (int) (bucket % buckets.length);
+
+		if (buckets[slot] == null) {
+			buckets[slot] = new int[16];
+		}else if (bucketSizes[slot] == buckets[slot].length) {
+			buckets[slot] = Arrays.copyOf(buckets[slot], bucketSizes[slot] * 2);
+		}
+
+		buckets[slot][bucketSizes[slot]++] = v;
+
+		numberOfWaitingVertices++;
+	}
+
+	private static double maxWeight(WeightedGraph dwg) {
+		double maxWeight = 0.0;
+
+		for (int v = 0; v < dwg.size(); v++) {
+			for (int i = 0; i < dwg.degree(v); i++) {
+				double weight = dwg.getIncidentWeight(v, i);
+
+				if (weight < 0.0) {
+					throw new IllegalArgumentException("Edge " + v + "->" + dwg.getAdjacentVertex(v, i) + " has negative weight: " + weight);
+				}
+
+				maxWeight = Math.max(maxWeight, weight);
+			}
+		}
+
+		return maxWeight;
+	}
+
+	/**
+	 * Gets the maximum weight divided by the average out-degree, or 1 if there is no edge with positive weight
+	 *
+	 * @param dwg a weighted digraph
+	 * @return the default delta for this weighted digraph
+	 */
+	public static double defaultDelta(WeightedGraph dwg) {
+		long numberOfEdges = 0;
+		for (int v = 0; v < dwg.size(); v++) {
+			numberOfEdges += dwg.degree(v);
+		}
+
+		double maxWeight = maxWeight(dwg);
+
+		if (maxWeight == 0.0) {
+			return 1.0;
+		}
+
+		return maxWeight * dwg.size() / numberOfEdges;
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwg = new DirectedWeightedGraph("weighted_digraph_tiny.txt");
+
+		DeltaSteppingSP dssp = new DeltaSteppingSP(dwg, 0);
+		System.out.println(dssp);
+
+		System.out.println("pathTo 5: " + dssp.pathTo(5));
+		System.out.println("pathTo 6: " + dssp.pathTo(6));
+
+		DeltaSteppingSP smallDeltaSsp = new DeltaSteppingSP(dwg, 0, 0.05);
+		System.out.println("pathTo 6 (delta 0.05): " + smallDeltaSsp.pathTo(6));
+
+		// a large delta turns it into the Bellman-Ford's algorithm
+		DeltaSteppingSP largeDeltaSsp = new DeltaSteppingSP(CompressedSparseRowWeightedGraph.read("weighted_digraph_tiny.txt", WeightedGraph.Type.DIRECTED), 0, 10.0);
+		System.out.println("pathTo 6 (delta 10, CSR): " + largeDeltaSsp.pathTo(6));
+
+		DijkstraSP dsp = new DijkstraSP(dwg, 0);
+		System.out.println("pathTo 6 (DijkstraSP): " + dsp.pathTo(6));
+	}
+}
@@ -11,9 +11,9 @@ import com.pablosesteban.api.GraphSearch;
 import java.util.Arrays;
 
 /**
- * Depth First Search (DFS) is a recursive implementation that follows the
- * graph edges to find all the vertices connected to a source vertex giving
- * from each one a path to source.
+ * Depth First Search (DFS) is an implementation that follows the graph edges
+ * to find all the vertices connected to a source vertex giving from each one a
+ * path to source.
  * This approach to search a graph follows paths from the source vertex to other
  * vertices in the graph, marking each vertex encountered by invoking a
  * recursive method that visits vertices and mark them as having been visited
@@ -30,10 +30,16 @@ import java.util.Arrays;
  * means that v-w was the edge used to access w for the first time.
  * The implementation choose the path based on the order of the adjacency list
  * of each vertex. The path depend not just on the graph, but also on the
- * representation and the nature of the recursion (a pushdown stack (LIFO) that
- * is managed by the system to support the recursive search method), such that,
- * it choose of the edges yet to be explored, the one that was most recently
- * encountered (explores the vertices farthest from the source vertex first).
+ * representation and the nature of the recursion (a pushdown stack (LIFO)),
+ * such that, it choose of the edges yet to be explored, the one that was most
+ * recently encountered (explores the vertices farthest from the source vertex
+ * first).
+ * The recursion is not managed by the system but by the code, with an explicit
+ * int array stack of the vertices whose "recursive call" has not completed and
+ * a vertex-indexed int array with the position of the next adjacent vertex to
+ * check for each of them, so it visits the vertices in the same order than the
+ * recursive method would do, but the depth of the search is not bounded by the
+ * size of the thread stack (a path-like graph does not overflow it).
  * Provides a way to search a path from a given source vertex to any marked
  * vertex in time proportional its length, as the array of integer values is a
  * parent-link representation of a tree rooted at source vertex that contains
@@ -48,6 +54,8 @@ public class DepthFirstSearch implements GraphSearch {
     private int[] edgeTo;
     private int source;
     private int count;
+    private int[] stack;
+    private int[] nextAdjacentVertex;
     
     /**
      * Computes the paths from source vertex to each vertex connected to it in
@@ -62,8 +70,14 @@ public class DepthFirstSearch implements GraphSearch {
         marked = new boolean[g.size()];
         edgeTo = new int[g.size()];
         this.source = source;
+        stack = new int[g.size()];
+        nextAdjacentVertex = new int[g.size()];
         
         dfs(g, source);
+
+        // the arrays are only needed while searching
+        stack = null;
+        nextAdjacentVertex = null;
     }
     
     @Override
@@ -92,19 +106,32 @@ public class DepthFirstSearch implements GraphSearch {
         return count;
     }
     
-    // the stack is implicitly managed by the recursion
-    private void dfs(Graph g, int v) {
-        marked[v] = true;
-        
-        for (Integer w : g.getAdjacentVertices(v)) {
-            if (!marked[w]) {
-                edgeTo[w] = v;
+    // the stack is explicitly managed by the code: pushing a vertex stands for
+    // the recursive call on it and popping it for the return of that call
+    private void dfs(Graph g, int source) {
+        int top = 0;
+        
+        marked[source] = true;
+        stack[top++] = source;
+        
+        while (top > 0) {
+            int v = stack[top - 1];
+            
+            if (nextAdjacentVertex[v] < g.degree(v)) {
+                int w = g.getAdjacentVertex(v, nextAdjacentVertex[v]++);
                 
-                dfs(g, w);
+                if (!marked[w]) {
+                    edgeTo[w] = v;
+                    
+                    marked[w] = true;
+                    stack[top++] = w;
+                }
+            }else {
+                top--;
+                
+                count++;
             }
         }
-        
-        count++;
     }
     
     @Override
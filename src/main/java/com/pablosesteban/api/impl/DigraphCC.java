@@ -5,6 +5,7 @@ package com.pablosesteban.api.impl;
 
 import java.util.Arrays;
 
+import com.pablosesteban.adt.Graph;
 import com.pablosesteban.adt.impl.DirectedGraph;
 import com.pablosesteban.api.DigraphOrder.Order;
 import com.pablosesteban.api.GraphConnectedComponents;
@@ -30,15 +31,21 @@ import com.pablosesteban.api.GraphConnectedComponents;
  * connectivity operations in the graph. Each of these three steps takes time
  * proportional to V+E and the reverse copy of the digraph uses space proportional
  * V+E.
+ * Both DFS passes manage their stack explicitly with int arrays instead of recursion,
+ * so deep digraphs do not overflow the thread stack.
  */
 public class DigraphCC implements GraphConnectedComponents {
 	private boolean[] marked;
     private int[] connectedTo;
     private int count;
+    private int[] stack;
+    private int[] nextAdjacentVertex;
 	
-	public DigraphCC(DirectedGraph dg) {
+	public DigraphCC(Graph dg) {
 		marked = new boolean[dg.size()];
 		connectedTo = new int[dg.size()];
+		stack = new int[dg.size()];
+		nextAdjacentVertex = new int[dg.size()];
 		
 		DFSOrder dfso = new DFSOrder(dg.reverse());
 		
@@ -49,6 +56,10 @@ public class DigraphCC implements GraphConnectedComponents {
 				count++;
 			}
 		}
+
+		// the arrays are only needed while finding the components
+		stack = null;
+		nextAdjacentVertex = null;
 	}
 	
 	@Override
@@ -71,15 +82,26 @@ public class DigraphCC implements GraphConnectedComponents {
         return getClass().getSimpleName() + " {" + "\nmarked: " + Arrays.toString(marked) + ",\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
     }
 
-	private void dfs(int v, DirectedGraph dg) {
-		marked[v] = true;
-		connectedTo[v] = count;
+	private void dfs(int source, Graph dg) {
+		int top = 0;
+		
+		marked[source] = true;
+		connectedTo[source] = count;
+		stack[top++] = source;
 		
-		if (dg.getAdjacentVertices(v) != null) {
-			for (Integer w : dg.getAdjacentVertices(v)) {
+		while (top > 0) {
+			int v = stack[top - 1];
+			
+			if (nextAdjacentVertex[v] < dg.degree(v)) {
+				int w = dg.getAdjacentVertex(v, nextAdjacentVertex[v]++);
+				
 				if (!marked[w]) {
-					dfs(w, dg);
+					marked[w] = true;
+					connectedTo[w] = count;
+					stack[top++] = w;
 				}
+			}else {
+				top--;
 			}
 		}
 	}
@@ -6,14 +6,17 @@ package com.pablosesteban.api.impl;
 import java.io.IOException;
 import java.util.Arrays;
 
+import com.pablosesteban.adt.IndexMinPriorityQueue;
 import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
+import com.pablosesteban.adt.impl.DaryIndexMinPQ;
 import com.pablosesteban.adt.impl.DirectedWeightedGraph;
 import com.pablosesteban.adt.impl.Edge;
 import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.adt.impl.RadixIndexMinPQ;
 import com.pablosesteban.api.WeightedDigraphShortestPaths;
 
-import edu.princeton.cs.algs4.IndexMinPQ;
-
 /**
  * A Shortest Paths implementation based on Dijkstra's algorithm.
  * Focus on the single source shortest paths problem, where we are given a source vertex and the result of
@@ -23,11 +26,18 @@ import edu.princeton.cs.algs4.IndexMinPQ;
  * and all the vertices reachable from s that forms a directed tree rooted at s such that every tree path is
  * a shortest path in the digraph.
  * The implementation is backed by two vertex-indexed arrays:
- * <li>edgeTo: edges on the SPT, which is a parent-edge representation of Edge objects where each entry is an edge that
- * connects that vertex to its parent in the tree (the last edge on a shortest path from source to that vertex).</li>
+ * <li>edgeTo: edges on the SPT, which is a parent-link representation where each entry is the parent of that vertex
+ * in the tree, i.e. the vertex the last edge on a shortest path from source to that vertex comes from (-1 if none), while a
+ * third vertex-indexed array, edgeWeightTo, keeps the weight of that edge, so no Edge object is needed per vertex.</li>
  * <li>weightTo: distance to the source, such that each entry is the weight of the shortest known path from source to that
  * vertex.
  * <li>an index priority queue to keep track of vertices that are candidates for being the next to be relaxed.</li>
+ * The index priority queue is a strategy given at construction, any IndexMinPriorityQueue with capacity for all the
+ * vertices, keyed by primitive doubles so no distance is boxed:
+ * <li>DaryIndexMinPQ (the default one, with 4 children per node): a d-ary heap, whose cheaper decreaseKey and fewer
+ * cache misses per level pay off on graphs with more edges than vertices.</li>
+ * <li>RadixIndexMinPQ: a radix heap, valid here as the keys removed by the algorithm never decrease, whose operations
+ * take amortized constant time, without comparing most of the keys.</li>
  * The implementation is based on a simple operation known as vertex relaxation, i.e. as the algorithm proceeds,
  * it gathers information about the shortest paths that connect the source to each vertex encountered in both
  * data structures and by updating this information when we encounter edges, we can make new inferences about
@@ -43,11 +53,14 @@ import edu.princeton.cs.algs4.IndexMinPQ;
  * whose destination w is closest to source.
  * The implementation uses extra space proportional to V and time proportional to E log V, in the worst case, to compute
  * the SPT rooted at a given source in an edge-weighted digraph with E edges and V vertices.
+ * Edges are scanned through the primitive cursor of WeightedGraph, so it runs on any backend, including the
+ * CompressedSparseRowWeightedGraph, without creating Edge objects but for the paths returned by pathTo.
  */
 public class DijkstraSP implements WeightedDigraphShortestPaths {
 	private double[] weightTo;
-	private Edge[] edgeTo;
-	private IndexMinPQ<Double> crossingEdges;
+	private int[] edgeTo;
+	private double[] edgeWeightTo;
+	private IndexMinPriorityQueue crossingEdges;
 	
 	/**
 	 * Builds the SPT and computes shortest paths distances by initializing weightTo[source] to 0 and
@@ -58,13 +71,29 @@ public class DijkstraSP implements WeightedDigraphShortestPaths {
 	 * @param dwg a weighted digraph
 	 * @param source a vertex to compute the SPT
 	 */
-	public DijkstraSP(DirectedWeightedGraph dwg, int source) {
+	public DijkstraSP(WeightedGraph dwg, int source) {
+		this(dwg, source, new DaryIndexMinPQ(dwg.size()));
+	}
+	
+	/**
+	 * Builds the SPT using the given index priority queue
+	 * 
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 * @param crossingEdges an index priority queue with capacity for all the vertices of the digraph, which is cleared
+	 * before the search, so it can be reused between searches
+	 */
+	public DijkstraSP(WeightedGraph dwg, int source, IndexMinPriorityQueue crossingEdges) {
+		crossingEdges.clear();
+		
 		weightTo = new double[dwg.size()];
-		edgeTo = new Edge[dwg.size()];
-		crossingEdges = new IndexMinPQ<>(dwg.size());
+		edgeTo = new int[dwg.size()];
+		edgeWeightTo = new double[dwg.size()];
+		this.crossingEdges = crossingEdges;
 		
 		for (int v = 0; v < weightTo.length; v++) {
 			weightTo[v] = Double.POSITIVE_INFINITY;
+			edgeTo[v] = -1;
 		}
 		
 		weightTo[source] = 0.0;
@@ -93,11 +122,8 @@ public class DijkstraSP implements WeightedDigraphShortestPaths {
 		
 		Stack<Edge> path = new LinkedStack<>();
 		
-		Edge e = edgeTo[v];
-		while (e != null) {
-			path.push(e);
-			
-			e = edgeTo[e.getFrom()];
+		for (int w = v; edgeTo[w] != -1; w = edgeTo[w]) {
+			path.push(new Edge(edgeTo[w], w, edgeWeightTo[w]));
 		}
 		
 		return path;
@@ -119,21 +145,22 @@ public class DijkstraSP implements WeightedDigraphShortestPaths {
 	 * @param dwg a weighted digraph
 	 * @param v a vertex in the graph
 	 */
-	private void relaxEdges(DirectedWeightedGraph dwg, int v) {
-		if (dwg.getIncidentEdges(v) != null) {
-			for (Edge e : dwg.getIncidentEdges(v)) {
-				double newWeight = e.getWeight() + weightTo[e.getFrom()];
+	private void relaxEdges(WeightedGraph dwg, int v) {
+		for (int i = 0; i < dwg.degree(v); i++) {
+			int w = dwg.getAdjacentVertex(v, i);
+			double edgeWeight = dwg.getIncidentWeight(v, i);
+			double newWeight = edgeWeight + weightTo[v];
+			
+			if (newWeight < weightTo[w]) {
+				weightTo[w] = newWeight;
+				
+				edgeTo[w] = v;
+				edgeWeightTo[w] = edgeWeight;
 				
-				if (newWeight < weightTo[e.getTo()]) {
-					weightTo[e.getTo()] = newWeight;
-					
-					edgeTo[e.getTo()] = e;
-					
-					if (crossingEdges.contains(e.getTo())) {
-						crossingEdges.changeKey(e.getTo(), newWeight);
-					}else {
-						crossingEdges.insert(e.getTo(), newWeight);
-					}
+				if (crossingEdges.contains(w)) {
+					crossingEdges.decreaseKey(w, newWeight);
+				}else {
+					crossingEdges.insert(w, newWeight);
 				}
 			}
 		}
@@ -147,5 +174,14 @@ public class DijkstraSP implements WeightedDigraphShortestPaths {
 		
 		System.out.println("pathTo 5: " + dsp.pathTo(5));
 		System.out.println("pathTo 6: " + dsp.pathTo(6));
+		
+		DijkstraSP csrDsp = new DijkstraSP(CompressedSparseRowWeightedGraph.read("weighted_digraph_tiny.txt", WeightedGraph.Type.DIRECTED), 0);
+		System.out.println("pathTo 6 (CSR): " + csrDsp.pathTo(6));
+		
+		DijkstraSP binaryDsp = new DijkstraSP(dwg, 0, new DaryIndexMinPQ(dwg.size(), 2));
+		System.out.println("pathTo 6 (binary heap): " + binaryDsp.pathTo(6));
+		
+		DijkstraSP radixDsp = new DijkstraSP(dwg, 0, new RadixIndexMinPQ(dwg.size()));
+		System.out.println("pathTo 6 (radix heap): " + radixDsp.pathTo(6));
 	}
 }
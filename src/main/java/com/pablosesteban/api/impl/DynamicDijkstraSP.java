@@ -0,0 +1,440 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.DaryIndexMinPQ;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphShortestPaths;
+
+/**
+ * A dynamic Shortest Paths implementation, for edge-weighted digraphs with NON-NEGATIVE weights whose edges are
+ * inserted, removed or change their weight after the SPT is computed, based on the Ramalingam-Reps algorithm.
+ * The SPT is computed once with the Dijkstra's algorithm and then, after each update, it is repaired instead of
+ * recomputed, touching only the vertices whose distance may change:
+ * <li>An edge u->v inserted or made lighter can only lower distances: if it lowers the distance to v, v is put on the
+ * priority queue and the Dijkstra's algorithm goes on from it, relaxing only the vertices whose distance decreases.</li>
+ * <li>An edge u->v removed or made heavier can only raise the distances of the vertices whose shortest path goes
+ * through it, i.e. if it is on the SPT (u is the parent of v), the subtree rooted at v. The subtree is walked top down
+ * and each vertex keeps its distance if its parent keeps it or if it has another edge from a vertex keeping its
+ * distance which gives the same distance, in which case that vertex becomes its parent (its subtree is kept as well).
+ * The remaining vertices of the subtree are the affected ones: each of them is put on the priority queue with the best
+ * distance given by its edges from vertices not affected and the Dijkstra's algorithm runs on the affected vertices
+ * only. An edge which is not on the SPT is removed or made heavier without touching the SPT.</li>
+ * The digraph is copied at construction into resizing arrays of outgoing and incoming edges of each vertex, so edges
+ * can be removed and the edges pointing to a vertex are known, and parallel edges are merged into the lightest one:
+ * an edge is given by its pair of vertices.
+ * Each update does work proportional to the number of vertices whose distance changes (or that are affected, for
+ * removals) and their edges, times log V for the priority queue, instead of E log V for a new SPT.
+ */
+public class DynamicDijkstraSP implements WeightedDigraphShortestPaths {
+	// states of the vertices while repairing the SPT after an edge is removed or made heavier
+	private static final byte NOT_IN_SUBTREE = 0;
+	private static final byte IN_SUBTREE = 1;
+	private static final byte KEPT = 2;
+	private static final byte AFFECTED = 3;
+
+	private final int source;
+	private final Adjacency outgoing;
+	private final Adjacency incoming;
+
+	private double[] weightTo;
+	private int[] edgeTo;
+	private double[] edgeWeightTo;
+	private IndexMinPriorityQueue crossingEdges;
+
+	private byte[] states;
+	private int[] subtree;
+
+	/**
+	 * Computes the SPT of a copy of this weighted digraph
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 */
+	public DynamicDijkstraSP(WeightedGraph dwg, int source) {
+		int numberOfVertices = dwg.size();
+
+		if (source < 0 || source >= numberOfVertices) {
+			throw new IllegalArgumentException("Vertex " + source + " is not between 0 and " + (numberOfVertices - 1));
+		}
+
+		this.source = source;
+
+		outgoing = new Adjacency(numberOfVertices);
+		incoming = new Adjacency(numberOfVertices);
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			for (int i = 0; i < dwg.degree(v); i++) {
+				int w = dwg.getAdjacentVertex(v, i);
+				double weight = dwg.getIncidentWeight(v, i);
+
+				validateWeight(v, w, weight);
+
+				int j = outgoing.indexOf(v, w);
+
+				if (j == -1) {
+					outgoing.add(v, w, weight);
+					incoming.add(w, v, weight);
+				}else if (weight < outgoing.weight(v, j)) {
+					outgoing.setWeight(v, j, weight);
+					incoming.setWeight(w, incoming.indexOf(w, v), weight);
+				}
+			}
+		}
+
+		weightTo = new double[numberOfVertices];
+		edgeTo = new int[numberOfVertices];
+		edgeWeightTo = new double[numberOfVertices];
+		crossingEdges = new DaryIndexMinPQ(numberOfVertices);
+		states = new byte[numberOfVertices];
+		subtree = new int[numberOfVertices];
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			weightTo[v] = Double.POSITIVE_INFINITY;
+			edgeTo[v] = -1;
+		}
+
+		weightTo[source] = 0.0;
+
+		crossingEdges.insert(source, 0.0);
+		dijkstra();
+	}
+
+	@Override
+	public double weightTo(int v) {
+		return weightTo[v];
+	}
+
+	@Override
+	public boolean hasPathTo(int v) {
+		return weightTo[v] != Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public Iterable<Edge> pathTo(int v) {
+		if (!hasPathTo(v)) {
+			return null;
+		}
+
+		Stack<Edge> path = new LinkedStack<>();
+
+		for (int w = v; edgeTo[w] != -1; w = edgeTo[w]) {
+			path.push(new Edge(edgeTo[w], w, edgeWeightTo[w]));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Inserts the edge from->to with this weight, or changes its weight if it already exists, repairing the SPT
+	 *
+	 * @param from the vertex the edge comes from
+	 * @param to the vertex the edge goes to
+	 * @param weight the new non-negative weight of the edge
+	 */
+	public void setEdgeWeight(int from, int to, double weight) {
+		validateVertex(from);
+		validateVertex(to);
+		validateWeight(from, to, weight);
+
+		int i = outgoing.indexOf(from, to);
+
+		if (i == -1) {
+			outgoing.add(from, to, weight);
+			incoming.add(to, from, weight);
+
+			lower(from, to, weight);
+
+			return;
+		}
+
+		double oldWeight = outgoing.weight(from, i);
+
+		outgoing.setWeight(from, i, weight);
+		incoming.setWeight(to, incoming.indexOf(to, from), weight);
+
+		if (weight < oldWeight) {
+			lower(from, to, weight);
+		}else if (weight > oldWeight && edgeTo[to] == from) {
+			raise(to);
+		}
+	}
+
+	/**
+	 * Removes the edge from->to, repairing the SPT
+	 *
+	 * @param from the vertex the edge comes from
+	 * @param to the vertex the edge goes to
+	 */
+	public void removeEdge(int from, int to) {
+		validateVertex(from);
+		validateVertex(to);
+
+		if (outgoing.indexOf(from, to) == -1) {
+			throw new IllegalArgumentException("There is no edge " + from + "->" + to);
+		}
+
+		outgoing.remove(from, to);
+		incoming.remove(to, from);
+
+		if (edgeTo[to] == from) {
+			raise(to);
+		}
+	}
+
+	/**
+	 * Gets the weight of the edge from->to
+	 *
+	 * @param from the vertex the edge comes from
+	 * @param to the vertex the edge goes to
+	 * @return the weight of the edge, infinity if there is no such edge
+	 */
+	public double getEdgeWeight(int from, int to) {
+		validateVertex(from);
+		validateVertex(to);
+
+		int i = outgoing.indexOf(from, to);
+
+		return i == -1 ? Double.POSITIVE_INFINITY : outgoing.weight(from, i);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nsource: " + source + ",\nweightTo: " + Arrays.toString(weightTo) + ",\nedgeTo: " + Arrays.toString(edgeTo) + "\n}";
+	}
+
+	/**
+	 * Goes on with the Dijkstra's algorithm from the vertices on the priority queue
+	 */
+	private void dijkstra() {
+		while (!crossingEdges.isEmpty()) {
+			int v = crossingEdges.delMin();
+
+			for (int i = 0; i < outgoing.size(v); i++) {
+				relax(v, outgoing.vertex(v, i), outgoing.weight(v, i));
+			}
+		}
+	}
+
+	private void relax(int v, int w, double edgeWeight) {
+		double newWeight = weightTo[v] + edgeWeight;
+
+		if (newWeight < weightTo[w]) {
+			weightTo[w] = newWeight;
+
+			edgeTo[w] = v;
+			edgeWeightTo[w] = edgeWeight;
+
+			if (crossingEdges.contains(w)) {
+				crossingEdges.decreaseKey(w, newWeight);
+			}else {
+				crossingEdges.insert(w, newWeight);
+			}
+		}
+	}
+
+	/**
+	 * Repairs the SPT after the edge from->to is inserted or made lighter
+	 */
+	private void lower(int from, int to, double weight) {
+		relax(from, to, weight);
+
+		dijkstra();
+	}
+
+	/**
+	 * Repairs the SPT after the edge of the SPT to v is removed or made heavier
+	 */
+	private void raise(int v) {
+		// the subtree rooted at v, in breadth first order, so each vertex comes after its parent
+		int size = 0;
+		subtree[size++] = v;
+		states[v] = IN_SUBTREE;
+
+		for (int j = 0; j < size; j++) {
+			int x = subtree[j];
+
+			for (int i = 0; i < outgoing.size(x); i++) {
+				int y = outgoing.vertex(x, i);
+
+				if (edgeTo[y] == x && states[y] == NOT_IN_SUBTREE) {
+					states[y] = IN_SUBTREE;
+					subtree[size++] = y;
+				}
+			}
+		}
+
+		for (int j = 0; j < size; j++) {
+			int x = subtree[j];
+
+			if (x != v && states[edgeTo[x]] == KEPT) {
+				states[x] = KEPT;
+			}else {
+				states[x] = findKeptParent(x) ? KEPT : AFFECTED;
+			}
+		}
+
+		for (int j = 0; j < size; j++) {
+			int x = subtree[j];
+
+			if (states[x] == AFFECTED) {
+				weightTo[x] = Double.POSITIVE_INFINITY;
+				edgeTo[x] = -1;
+			}
+		}
+
+		// the best distance to each affected vertex from the vertices keeping theirs
+		for (int j = 0; j < size; j++) {
+			int x = subtree[j];
+
+			if (states[x] != AFFECTED) {
+				continue;
+			}
+
+			for (int i = 0; i < incoming.size(x); i++) {
+				int z = incoming.vertex(x, i);
+
+				if (states[z] != AFFECTED) {
+					relax(z, x, incoming.weight(x, i));
+				}
+			}
+		}
+
+		dijkstra();
+
+		for (int j = 0; j < size; j++) {
+			states[subtree[j]] = NOT_IN_SUBTREE;
+		}
+	}
+
+	/**
+	 * Looks for an edge to x from a vertex keeping its distance (outside the subtree or already kept) which gives the
+	 * same distance to x, making that vertex its parent
+	 *
+	 * @return true if, and only if, x keeps its distance
+	 */
+	private boolean findKeptParent(int x) {
+		for (int i = 0; i < incoming.size(x); i++) {
+			int z = incoming.vertex(x, i);
+
+			if ((states[z] == NOT_IN_SUBTREE || states[z] == KEPT) && weightTo[z] + incoming.weight(x, i) == weightTo[x]) {
+				edgeTo[x] = z;
+				edgeWeightTo[x] = incoming.weight(x, i);
+
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= weightTo.length) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (weightTo.length - 1));
+		}
+	}
+
+	private static void validateWeight(int from, int to, double weight) {
+		if (!(weight >= 0.0)) {
+			throw new IllegalArgumentException("Edge " + from + "->" + to + " has negative weight: " + weight);
+		}
+	}
+
+	/**
+	 * The edges of each vertex to its adjacent vertices (or from them), as two parallel resizing arrays per vertex
+	 */
+	private static class Adjacency {
+		private static final int INITIAL_CAPACITY = 4;
+
+		private int[][] vertices;
+		private double[][] weights;
+		private int[] sizes;
+
+		Adjacency(int numberOfVertices) {
+			vertices = new int[numberOfVertices][];
+			weights = new double[numberOfVertices][];
+			sizes = new int[numberOfVertices];
+		}
+
+		void add(int v, int w, double weight) {
+			if (vertices[v] == null) {
+				vertices[v] = new int[INITIAL_CAPACITY];
+				weights[v] = new double[INITIAL_CAPACITY];
+			}else if (sizes[v] == vertices[v].length) {
+				vertices[v] = Arrays.copyOf(vertices[v], sizes[v] * 2);
+				weights[v] = Arrays.copyOf(weights[v], sizes[v] * 2);
+			}
+
+			vertices[v][sizes[v]] = w;
+			weights[v][sizes[v]] = weight;
+
+			sizes[v]++;
+		}
+
+		void setWeight(int v, int i, double weight) {
+			weights[v][i] = weight;
+		}
+
+		int indexOf(int v, int w) {
+			for (int i = 0; i < sizes[v]; i++) {
+				if (vertices[v][i] == w) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+
+		/**
+		 * Removes the edge of v to w, moving the last edge to its position
+		 */
+		void remove(int v, int w) {
+			int i = indexOf(v, w);
+			int last = --sizes[v];
+
+			vertices[v][i] = vertices[v][last];
+			weights[v][i] = weights[v][last];
+		}
+
+		int size(int v) {
+			return sizes[v];
+		}
+
+		int vertex(int v, int i) {
+			return vertices[v][i];
+		}
+
+		double weight(int v, int i) {
+			return weights[v][i];
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwg = new DirectedWeightedGraph("weighted_digraph_tiny.txt");
+
+		DynamicDijkstraSP ddsp = new DynamicDijkstraSP(dwg, 0);
+		System.out.println(ddsp);
+
+		System.out.println("pathTo 6: " + ddsp.pathTo(6));
+
+		// the edge 7->3 is on the path to 6
+		ddsp.setEdgeWeight(7, 3, 1.0);
+		System.out.println("pathTo 6 (7->3 weighs 1.0): " + ddsp.pathTo(6));
+
+		ddsp.removeEdge(2, 7);
+		System.out.println("pathTo 6 (2->7 removed): " + ddsp.pathTo(6));
+
+		ddsp.setEdgeWeight(0, 6, 0.5);
+		System.out.println("pathTo 6 (0->6 inserted): " + ddsp.pathTo(6));
+		System.out.println(ddsp);
+	}
+}
@@ -0,0 +1,313 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.impl.DirectedGraph;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.DigraphTopologicalOrder;
+
+/**
+ * A dynamic topological order implementation based on the Pearce-Kelly algorithm, which keeps the topological order
+ * of a DAG while edges are added, only reordering the vertices between both ends of each new edge.
+ * The order is kept in two vertex-indexed int arrays: the position of each vertex and the vertex at each position.
+ * Adding an edge v->w keeps the order valid if v is before w. Otherwise, only the vertices between w and v (the
+ * affected region) may have to move:
+ * <li>A forward DFS from w, through the vertices not after v, finds the vertices that must stay after v. If it reaches
+ * v, the edge closes a directed cycle, so it is rejected, and the cycle is kept, following the DFS links back to w.</li>
+ * <li>A backward DFS from v, through the vertices not before w, finds the vertices that must stay before w.</li>
+ * <li>Both sets of vertices are given the positions they had between them, sorted: first the vertices of the backward
+ * set and then the ones of the forward set, each set in its previous relative order.</li>
+ * The vertices out of both sets keep their positions, as they have no path from w nor to v in the region.
+ * The digraph is kept twice, with its reverse, to search backwards, and the DFSs manage their stack explicitly and mark
+ * the vertices with a version, so a search never resets any vertex-indexed array except when the version wraps around.
+ * So an edge takes time proportional to the number of vertices and edges of the affected region (plus a sort of the
+ * vertices moved), instead of the number of vertices (V) plus the number of edges (E) of a whole new order, and the
+ * implementation uses space proportional to V plus E.
+ */
+public class DynamicTopologicalOrder implements DigraphTopologicalOrder {
+	private final DirectedGraph dg;
+	private final DirectedGraph reverse;
+
+	private int[] positions;
+	private int[] vertices;
+
+	private int[] marked;
+	private int version;
+	private int[] edgeTo;
+	private int[] stack;
+	private int[] forward;
+	private int[] backward;
+
+	private Stack<Integer> rejectedCycle;
+
+	/**
+	 * Starts with a DAG without edges, whose vertices are in index order
+	 *
+	 * @param numberOfVertices the number of vertices
+	 */
+	public DynamicTopologicalOrder(int numberOfVertices) {
+		if (numberOfVertices < 0) {
+			throw new IllegalArgumentException("Number of vertices must be non-negative: " + numberOfVertices);
+		}
+
+		dg = new DirectedGraph(numberOfVertices);
+		reverse = new DirectedGraph(numberOfVertices);
+
+		positions = new int[numberOfVertices];
+		vertices = new int[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			positions[v] = v;
+			vertices[v] = v;
+		}
+
+		marked = new int[numberOfVertices];
+		edgeTo = new int[numberOfVertices];
+		stack = new int[numberOfVertices];
+		forward = new int[numberOfVertices];
+		backward = new int[numberOfVertices];
+	}
+
+	/**
+	 * Starts with the edges of this DAG, in the order of the Kahn's algorithm
+	 *
+	 * @param dag a DAG
+	 */
+	public DynamicTopologicalOrder(Graph dag) {
+		this(dag.size());
+
+		KahnTopologicalOrder kto = new KahnTopologicalOrder(dag);
+
+		if (!kto.isDag()) {
+			throw new IllegalArgumentException("Digraph has a directed cycle");
+		}
+
+		int position = 0;
+		for (int v : kto.topologicalOrder()) {
+			positions[v] = position;
+			vertices[position++] = v;
+		}
+
+		for (int v = 0; v < dag.size(); v++) {
+			for (int i = 0; i < dag.degree(v); i++) {
+				dg.addEdge(v, dag.getAdjacentVertex(v, i));
+				reverse.addEdge(dag.getAdjacentVertex(v, i), v);
+			}
+		}
+	}
+
+	/**
+	 * Adds the edge v->w, reordering the vertices between w and v if w is before v, unless it closes a directed cycle
+	 *
+	 * @param v the tail vertex of the edge
+	 * @param w the head vertex of the edge
+	 * @return true if the edge was added, false if it was rejected as it closes a directed cycle
+	 */
+	public boolean addEdge(int v, int w) {
+		validateVertex(v);
+		validateVertex(w);
+
+		rejectedCycle = null;
+
+		int lowerBound = positions[w];
+		int upperBound = positions[v];
+
+		if (lowerBound < upperBound) {
+			int forwardSize = search(dg, w, v, upperBound, true, forward);
+
+			if (forwardSize < 0) {
+				return false;
+			}
+
+			int backwardSize = search(reverse, v, -1, lowerBound, false, backward);
+
+			reorder(forwardSize, backwardSize);
+		}else if (lowerBound == upperBound) {
+			rejectedCycle = new LinkedStack<>();
+			rejectedCycle.push(v);
+			rejectedCycle.push(v);
+
+			return false;
+		}
+
+		dg.addEdge(v, w);
+		reverse.addEdge(w, v);
+
+		return true;
+	}
+
+	/**
+	 * Gets the directed cycle that the last edge rejected would have closed
+	 *
+	 * @return the vertices of the cycle, starting and ending with the tail vertex of the edge, or null if the last edge
+	 * was added
+	 */
+	public Iterable<Integer> getRejectedCycle() {
+		return rejectedCycle;
+	}
+
+	/**
+	 * Gets the position of a vertex in the topological order
+	 *
+	 * @param v a vertex
+	 * @return the position of v, between 0 and V - 1
+	 */
+	public int getPosition(int v) {
+		validateVertex(v);
+
+		return positions[v];
+	}
+
+	/**
+	 * Edges closing a directed cycle are rejected, so the digraph is always a DAG
+	 */
+	@Override
+	public boolean isDag() {
+		return true;
+	}
+
+	@Override
+	public Iterable<Integer> topologicalOrder() {
+		Queue<Integer> order = new LinkedQueue<>();
+
+		for (int v : vertices) {
+			order.enqueue(v);
+		}
+
+		return order;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\norder: " + Arrays.toString(vertices) + ",\nrejectedCycle: " + rejectedCycle + "\n}";
+	}
+
+	/**
+	 * DFS from the source through the vertices whose positions are up to (or from) the bound, keeping the vertices
+	 * reached in found. Returns the number of vertices found, or -1 if the target is reached, keeping the cycle
+	 */
+	private int search(Graph g, int source, int target, int bound, boolean forwards, int[] found) {
+		int top = 0;
+		int size = 0;
+
+		// on overflow, the marks of older searches could match the new version
+		if (++version == 0) {
+			Arrays.fill(marked, 0);
+
+			version = 1;
+		}
+
+		marked[source] = version;
+		stack[top++] = source;
+
+		while (top > 0) {
+			int x = stack[--top];
+			found[size++] = x;
+
+			for (int i = 0; i < g.degree(x); i++) {
+				int y = g.getAdjacentVertex(x, i);
+
+				if (y == target) {
+					keepCycle(target, source, x);
+
+					return -1;
+				}
+
+				boolean inRegion = forwards ? positions[y] < bound : positions[y] > bound;
+
+				if (inRegion && marked[y] != version) {
+					marked[y] = version;
+					edgeTo[y] = x;
+					stack[top++] = y;
+				}
+			}
+		}
+
+		return size;
+	}
+
+	// the cycle v->w->...->x->v, where x was reached from w following edgeTo[] links
+	private void keepCycle(int v, int w, int x) {
+		rejectedCycle = new LinkedStack<>();
+		rejectedCycle.push(v);
+
+		for (int y = x; y != w; y = edgeTo[y]) {
+			rejectedCycle.push(y);
+		}
+
+		rejectedCycle.push(w);
+		rejectedCycle.push(v);
+	}
+
+	/**
+	 * Gives the positions of the vertices found by both searches, sorted, first to the backward ones and then to the
+	 * forward ones, keeping the relative order of each set
+	 */
+	private void reorder(int forwardSize, int backwardSize) {
+		int size = forwardSize + backwardSize;
+		int[] freePositions = new int[size];
+
+		for (int i = 0; i < forwardSize; i++) {
+			forward[i] = positions[forward[i]];
+			freePositions[i] = forward[i];
+		}
+
+		for (int i = 0; i < backwardSize; i++) {
+			backward[i] = positions[backward[i]];
+			freePositions[forwardSize + i] = backward[i];
+		}
+
+		Arrays.sort(forward, 0, forwardSize);
+		Arrays.sort(backward, 0, backwardSize);
+		Arrays.sort(freePositions);
+
+		// both sets are positions now, so their vertices are read before any of them is moved
+		for (int i = 0; i < backwardSize; i++) {
+			backward[i] = vertices[backward[i]];
+		}
+
+		for (int i = 0; i < forwardSize; i++) {
+			forward[i] = vertices[forward[i]];
+		}
+
+		for (int i = 0; i < size; i++) {
+			int x = i < backwardSize ? backward[i] : forward[i - backwardSize];
+
+			positions[x] = freePositions[i];
+			vertices[freePositions[i]] = x;
+		}
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= positions.length) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (positions.length - 1));
+		}
+	}
+
+	public static void main(String[] args) {
+		DynamicTopologicalOrder dto = new DynamicTopologicalOrder(13);
+		DirectedGraph dg = new DirectedGraph(13);
+
+		int[][] edges = {{0, 5}, {0, 1}, {0, 6}, {2, 0}, {2, 3}, {3, 5}, {5, 4}, {6, 4}, {6, 9}, {7, 6}, {8, 7},
+				{9, 11}, {9, 12}, {9, 10}, {11, 12}, {12, 2}};
+
+		for (int[] edge : edges) {
+			boolean added = dto.addEdge(edge[0], edge[1]);
+
+			if (added) {
+				dg.addEdge(edge[0], edge[1]);
+			}
+
+			System.out.println("addEdge " + edge[0] + "->" + edge[1] + ": " + (added ? "added" : "rejected, cycle " + dto.getRejectedCycle()));
+		}
+
+		System.out.println(dto);
+		System.out.println("Topological order (DFSTopologicalOrder): " + new DFSTopologicalOrder(dg).topologicalOrder());
+	}
+}
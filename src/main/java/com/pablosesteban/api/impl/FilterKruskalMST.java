@@ -0,0 +1,372 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.UnionFind;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.adt.impl.UndirectedWeightedGraph;
+import com.pablosesteban.adt.impl.WeightedQuickUnion;
+import com.pablosesteban.api.WeightedUngraphMinimumSpanningTree;
+
+/**
+ * A MST implementation based on the Filter-Kruskal's Algorithm and assuming that the undirected weighted graph is
+ * connected.
+ * It takes the same edges than the Kruskal's algorithm, in order of their weight values, from the smallest to largest,
+ * taking for the MST each edge that does not form a cycle with edges previously added, but it avoids sorting most of
+ * the edges, in a quicksort-like way:
+ * <ul>
+ * <li>If there are few edges, they are sorted and processed as in the Kruskal's algorithm.</li>
+ * <li>Otherwise, a pivot weight is chosen and the edges are partitioned into the light ones (not heavier than the pivot)
+ * and the heavy ones, the light edges are processed recursively, then the heavy edges whose vertices have already been
+ * connected by the light ones are filtered out, as they would form a cycle, and the remaining heavy edges are processed
+ * recursively. If the pivot is the heaviest weight of the group, the light edges are the ones lighter than the pivot
+ * instead, so the group is still split unless all its edges weigh the same.</li>
+ * </ul>
+ * On dense graphs, most of the heavy edges are filtered out once the light edges have connected the graph, so they are
+ * never sorted, and the algorithm takes time proportional to E + V log V log (E/V) for random weights.
+ * Partitioning and filtering large groups of edges, which take most of the time, are done in parallel on a ForkJoinPool:
+ * the edges are split in chunks, each task counts how many edges of its chunk go to each side, and then each task moves
+ * them to their final positions, computed from the counts of the previous chunks. Unions are made sequentially when
+ * processing the sorted edges, so filtering only finds roots on the UnionFind: the only writes of concurrent find()
+ * calls are the links shortened by path halving, and any of them links a vertex to one of its ancestors.
+ * Edges are not objects while processing: they are copied through the primitive cursor of WeightedGraph into three
+ * parallel arrays (from, to and weight) and the algorithm permutes an array of edge ids (positions in those arrays), so
+ * no object is created but for the V - 1 edges of the MST.
+ */
+public class FilterKruskalMST implements WeightedUngraphMinimumSpanningTree {
+	// groups of edges sorted as in the Kruskal's algorithm
+	private static final int KRUSKAL_THRESHOLD = 1024;
+	// groups of edges partitioned or filtered in parallel
+	private static final int PARALLEL_THRESHOLD = 1 << 15;
+	private static final int CUTOFF_LENGTH_INSERTION_SORT = 7;
+
+	private Queue<Edge> mst;
+	private double weight;
+
+	private int[] from;
+	private int[] to;
+	private double[] weights;
+	private int[] buffer;
+	private UnionFind uf;
+	private int numberOfVertices;
+	private ForkJoinPool pool;
+	private Random random;
+
+	/**
+	 * Computes the MST for this undirected weighted graph using the common ForkJoinPool
+	 *
+	 * @param wg a weighted graph
+	 */
+	public FilterKruskalMST(WeightedGraph wg) {
+		this(wg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the MST for this undirected weighted graph
+	 *
+	 * @param wg a weighted graph
+	 * @param pool the pool to partition and filter edges
+	 */
+	public FilterKruskalMST(WeightedGraph wg, ForkJoinPool pool) {
+		this.pool = pool;
+		numberOfVertices = wg.size();
+		uf = new WeightedQuickUnion(wg.size());
+		mst = new LinkedQueue<>();
+		random = new Random(0);
+
+		int numberOfEdges = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				if (wg.getAdjacentVertex(v, i) > v) {
+					numberOfEdges++;
+				}
+			}
+		}
+
+		from = new int[numberOfEdges];
+		to = new int[numberOfEdges];
+		weights = new double[numberOfEdges];
+
+		int e = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				int w = wg.getAdjacentVertex(v, i);
+
+				if (w > v) {
+					from[e] = v;
+					to[e] = w;
+					weights[e] = wg.getIncidentWeight(v, i);
+
+					e++;
+				}
+			}
+		}
+
+		int[] edges = new int[numberOfEdges];
+		for (int i = 0; i < numberOfEdges; i++) {
+			edges[i] = i;
+		}
+		buffer = new int[numberOfEdges];
+
+		filterKruskal(edges, 0, numberOfEdges);
+
+		// the arrays are only needed while computing the MST
+		from = null;
+		to = null;
+		weights = null;
+		buffer = null;
+	}
+
+	@Override
+	public Iterable<Edge> getEdges() {
+		return mst;
+	}
+
+	@Override
+	public double getWeight() {
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nmst: " + mst + ",\nweight: " + weight + "\n}";
+	}
+
+	/**
+	 * Processes the edge ids edges[lo..hi) in order of their weights.
+	 *
+	 * @param edges edge ids
+	 * @param lo lowest index of the group of edges
+	 * @param hi index following the highest index of the group of edges
+	 */
+	private void filterKruskal(int[] edges, int lo, int hi) {
+		if (isCompleted() || lo >= hi) {
+			return;
+		}
+
+		if (hi - lo <= KRUSKAL_THRESHOLD) {
+			kruskal(edges, lo, hi);
+
+			return;
+		}
+
+		final double pivot = choosePivot(edges, lo, hi);
+
+		int mid = partition(edges, lo, hi, new IntPredicate() {
+			@Override
+			public boolean test(int e) {
+				return weights[e] <= pivot;
+			}
+		});
+
+		// the pivot is the heaviest weight of the group: split the edges lighter than it from the ones weighing the same
+		if (mid == hi) {
+			mid = partition(edges, lo, hi, new IntPredicate() {
+				@Override
+				public boolean test(int e) {
+					return weights[e] < pivot;
+				}
+			});
+
+			// all the edges weigh the same than the pivot: no way to split them
+			if (mid == lo) {
+				kruskal(edges, lo, hi);
+
+				return;
+			}
+		}
+
+		filterKruskal(edges, lo, mid);
+
+		if (isCompleted()) {
+			return;
+		}
+
+		int end = partition(edges, mid, hi, new IntPredicate() {
+			@Override
+			public boolean test(int e) {
+				return !uf.areConnected(from[e], to[e]);
+			}
+		});
+
+		filterKruskal(edges, mid, end);
+	}
+
+	/**
+	 * Sorts the edge ids edges[lo..hi) by weight and takes for the MST each edge that does not form a cycle with edges
+	 * previously added.
+	 */
+	private void kruskal(int[] edges, int lo, int hi) {
+		sort(edges, lo, hi - 1);
+
+		for (int i = lo; i < hi && !isCompleted(); i++) {
+			int e = edges[i];
+
+			if (uf.areConnected(from[e], to[e])) {
+				continue;
+			}
+
+			uf.union(from[e], to[e]);
+
+			mst.enqueue(new Edge(from[e], to[e], weights[e]));
+
+			weight += weights[e];
+		}
+	}
+
+	private boolean isCompleted() {
+		return mst.size() >= numberOfVertices - 1;
+	}
+
+	// median of three random edges
+	private double choosePivot(int[] edges, int lo, int hi) {
+		double a = weights[edges[lo + random.nextInt(hi - lo)]];
+		double b = weights[edges[lo + random.nextInt(hi - lo)]];
+		double c = weights[edges[lo + random.nextInt(hi - lo)]];
+
+		return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+	}
+
+	/**
+	 * Moves the edge ids of edges[lo..hi) satisfying the predicate to the beginning of the group, keeping their
+	 * relative order, and the rest after them. Large groups are split in chunks processed in parallel.
+	 *
+	 * @return the index following the last edge id satisfying the predicate
+	 */
+	private int partition(final int[] edges, final int lo, final int hi, final IntPredicate predicate) {
+		final int numberOfChunks = hi - lo < PARALLEL_THRESHOLD ? 1 : Math.max(2, pool.getParallelism() * 4);
+		final int chunkSize = (hi - lo + numberOfChunks - 1) / numberOfChunks;
+
+		// number of edges of each chunk satisfying the predicate
+		final int[] counts = new int[numberOfChunks];
+		forEachChunk(numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(hi, lo + (chunk + 1) * chunkSize);
+
+				for (int i = lo + chunk * chunkSize; i < end; i++) {
+					if (predicate.test(edges[i])) {
+						counts[chunk]++;
+					}
+				}
+			}
+		});
+
+		int total = 0;
+		final int[] firstPositions = new int[numberOfChunks];
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			firstPositions[chunk] = total;
+
+			total += counts[chunk];
+		}
+		final int mid = lo + total;
+
+		forEachChunk(numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int start = lo + chunk * chunkSize;
+				int end = Math.min(hi, start + chunkSize);
+
+				int left = lo + firstPositions[chunk];
+				int right = mid + (start - lo) - firstPositions[chunk];
+
+				for (int i = start; i < end; i++) {
+					if (predicate.test(edges[i])) {
+						buffer[left++] = edges[i];
+					}else {
+						buffer[right++] = edges[i];
+					}
+				}
+			}
+		});
+
+		forEachChunk(numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int start = lo + chunk * chunkSize;
+				int end = Math.min(hi, start + chunkSize);
+
+				if (start < end) {
+					System.arraycopy(buffer, start, edges, start, end - start);
+				}
+			}
+		});
+
+		return mid;
+	}
+
+	private void forEachChunk(int numberOfChunks, IntConsumer action) {
+		ChunksAction.forEachChunk(pool, numberOfChunks, action);
+	}
+
+	/**
+	 * Quicksort of the edge ids edges[lo..hi] by weight, using insertion sort for small groups.
+	 */
+	private void sort(int[] edges, int lo, int hi) {
+		while (hi > lo + CUTOFF_LENGTH_INSERTION_SORT) {
+			double pivot = weights[edges[lo + (hi - lo) / 2]];
+
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (weights[edges[i]] < pivot) {
+					i++;
+				}
+
+				while (weights[edges[j]] > pivot) {
+					j--;
+				}
+
+				if (i <= j) {
+					int tmp = edges[i];
+					edges[i++] = edges[j];
+					edges[j--] = tmp;
+				}
+			}
+
+			// recursion on the smaller group keeps the stack logarithmic
+			if (j - lo < hi - i) {
+				sort(edges, lo, j);
+
+				lo = i;
+			}else {
+				sort(edges, i, hi);
+
+				hi = j;
+			}
+		}
+
+		for (int i = lo + 1; i <= hi; i++) {
+			int e = edges[i];
+
+			int j = i;
+			while (j > lo && weights[edges[j - 1]] > weights[e]) {
+				edges[j] = edges[j - 1];
+
+				j--;
+			}
+
+			edges[j] = e;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		UndirectedWeightedGraph uwg = new UndirectedWeightedGraph("weighted_graph_tiny.txt");
+		System.out.println(uwg);
+
+		FilterKruskalMST filterKruskalMST = new FilterKruskalMST(uwg);
+		System.out.println(filterKruskalMST);
+
+		UndirectedWeightedGraph mediumUwg = new UndirectedWeightedGraph("weighted_graph_medium.txt");
+		System.out.println("Weight (medium): " + new FilterKruskalMST(mediumUwg).getWeight());
+	}
+}
@@ -24,7 +24,19 @@ public final class HeapSort {
 	private HeapSort() {}
 	
 	public static void sort(Comparable[] arr) {
-		int index = arr.length;
+		sort(arr, 0, arr.length - 1);
+	}
+	
+	/**
+	 * Sorts the sub-array arr[lo..hi], which is the heap, leaving the rest of the array untouched, so it can
+	 * finish the sort of a part of an array in place, as the fallback of a quicksort partitioning badly.
+	 * 
+	 * @param arr array to be sorted
+	 * @param lo lowest index in the array
+	 * @param hi highest index in the array
+	 */
+	public static void sort(Comparable[] arr, int lo, int hi) {
+		int index = hi - lo + 1;
 		
 		/*
 		 * Heap construction: reorganize the original array into a binary heap. Proceed from right to left, using
@@ -35,7 +47,7 @@ public final class HeapSort {
 		 * Large items are moving to the beginning of the array as the heap is being constructed.
 		 */
 		for (int i = index/2; i > 0; i--) {
-			sink(i, index, arr);
+			sink(i, index, arr, lo);
 		}
 		
 		/*
@@ -43,23 +55,23 @@ public final class HeapSort {
 		 * largest remaining item from the heap and put it into the array position vacated as the heap shrinks.
 		 */
 		while (index > 1) {
-			exchange(1, index--, arr);
+			exchange(1, index--, arr, lo);
 			
-			sink(1, index, arr);
+			sink(1, index, arr, lo);
 		}
 	}
 	
-	// heap is 0-based, not 1-based as in PriorityQueue implementation
-	private static boolean less(int i, int j, Comparable[] binaryHeap) {
-		return binaryHeap[i-1].compareTo(binaryHeap[j-1]) < 0;
+	// heap starts at lo, not at 1 as in PriorityQueue implementation
+	private static boolean less(int i, int j, Comparable[] binaryHeap, int lo) {
+		return binaryHeap[lo+i-1].compareTo(binaryHeap[lo+j-1]) < 0;
 	}
 
-	// heap is 0-based, not 1-based as in PriorityQueue implementation
-	private static void exchange(int i, int j, Comparable[] binaryHeap) {
-		Comparable element = binaryHeap[i-1];
+	// heap starts at lo, not at 1 as in PriorityQueue implementation
+	private static void exchange(int i, int j, Comparable[] binaryHeap, int lo) {
+		Comparable element = binaryHeap[lo+i-1];
 
-		binaryHeap[i-1] = binaryHeap[j-1];
-		binaryHeap[j-1] = element;
+		binaryHeap[lo+i-1] = binaryHeap[lo+j-1];
+		binaryHeap[lo+j-1] = element;
 	}
 
 	/*
@@ -71,19 +83,19 @@ public final class HeapSort {
 	 * 
 	 * @param i new node's index
 	 */
-	private static void sink(int i, int size, Comparable[] binaryHeap) {
-		while (i*2 < size) {
+	private static void sink(int i, int size, Comparable[] binaryHeap, int lo) {
+		while (i*2 <= size) {
 			int j = i*2;
 			
-			if (j < size - 1 && binaryHeap[j+1] != null && less(j, j+1, binaryHeap)) {
+			if (j < size && less(j, j+1, binaryHeap, lo)) {
 				j++;
 			}
 
-			if (binaryHeap[j] == null || !less(i, j, binaryHeap)) {
+			if (!less(i, j, binaryHeap, lo)) {
 				break;
 			}
 
-			exchange(i, j, binaryHeap);
+			exchange(i, j, binaryHeap, lo);
 
 			i = j;
 		}
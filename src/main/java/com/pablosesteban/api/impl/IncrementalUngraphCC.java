@@ -0,0 +1,247 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.impl.UndirectedGraph;
+import com.pablosesteban.adt.impl.WeightedQuickUnion;
+import com.pablosesteban.api.GraphConnectedComponents;
+
+/**
+ * An incremental connected components implementation for undirected graphs whose edges arrive as a stream, which keeps
+ * the components up to date on each edge added instead of running a DFS over the whole graph again.
+ * The components are kept in a WeightedQuickUnion, so adding an edge and answering whether two vertices are connected
+ * or the size of the component of a vertex take nearly constant amortized time (inverse Ackermann function), and the
+ * number of components is kept by the union-find. The edges themselves are not kept, as they are not needed to answer
+ * any query, so the implementation uses space proportional to the number of vertices (V).
+ * The identifiers of the components change as they are merged, so they are only given by snapshots: immutable
+ * GraphConnectedComponents of the components at some point, numbered in the order of their lowest vertices (the same
+ * identifiers as the DFS of UngraphCC), built in time proportional to V. A snapshot can be taken at any time, and it is
+ * also taken periodically, after every given number of edges added, if a snapshot period is given.
+ * Edges can only be added, as the union-find cannot split a component.
+ */
+public class IncrementalUngraphCC {
+	private final WeightedQuickUnion uf;
+	private final int numberOfVertices;
+	private final int snapshotPeriod;
+
+	private long numberOfEdges;
+	private GraphConnectedComponents latestSnapshot;
+
+	/**
+	 * Starts with numberOfVertices components, each vertex in its own one, without periodic snapshots
+	 *
+	 * @param numberOfVertices the number of vertices
+	 */
+	public IncrementalUngraphCC(int numberOfVertices) {
+		this(numberOfVertices, 0);
+	}
+
+	/**
+	 * Starts with numberOfVertices components, each vertex in its own one
+	 *
+	 * @param numberOfVertices the number of vertices
+	 * @param snapshotPeriod the number of edges added between periodic snapshots, 0 for no periodic snapshots
+	 */
+	public IncrementalUngraphCC(int numberOfVertices, int snapshotPeriod) {
+		if (numberOfVertices < 0) {
+			throw new IllegalArgumentException("Number of vertices must be non-negative: " + numberOfVertices);
+		}
+
+		if (snapshotPeriod < 0) {
+			throw new IllegalArgumentException("Snapshot period must be non-negative: " + snapshotPeriod);
+		}
+
+		this.numberOfVertices = numberOfVertices;
+		this.snapshotPeriod = snapshotPeriod;
+
+		uf = new WeightedQuickUnion(numberOfVertices);
+	}
+
+	/**
+	 * Starts with the components of this undirected graph, adding all its edges
+	 *
+	 * @param ug the undirected graph
+	 * @param snapshotPeriod the number of edges added between periodic snapshots, 0 for no periodic snapshots
+	 */
+	public IncrementalUngraphCC(Graph ug, int snapshotPeriod) {
+		this(ug.size(), snapshotPeriod);
+
+		for (int v = 0; v < ug.size(); v++) {
+			for (int i = 0; i < ug.degree(v); i++) {
+				int w = ug.getAdjacentVertex(v, i);
+
+				// each edge is in the adjacency lists of both vertices
+				if (w >= v) {
+					addEdge(v, w);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an edge between two vertices, merging their components if they were not connected
+	 *
+	 * @param v a vertex
+	 * @param w another vertex
+	 * @return true if, and only if, the edge merged two components
+	 */
+	public boolean addEdge(int v, int w) {
+		validateVertex(v);
+		validateVertex(w);
+
+		int count = uf.count();
+		uf.union(v, w);
+
+		numberOfEdges++;
+
+		if (snapshotPeriod > 0 && numberOfEdges % snapshotPeriod == 0) {
+			latestSnapshot = snapshot();
+		}
+
+		return uf.count() < count;
+	}
+
+	/**
+	 * Determines if the two given vertices are connected
+	 *
+	 * @param v a vertex
+	 * @param w another vertex
+	 * @return true if, and only if, both vertices are connected
+	 */
+	public boolean areConnected(int v, int w) {
+		validateVertex(v);
+		validateVertex(w);
+
+		return uf.areConnected(v, w);
+	}
+
+	/**
+	 * Returns the number of connected components in the graph
+	 *
+	 * @return the number of connected components in the graph
+	 */
+	public int getCount() {
+		return uf.count();
+	}
+
+	/**
+	 * Returns the number of vertices in the connected component of the given vertex
+	 *
+	 * @param v a vertex
+	 * @return the number of vertices connected to v, including itself
+	 */
+	public int getComponentSize(int v) {
+		validateVertex(v);
+
+		return uf.size(v);
+	}
+
+	public long getNumberOfEdges() {
+		return numberOfEdges;
+	}
+
+	/**
+	 * Takes a snapshot of the current components, which does not change with the edges added afterwards
+	 *
+	 * @return the connected components of the graph so far
+	 */
+	public GraphConnectedComponents snapshot() {
+		int[] connectedTo = new int[numberOfVertices];
+		// the component of each root, plus one, as the lowest vertex of a component is the first one reaching its root
+		int[] components = new int[numberOfVertices];
+		int count = 0;
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			int root = uf.find(v);
+
+			if (components[root] == 0) {
+				components[root] = ++count;
+			}
+
+			connectedTo[v] = components[root] - 1;
+		}
+
+		return new Snapshot(connectedTo, count);
+	}
+
+	/**
+	 * Gets the latest periodic snapshot
+	 *
+	 * @return the snapshot taken after the last period of edges, or null if no period has been completed
+	 */
+	public GraphConnectedComponents getLatestSnapshot() {
+		return latestSnapshot;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\nnumberOfVertices: " + numberOfVertices + ",\nnumberOfEdges: " + numberOfEdges + ",\ncount: " + uf.count() + "\n}";
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= numberOfVertices) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (numberOfVertices - 1));
+		}
+	}
+
+	/**
+	 * The components at some point, each one identified by its position in the order of their lowest vertices
+	 */
+	private static class Snapshot implements GraphConnectedComponents {
+		private final int[] connectedTo;
+		private final int count;
+
+		Snapshot(int[] connectedTo, int count) {
+			this.connectedTo = connectedTo;
+			this.count = count;
+		}
+
+		@Override
+		public boolean areConnected(int v, int w) {
+			return connectedTo[v] == connectedTo[w];
+		}
+
+		@Override
+		public int getCount() {
+			return count;
+		}
+
+		@Override
+		public int getConnectedComponent(int v) {
+			return connectedTo[v];
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + " {" + "\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
+		}
+	}
+
+	public static void main(String[] args) {
+		IncrementalUngraphCC iugcc = new IncrementalUngraphCC(13, 5);
+		UndirectedGraph ug = new UndirectedGraph(13);
+
+		int[][] edges = {{0, 5}, {4, 3}, {0, 1}, {9, 12}, {6, 4}, {5, 4}, {0, 2}, {11, 12}, {9, 10}, {0, 6}, {7, 8},
+				{9, 11}, {5, 3}};
+
+		for (int[] edge : edges) {
+			boolean merged = iugcc.addEdge(edge[0], edge[1]);
+			ug.addEdge(edge[0], edge[1]);
+
+			System.out.println("addEdge " + edge[0] + "-" + edge[1] + ": merged " + merged + ", count " + iugcc.getCount());
+		}
+
+		System.out.println(iugcc);
+		System.out.println("latestSnapshot: " + iugcc.getLatestSnapshot());
+		System.out.println("snapshot: " + iugcc.snapshot());
+
+		System.out.println("areConnected 0 3: " + iugcc.areConnected(0, 3));
+		System.out.println("getComponentSize 9: " + iugcc.getComponentSize(9));
+
+		System.out.println("UngraphCC: " + new UngraphCC(ug));
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.impl.DirectedGraph;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.api.DigraphTopologicalOrder;
+
+/**
+ * A topological order implementation based on the Kahn's algorithm, which finds the order and whether the digraph
+ * has a directed cycle in a single pass over its edges, without recursion.
+ * A vertex without edges pointing to it (in-degree 0) can be the first one in the order, and removing it from the
+ * digraph leaves a smaller digraph whose topological order follows it. So the implementation keeps the in-degree of
+ * each vertex, takes the vertices of in-degree 0 from a queue in turn and decrements the in-degree of their adjacent
+ * vertices, which are added to the queue once all the vertices pointing to them have been taken.
+ * A vertex on a directed cycle never gets to in-degree 0, so the digraph is a DAG if, and only if, all the vertices
+ * are taken.
+ * The queue is a vertex-indexed int array, which is also the order, as each vertex is added once and never removed,
+ * so the implementation uses space proportional to the number of vertices (V) and time proportional to V plus the
+ * number of edges (E).
+ */
+public class KahnTopologicalOrder implements DigraphTopologicalOrder {
+	private int[] order;
+
+	public KahnTopologicalOrder(Graph dg) {
+		int numberOfVertices = dg.size();
+		int[] inDegrees = new int[numberOfVertices];
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			for (int i = 0; i < dg.degree(v); i++) {
+				inDegrees[dg.getAdjacentVertex(v, i)]++;
+			}
+		}
+
+		int[] queue = new int[numberOfVertices];
+		int head = 0;
+		int tail = 0;
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			if (inDegrees[v] == 0) {
+				queue[tail++] = v;
+			}
+		}
+
+		while (head < tail) {
+			int v = queue[head++];
+
+			for (int i = 0; i < dg.degree(v); i++) {
+				int w = dg.getAdjacentVertex(v, i);
+
+				if (--inDegrees[w] == 0) {
+					queue[tail++] = w;
+				}
+			}
+		}
+
+		// the vertices left are on a directed cycle or reachable from one
+		if (tail == numberOfVertices) {
+			order = queue;
+		}
+	}
+
+	@Override
+	public boolean isDag() {
+		return order != null;
+	}
+
+	@Override
+	public Iterable<Integer> topologicalOrder() {
+		if (order == null) {
+			return null;
+		}
+
+		Queue<Integer> vertices = new LinkedQueue<>();
+		for (int v : order) {
+			vertices.enqueue(v);
+		}
+
+		return vertices;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\norder: " + Arrays.toString(order) + "\n}";
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph dg = new DirectedGraph(13);
+		dg.addEdge(0, 5);
+		dg.addEdge(0, 1);
+		dg.addEdge(0, 6);
+		dg.addEdge(2, 0);
+		dg.addEdge(2, 3);
+		dg.addEdge(3, 5);
+		dg.addEdge(5, 4);
+		dg.addEdge(6, 4);
+		dg.addEdge(6, 9);
+		dg.addEdge(7, 6);
+		dg.addEdge(8, 7);
+		dg.addEdge(9, 11);
+		dg.addEdge(9, 12);
+		dg.addEdge(9, 10);
+		dg.addEdge(11, 12);
+		System.out.println(dg);
+
+		DigraphTopologicalOrder dgto = new KahnTopologicalOrder(dg);
+		System.out.println(dgto);
+		System.out.println("Is a DAG: " + dgto.isDag());
+		System.out.println("Topological order: " + dgto.topologicalOrder());
+
+		dg.addEdge(12, 2);
+		System.out.println("Is a DAG (12->2): " + new KahnTopologicalOrder(dg).isDag());
+	}
+}
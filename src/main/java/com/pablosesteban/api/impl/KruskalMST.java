@@ -8,14 +8,13 @@ import java.io.IOException;
 import com.pablosesteban.adt.Queue;
 import com.pablosesteban.adt.UnionFind;
 import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
 import com.pablosesteban.adt.impl.Edge;
 import com.pablosesteban.adt.impl.LinkedQueue;
 import com.pablosesteban.adt.impl.UndirectedWeightedGraph;
 import com.pablosesteban.adt.impl.WeightedQuickUnion;
 import com.pablosesteban.api.WeightedUngraphMinimumSpanningTree;
 
-import edu.princeton.cs.algs4.MinPQ;
-
 /**
  * A MST implementation based on the Kruskal's Algorithm and assuming that the undirected weighted graph is connected.
  * Consists on processing the edges in order of their weight values, from the smallest to largest, taking for the MST
@@ -26,7 +25,12 @@ import edu.princeton.cs.algs4.MinPQ;
  * and perform the operation of combining two trees, using the shortest edge possible, until there is just one tree left.
  * This implementation uses space proportional to the number of edges (E) and time proportional to E log E in the worst case,
  * to compute the MST of an weighted connected graph with E edges and V vertices. The key operation is the priority-queue
- * populated in the constructor with all the edges at a cost of at most E compares.
+ * populated in the constructor with all the edges at a cost of at most 2E compares (bottom-up heap construction).
+ * Edges are not objects while processing: they are copied through the primitive cursor of WeightedGraph into three
+ * parallel arrays (from, to and weight) and the priority-queue is a binary heap of edge ids (positions in those arrays)
+ * ordered by weight, so no object is created but for the V - 1 edges of the MST.
+ * As the graph is undirected, each edge is reported by both of its vertices, so just the v-w edges with w > v are taken
+ * (self-loops are ignored as they never belong to a MST).
  * Despite this advantage, this algorithm is generally slower than Prims algorithm because it has to do a union operation
  * for each edge, in addition to the priority-queue operations that both algorithms do for each edge processed.
  */
@@ -37,25 +41,62 @@ public class KruskalMST implements WeightedUngraphMinimumSpanningTree {
 	public KruskalMST(WeightedGraph wg) {
 		UnionFind uf = new WeightedQuickUnion(wg.size());
 		
-		MinPQ<Edge> edges = new MinPQ<>(wg.size());
-		for (Edge edge : wg.getEdges()) {
-			edges.insert(edge);
+		int numberOfEdges = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				if (wg.getAdjacentVertex(v, i) > v) {
+					numberOfEdges++;
+				}
+			}
+		}
+		
+		int[] from = new int[numberOfEdges];
+		int[] to = new int[numberOfEdges];
+		double[] weights = new double[numberOfEdges];
+		
+		int e = 0;
+		for (int v = 0; v < wg.size(); v++) {
+			for (int i = 0; i < wg.degree(v); i++) {
+				int w = wg.getAdjacentVertex(v, i);
+				
+				if (w > v) {
+					from[e] = v;
+					to[e] = w;
+					weights[e] = wg.getIncidentWeight(v, i);
+					
+					e++;
+				}
+			}
+		}
+		
+		// 1-based binary heap of edge ids
+		int[] edges = new int[numberOfEdges + 1];
+		for (int i = 1; i <= numberOfEdges; i++) {
+			edges[i] = i - 1;
+		}
+		
+		for (int i = numberOfEdges / 2; i >= 1; i--) {
+			sink(edges, i, numberOfEdges, weights);
 		}
 		
 		mst = new LinkedQueue<>();
 		
-		while (!edges.isEmpty() && mst.size() < wg.size() - 1) {
-			Edge minEdge = edges.delMin();
+		int size = numberOfEdges;
+		while (size > 0 && mst.size() < wg.size() - 1) {
+			int minEdge = edges[1];
+			
+			edges[1] = edges[size--];
+			sink(edges, 1, size, weights);
 			
-			if (uf.areConnected(minEdge.getFrom(), minEdge.getTo())) {
+			if (uf.areConnected(from[minEdge], to[minEdge])) {
 				continue;
 			}
 			
-			uf.union(minEdge.getFrom(), minEdge.getTo());
+			uf.union(from[minEdge], to[minEdge]);
 			
-			mst.enqueue(minEdge);
+			mst.enqueue(new Edge(from[minEdge], to[minEdge], weights[minEdge]));
 			
-			weight += minEdge.getWeight();
+			weight += weights[minEdge];
 		}
 	}
 
@@ -73,6 +114,35 @@ public class KruskalMST implements WeightedUngraphMinimumSpanningTree {
 	public String toString() {
 		return getClass().getSimpleName() + " {\nmst: " + mst + ",\nweigth: " + weight + "\n}";
 	}
+	
+	/**
+	 * Restores the heap order moving down the edge id at position k, while its weight is greater than
+	 * the weight of any of its children.
+	 * 
+	 * @param edges a 1-based binary heap of edge ids
+	 * @param k a position in the heap
+	 * @param size the number of edge ids in the heap
+	 * @param weights the edge-id-indexed weights
+	 */
+	private static void sink(int[] edges, int k, int size, double[] weights) {
+		while (2 * k <= size) {
+			int j = 2 * k;
+			
+			if (j < size && weights[edges[j + 1]] < weights[edges[j]]) {
+				j++;
+			}
+			
+			if (weights[edges[k]] <= weights[edges[j]]) {
+				break;
+			}
+			
+			int tmp = edges[k];
+			edges[k] = edges[j];
+			edges[j] = tmp;
+			
+			k = j;
+		}
+	}
 
 	public static void main(String[] args) throws IOException {
 		UndirectedWeightedGraph uwg = new UndirectedWeightedGraph("weighted_graph_tiny.txt");
@@ -80,5 +150,8 @@ public class KruskalMST implements WeightedUngraphMinimumSpanningTree {
 		
 		KruskalMST kruskalMST = new KruskalMST(uwg);
 		System.out.println(kruskalMST);
+		
+		KruskalMST csrKruskalMST = new KruskalMST(CompressedSparseRowWeightedGraph.read("weighted_graph_tiny.txt", WeightedGraph.Type.UNDIRECTED));
+		System.out.println(csrKruskalMST);
 	}
 }
@@ -0,0 +1,281 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Implementations for sorting an array of longs in place, comparing the primitive values directly instead of boxing
+ * each one into a Long, so the quicksort and the heapsort allocate nothing and the mergesort a single auxiliary
+ * array. They mirror the sorts of Comparable arrays:
+ * <ul>
+ * <li>QUICKSORT: a dual-pivot quicksort, in the way of the one of Vladimir Yaroslavskiy, which partitions the sub-array
+ * into three parts with two partitioning items p1 <= p2: the items less than p1, the items between p1 and p2, and the
+ * items greater than p2, in a single left-to-right pass. The partitioning items are the second and fourth of five
+ * items evenly spaced in the sub-array, so they split it in thirds on the average, and the sort uses fewer swaps and
+ * fewer passes over the array than the single-pivot one. As in the THREE WAY quicksort, the items equal to the
+ * partitioning items are not sorted again: if p1 = p2, the middle part is all equal to them, and if the middle part is
+ * too large, the items equal to p1 or p2 are moved to its ends, where they are in place. Instead of shuffling the
+ * array, the recursion falls back to heapsort on the sub-arrays deeper than 2 lg N, so it takes time proportional to
+ * N log N in the worst case.</li>
+ * <li>MERGESORT: the TOP DOWN mergesort, with an auxiliary array allocated once, an insertion sort for tiny sub-arrays
+ * and skipping the merge of two halves already in order, so it takes linear time for an array in order.</li>
+ * <li>HEAPSORT: the in-place heapsort, with sink moving the items along the path down instead of exchanging them.</li>
+ * </ul>
+ * Equal longs are indistinguishable, so the sorts do not have to be stable.
+ */
+public final class LongSort {
+	// sub-arrays up to this length are sorted by an insertion sort in quicksort
+	private static final int QUICKSORT_CUTOFF_LENGTH_INSERTION_SORT = 27;
+	// sub-arrays up to this length are sorted by an insertion sort in mergesort
+	private static final int MERGESORT_CUTOFF_LENGTH_INSERTION_SORT = 7;
+
+	private LongSort() {}
+
+	public static void quickSort(long[] arr) {
+		quickSort(arr, 0, arr.length - 1, 2 * lg(arr.length));
+	}
+
+	public static void mergeSort(long[] arr) {
+		if (arr.length < 2) {
+			return;
+		}
+
+		mergeSort(arr, new long[arr.length], 0, arr.length - 1);
+	}
+
+	public static void heapSort(long[] arr) {
+		heapSort(arr, 0, arr.length - 1);
+	}
+
+	/**
+	 * Sorts the sub-array arr[lo..hi] by a dual-pivot quicksort, falling back to heapsort once the depth limit is reached
+	 */
+	private static void quickSort(long[] arr, int lo, int hi, int depthLimit) {
+		if (hi - lo < QUICKSORT_CUTOFF_LENGTH_INSERTION_SORT) {
+			insertionSort(arr, lo, hi);
+
+			return;
+		}
+
+		if (depthLimit == 0) {
+			heapSort(arr, lo, hi);
+
+			return;
+		}
+
+		choosePivots(arr, lo, hi);
+
+		long p1 = arr[lo];
+		long p2 = arr[hi];
+
+		// arr[lo+1..lt-1] < p1, p1 <= arr[lt..i-1] <= p2, arr[i..gt] not yet examined and arr[gt+1..hi-1] > p2
+		int lt = lo + 1;
+		int gt = hi - 1;
+		int i = lo + 1;
+
+		while (i <= gt) {
+			if (arr[i] < p1) {
+				exchange(arr, i++, lt++);
+			}else if (arr[i] > p2) {
+				exchange(arr, i, gt--);
+			}else {
+				i++;
+			}
+		}
+
+		// the partitioning items into their final positions
+		exchange(arr, lo, --lt);
+		exchange(arr, hi, ++gt);
+
+		quickSort(arr, lo, lt - 1, depthLimit - 1);
+		quickSort(arr, gt + 1, hi, depthLimit - 1);
+
+		// the middle part is all equal to the partitioning items when they are equal
+		if (p1 == p2) {
+			return;
+		}
+
+		int midLo = lt + 1;
+		int midHi = gt - 1;
+
+		if (midHi - midLo > (hi - lo) / 7 * 4) {
+			// many items equal to the partitioning items, which are moved to the ends of the middle part
+			i = midLo;
+
+			while (i <= midHi) {
+				if (arr[i] == p1) {
+					exchange(arr, i++, midLo++);
+				}else if (arr[i] == p2) {
+					exchange(arr, i, midHi--);
+				}else {
+					i++;
+				}
+			}
+		}
+
+		quickSort(arr, midLo, midHi, depthLimit - 1);
+	}
+
+	/**
+	 * Sorts five items evenly spaced in the sub-array and puts the second one at lo and the fourth one at hi
+	 */
+	private static void choosePivots(long[] arr, int lo, int hi) {
+		int sixth = (hi - lo + 1) / 6;
+		int s1 = lo + sixth;
+		int s2 = lo + 2 * sixth;
+		int s3 = lo + (hi - lo) / 2;
+		int s4 = hi - 2 * sixth;
+		int s5 = hi - sixth;
+
+		// a sorting network of nine compare-exchanges, so the samples are sorted without an array of their indices
+		compareExchange(arr, s1, s2);
+		compareExchange(arr, s4, s5);
+		compareExchange(arr, s3, s5);
+		compareExchange(arr, s3, s4);
+		compareExchange(arr, s1, s4);
+		compareExchange(arr, s1, s3);
+		compareExchange(arr, s2, s5);
+		compareExchange(arr, s2, s4);
+		compareExchange(arr, s2, s3);
+
+		exchange(arr, lo, s2);
+		exchange(arr, hi, s4);
+	}
+
+	// puts the items at i and j in order, where i < j
+	private static void compareExchange(long[] arr, int i, int j) {
+		if (arr[j] < arr[i]) {
+			exchange(arr, i, j);
+		}
+	}
+
+	/**
+	 * Sorts the sub-array arr[lo..hi] by a top-down mergesort, using the same range of aux for the merges
+	 */
+	private static void mergeSort(long[] arr, long[] aux, int lo, int hi) {
+		if (hi - lo < MERGESORT_CUTOFF_LENGTH_INSERTION_SORT) {
+			insertionSort(arr, lo, hi);
+
+			return;
+		}
+
+		int mid = lo + (hi - lo) / 2;
+
+		mergeSort(arr, aux, lo, mid);
+		mergeSort(arr, aux, mid + 1, hi);
+
+		// check whether the sub-array is already in order
+		if (arr[mid] <= arr[mid + 1]) {
+			return;
+		}
+
+		System.arraycopy(arr, lo, aux, lo, hi - lo + 1);
+
+		int i = lo;
+		int j = mid + 1;
+
+		for (int k = lo; k <= hi; k++) {
+			if (i > mid) {
+				arr[k] = aux[j++];
+			}else if (j > hi) {
+				arr[k] = aux[i++];
+			}else if (aux[j] < aux[i]) {
+				arr[k] = aux[j++];
+			}else {
+				arr[k] = aux[i++];
+			}
+		}
+	}
+
+	/**
+	 * Sorts the sub-array arr[lo..hi], which is the heap, with its root at lo
+	 */
+	private static void heapSort(long[] arr, int lo, int hi) {
+		int size = hi - lo + 1;
+
+		for (int k = size / 2 - 1; k >= 0; k--) {
+			sink(arr, lo, k, size);
+		}
+
+		while (size > 1) {
+			exchange(arr, lo, lo + --size);
+
+			sink(arr, lo, 0, size);
+		}
+	}
+
+	// heap starts at lo, with the children of k at 2k+1 and 2k+2
+	private static void sink(long[] arr, int lo, int k, int size) {
+		long item = arr[lo + k];
+
+		while (2 * k + 1 < size) {
+			int j = 2 * k + 1;
+
+			if (j + 1 < size && arr[lo + j] < arr[lo + j + 1]) {
+				j++;
+			}
+
+			if (item >= arr[lo + j]) {
+				break;
+			}
+
+			arr[lo + k] = arr[lo + j];
+
+			k = j;
+		}
+
+		arr[lo + k] = item;
+	}
+
+	private static void insertionSort(long[] arr, int lo, int hi) {
+		for (int i = lo + 1; i <= hi; i++) {
+			long item = arr[i];
+			int j = i;
+
+			for (; j > lo && item < arr[j - 1]; j--) {
+				arr[j] = arr[j - 1];
+			}
+
+			arr[j] = item;
+		}
+	}
+
+	private static void exchange(long[] arr, int i, int j) {
+		long item = arr[i];
+
+		arr[i] = arr[j];
+		arr[j] = item;
+	}
+
+	// floor of the binary logarithm, 0 for an empty array
+	private static int lg(int n) {
+		return n == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+	}
+
+	public static void main(String[] args) {
+		long[] arr = {5L, -3L, 8L, 0L, 8L, Long.MIN_VALUE, 42L, -3L, 7L, Long.MAX_VALUE, 1L};
+
+		System.out.println("Unsorted: " + Arrays.toString(arr));
+
+		LongSort.quickSort(arr);
+
+		System.out.println("Sorted:   " + Arrays.toString(arr));
+
+		Random random = new Random(0);
+		long[] numbers = new long[1 << 20];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = random.nextLong();
+		}
+
+		long[] copy = numbers.clone();
+		LongSort.mergeSort(copy);
+		System.out.println("Sorted (mergesort): " + copy[0] + ", " + copy[1] + ", ..., " + copy[copy.length - 1]);
+
+		copy = numbers.clone();
+		LongSort.heapSort(copy);
+		System.out.println("Sorted (heapsort):  " + copy[0] + ", " + copy[1] + ", ..., " + copy[copy.length - 1]);
+	}
+}
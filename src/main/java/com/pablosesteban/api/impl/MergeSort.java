@@ -31,23 +31,40 @@ import com.pablosesteban.api.Sort;
  * to make subarrays of size 4), then 4-by-4 merges, and so forth. All merges involve subarrays of
  * equal size, doubling the sorted subarray size for the next pass, except the second subarray in the
  * last merge on each pass which may be smaller than the first (but is no problem for merge).</li>
+ * <li>NATURAL: an adaptive implementation, in the way of TimSort, which merges the runs already in
+ * order in the array (ascending, or strictly descending ones reversed) instead of sub-arrays of fixed
+ * sizes, keeping them on a stack whose lengths grow exponentially and merging them with galloping, so
+ * it takes time close to linear to sort nearly sorted arrays.</li>
  * </ul>
- * Both implementations guarantee to sort any array of N items in time proportional to N log N, but
- * uses extra space proportional to N.
+ * All implementations guarantee to sort any array of N items in time proportional to N log N, but
+ * use extra space proportional to N.
  *
  * @param <T> type of elements in the array
  */
 public class MergeSort<T extends Comparable<T>> implements Sort<T> {
 	public enum Type {
 		TOP_DOWN,
-		BOTTOM_UP;
+		BOTTOM_UP,
+		NATURAL;
 	}
 	
 	private static int CUTOFF_LENGTH_INSERTION_SORT = 7;
+	// arrays shorter than this are sorted by a binary insertion sort in NATURAL mergesort
+	private static final int MIN_MERGE = 32;
+	// initial number of wins in a row of a run to start galloping in NATURAL mergesort
+	private static final int MIN_GALLOP = 7;
+	// the lengths of the runs on the stack grow faster than the Fibonacci numbers, so an int length needs fewer runs
+	private static final int MAX_NUMBER_OF_RUNS = 49;
 	
 	// auxiliary array for merges
 	private T[] elements;
 	private Type type;
+	
+	// NATURAL mergesort state: the stack of pending runs and the current number of wins to start galloping
+	private int[] runBases;
+	private int[] runLengths;
+	private int numberOfRuns;
+	private int minGallop;
 
 	public MergeSort(Type type) {
 		this.type = type;
@@ -65,6 +82,9 @@ public class MergeSort<T extends Comparable<T>> implements Sort<T> {
 			case TOP_DOWN:
 				mergeSort(arr, 0, arr.length - 1);
 				break;
+			case NATURAL:
+				naturalMergeSort(arr);
+				break;
 			default:
 				throw new IllegalArgumentException();
 		}
@@ -119,6 +139,580 @@ public class MergeSort<T extends Comparable<T>> implements Sort<T> {
 		}
 	}
 
+	/**
+	 * Natural mergesort, in the way of the TimSort of Tim Peters, consists on merging the runs already in the array
+	 * instead of sub-arrays of fixed sizes. Each run is found by a left-to-right scan: the longest ascending (or strictly
+	 * descending, which is reversed in place, and strictly so that equal items are not reordered) prefix of the rest of
+	 * the array, extended with a binary insertion sort up to a minimum length if it is shorter.
+	 * Each run is pushed on a stack of runs and the runs on the top are merged while the lengths of the last three ones
+	 * break any of the invariants A > B + C and B > C (A being the deepest of them), and the lengths of the last four ones
+	 * the invariant A > B + C with B, C, D, so the lengths grow at least as fast as the Fibonacci numbers from the top
+	 * down: the stack is shallow and the merges are balanced.
+	 * Each merge is STABLE and only copies the shorter run to the auxiliary array, after skipping the items of the first
+	 * run already before the second one and the items of the second run already after the first one. While a run keeps
+	 * winning, the merge switches to galloping: an exponential search, followed by a binary search, for the position of
+	 * the next item of the other run, copying all the items before it at once. The number of wins to start galloping
+	 * (minGallop) adapts to the data, going down while galloping pays off and up otherwise.
+	 * A sorted array is a single run, found with N-1 compares, and an array made of a few runs is sorted in time
+	 * proportional to N times the logarithm of the number of runs.
+	 *
+	 * @param arr array to be sorted
+	 */
+	private void naturalMergeSort(T[] arr) {
+		int lo = 0;
+		int remaining = arr.length;
+
+		if (remaining < 2) {
+			return;
+		}
+
+		// tiny arrays are a single run extended to the whole array
+		if (remaining < MIN_MERGE) {
+			int runLength = countRunAndMakeAscending(arr, lo, arr.length);
+
+			binaryInsertionSort(arr, lo, arr.length, lo + runLength);
+
+			return;
+		}
+
+		minGallop = MIN_GALLOP;
+		runBases = new int[MAX_NUMBER_OF_RUNS];
+		runLengths = new int[MAX_NUMBER_OF_RUNS];
+		numberOfRuns = 0;
+
+		int minRunLength = minRunLength(remaining);
+
+		do {
+			int runLength = countRunAndMakeAscending(arr, lo, arr.length);
+
+			if (runLength < minRunLength) {
+				int forced = Math.min(remaining, minRunLength);
+
+				binaryInsertionSort(arr, lo, lo + forced, lo + runLength);
+
+				runLength = forced;
+			}
+
+			runBases[numberOfRuns] = lo;
+			runLengths[numberOfRuns] = runLength;
+			numberOfRuns++;
+
+			mergeCollapse(arr);
+
+			lo += runLength;
+			remaining -= runLength;
+		} while (remaining != 0);
+
+		// merge all remaining runs
+		while (numberOfRuns > 1) {
+			int n = numberOfRuns - 2;
+
+			if (n > 0 && runLengths[n - 1] < runLengths[n + 1]) {
+				n--;
+			}
+
+			mergeAt(arr, n);
+		}
+	}
+
+	/**
+	 * Gets the length of the run starting at lo, reversing it if it is strictly descending
+	 */
+	private int countRunAndMakeAscending(T[] arr, int lo, int hi) {
+		int runHi = lo + 1;
+
+		if (runHi == hi) {
+			return 1;
+		}
+
+		if (arr[runHi++].compareTo(arr[lo]) < 0) {
+			while (runHi < hi && arr[runHi].compareTo(arr[runHi - 1]) < 0) {
+				runHi++;
+			}
+
+			for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+				T item = arr[i];
+
+				arr[i] = arr[j];
+				arr[j] = item;
+			}
+		}else {
+			while (runHi < hi && arr[runHi].compareTo(arr[runHi - 1]) >= 0) {
+				runHi++;
+			}
+		}
+
+		return runHi - lo;
+	}
+
+	/**
+	 * Insertion sort of arr[lo..hi-1], where arr[lo..start-1] is already sorted, finding the position of each item with a
+	 * binary search (after the equal items, to be stable) and moving the larger ones at once
+	 */
+	private void binaryInsertionSort(T[] arr, int lo, int hi, int start) {
+		if (start == lo) {
+			start++;
+		}
+
+		for (; start < hi; start++) {
+			T item = arr[start];
+			int left = lo;
+			int right = start;
+
+			while (left < right) {
+				int mid = (left + right) >>> 1;
+
+				if (item.compareTo(arr[mid]) < 0) {
+					right = mid;
+				}else {
+					left = mid + 1;
+				}
+			}
+
+			System.arraycopy(arr, left, arr, left + 1, start - left);
+			arr[left] = item;
+		}
+	}
+
+	/**
+	 * Gets the minimum length of a run: N itself if it is small, otherwise a length between MIN_MERGE/2 and MIN_MERGE
+	 * such that N divided by it is a power of 2 or slightly less, so the forced runs are merged in balanced pairs
+	 */
+	private static int minRunLength(int n) {
+		int lowBits = 0;
+
+		while (n >= MIN_MERGE) {
+			lowBits |= n & 1;
+			n >>= 1;
+		}
+
+		return n + lowBits;
+	}
+
+	/**
+	 * Merges the runs on the top of the stack until the invariants on their lengths hold again
+	 */
+	private void mergeCollapse(T[] arr) {
+		while (numberOfRuns > 1) {
+			int n = numberOfRuns - 2;
+
+			if (n > 0 && runLengths[n - 1] <= runLengths[n] + runLengths[n + 1]
+					|| n > 1 && runLengths[n - 2] <= runLengths[n] + runLengths[n - 1]) {
+				if (runLengths[n - 1] < runLengths[n + 1]) {
+					n--;
+				}
+			}else if (runLengths[n] > runLengths[n + 1]) {
+				break;
+			}
+
+			mergeAt(arr, n);
+		}
+	}
+
+	/**
+	 * Merges the runs i and i+1 of the stack, which are adjacent in the array
+	 */
+	private void mergeAt(T[] arr, int i) {
+		int base1 = runBases[i];
+		int length1 = runLengths[i];
+		int base2 = runBases[i + 1];
+		int length2 = runLengths[i + 1];
+
+		runLengths[i] = length1 + length2;
+
+		if (i == numberOfRuns - 3) {
+			runBases[i + 1] = runBases[i + 2];
+			runLengths[i + 1] = runLengths[i + 2];
+		}
+
+		numberOfRuns--;
+
+		// the items of the first run not greater than the first item of the second one are already in place
+		int k = gallopRight(arr[base2], arr, base1, length1, 0);
+
+		base1 += k;
+		length1 -= k;
+
+		if (length1 == 0) {
+			return;
+		}
+
+		// and so are the items of the second run not less than the last item of the first one
+		length2 = gallopLeft(arr[base1 + length1 - 1], arr, base2, length2, length2 - 1);
+
+		if (length2 == 0) {
+			return;
+		}
+
+		if (length1 <= length2) {
+			mergeLow(arr, base1, length1, base2, length2);
+		}else {
+			mergeHigh(arr, base1, length1, base2, length2);
+		}
+	}
+
+	/**
+	 * Finds the position to insert the item into the sorted a[base..base+length-1] before the items equal to it, starting
+	 * an exponential search at the hint
+	 *
+	 * @return the number of items less than the item
+	 */
+	private int gallopLeft(T item, T[] a, int base, int length, int hint) {
+		int lastOffset = 0;
+		int offset = 1;
+
+		if (item.compareTo(a[base + hint]) > 0) {
+			int maxOffset = length - hint;
+
+			while (offset < maxOffset && item.compareTo(a[base + hint + offset]) > 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+
+			offset = Math.min(offset, maxOffset);
+
+			lastOffset += hint;
+			offset += hint;
+		}else {
+			int maxOffset = hint + 1;
+
+			while (offset < maxOffset && item.compareTo(a[base + hint - offset]) <= 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+
+			offset = Math.min(offset, maxOffset);
+
+			int previousLastOffset = lastOffset;
+			lastOffset = hint - offset;
+			offset = hint - previousLastOffset;
+		}
+
+		// a[base+lastOffset] < item <= a[base+offset], so the binary search is between them
+		lastOffset++;
+
+		while (lastOffset < offset) {
+			int mid = lastOffset + ((offset - lastOffset) >>> 1);
+
+			if (item.compareTo(a[base + mid]) > 0) {
+				lastOffset = mid + 1;
+			}else {
+				offset = mid;
+			}
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Finds the position to insert the item into the sorted a[base..base+length-1] after the items equal to it, starting
+	 * an exponential search at the hint
+	 *
+	 * @return the number of items not greater than the item
+	 */
+	private int gallopRight(T item, T[] a, int base, int length, int hint) {
+		int lastOffset = 0;
+		int offset = 1;
+
+		if (item.compareTo(a[base + hint]) < 0) {
+			int maxOffset = hint + 1;
+
+			while (offset < maxOffset && item.compareTo(a[base + hint - offset]) < 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+
+			offset = Math.min(offset, maxOffset);
+
+			int previousLastOffset = lastOffset;
+			lastOffset = hint - offset;
+			offset = hint - previousLastOffset;
+		}else {
+			int maxOffset = length - hint;
+
+			while (offset < maxOffset && item.compareTo(a[base + hint + offset]) >= 0) {
+				lastOffset = offset;
+				offset = (offset << 1) + 1;
+
+				if (offset <= 0) {
+					offset = maxOffset;
+				}
+			}
+
+			offset = Math.min(offset, maxOffset);
+
+			lastOffset += hint;
+			offset += hint;
+		}
+
+		// a[base+lastOffset] <= item < a[base+offset], so the binary search is between them
+		lastOffset++;
+
+		while (lastOffset < offset) {
+			int mid = lastOffset + ((offset - lastOffset) >>> 1);
+
+			if (item.compareTo(a[base + mid]) < 0) {
+				offset = mid;
+			}else {
+				lastOffset = mid + 1;
+			}
+		}
+
+		return offset;
+	}
+
+	/**
+	 * Merges two adjacent runs, where the first one is not longer than the second one, from left to right, copying the
+	 * first one to the auxiliary array. The first item of the second run goes first and the last item of the first run
+	 * goes last, as mergeAt() skipped the items already in place
+	 */
+	private void mergeLow(T[] arr, int base1, int length1, int base2, int length2) {
+		System.arraycopy(arr, base1, elements, 0, length1);
+
+		int cursor1 = 0;
+		int cursor2 = base2;
+		int dest = base1;
+
+		arr[dest++] = arr[cursor2++];
+
+		if (--length2 == 0) {
+			System.arraycopy(elements, cursor1, arr, dest, length1);
+
+			return;
+		}
+
+		if (length1 == 1) {
+			System.arraycopy(arr, cursor2, arr, dest, length2);
+			arr[dest + length2] = elements[cursor1];
+
+			return;
+		}
+
+		int minGallop = this.minGallop;
+
+		outer:
+		while (true) {
+			// number of times in a row that each run won
+			int count1 = 0;
+			int count2 = 0;
+
+			// one item at a time, until a run starts winning consistently
+			do {
+				if (arr[cursor2].compareTo(elements[cursor1]) < 0) {
+					arr[dest++] = arr[cursor2++];
+					count2++;
+					count1 = 0;
+
+					if (--length2 == 0) {
+						break outer;
+					}
+				}else {
+					arr[dest++] = elements[cursor1++];
+					count1++;
+					count2 = 0;
+
+					if (--length1 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < minGallop);
+
+			// galloping, until it stops paying off
+			do {
+				count1 = gallopRight(arr[cursor2], elements, cursor1, length1, 0);
+
+				if (count1 != 0) {
+					System.arraycopy(elements, cursor1, arr, dest, count1);
+
+					dest += count1;
+					cursor1 += count1;
+					length1 -= count1;
+
+					if (length1 <= 1) {
+						break outer;
+					}
+				}
+
+				arr[dest++] = arr[cursor2++];
+
+				if (--length2 == 0) {
+					break outer;
+				}
+
+				count2 = gallopLeft(elements[cursor1], arr, cursor2, length2, 0);
+
+				if (count2 != 0) {
+					System.arraycopy(arr, cursor2, arr, dest, count2);
+
+					dest += count2;
+					cursor2 += count2;
+					length2 -= count2;
+
+					if (length2 == 0) {
+						break outer;
+					}
+				}
+
+				arr[dest++] = elements[cursor1++];
+
+				if (--length1 == 1) {
+					break outer;
+				}
+
+				minGallop--;
+			} while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+
+			// penalize leaving the galloping mode
+			minGallop = Math.max(minGallop, 0) + 2;
+		}
+
+		this.minGallop = Math.max(minGallop, 1);
+
+		if (length1 == 1) {
+			System.arraycopy(arr, cursor2, arr, dest, length2);
+			arr[dest + length2] = elements[cursor1];
+		}else if (length1 == 0) {
+			throw new IllegalArgumentException("Comparison method violates its general contract");
+		}else {
+			System.arraycopy(elements, cursor1, arr, dest, length1);
+		}
+	}
+
+	/**
+	 * Merges two adjacent runs, where the first one is longer than the second one, from right to left, copying the
+	 * second one to the auxiliary array. The last item of the first run goes last and the first item of the second run
+	 * goes first, as mergeAt() skipped the items already in place
+	 */
+	private void mergeHigh(T[] arr, int base1, int length1, int base2, int length2) {
+		System.arraycopy(arr, base2, elements, 0, length2);
+
+		int cursor1 = base1 + length1 - 1;
+		int cursor2 = length2 - 1;
+		int dest = base2 + length2 - 1;
+
+		arr[dest--] = arr[cursor1--];
+
+		if (--length1 == 0) {
+			System.arraycopy(elements, 0, arr, dest - (length2 - 1), length2);
+
+			return;
+		}
+
+		if (length2 == 1) {
+			dest -= length1;
+			cursor1 -= length1;
+
+			System.arraycopy(arr, cursor1 + 1, arr, dest + 1, length1);
+			arr[dest] = elements[cursor2];
+
+			return;
+		}
+
+		int minGallop = this.minGallop;
+
+		outer:
+		while (true) {
+			// number of times in a row that each run won
+			int count1 = 0;
+			int count2 = 0;
+
+			// one item at a time, until a run starts winning consistently
+			do {
+				if (elements[cursor2].compareTo(arr[cursor1]) < 0) {
+					arr[dest--] = arr[cursor1--];
+					count1++;
+					count2 = 0;
+
+					if (--length1 == 0) {
+						break outer;
+					}
+				}else {
+					arr[dest--] = elements[cursor2--];
+					count2++;
+					count1 = 0;
+
+					if (--length2 == 1) {
+						break outer;
+					}
+				}
+			} while ((count1 | count2) < minGallop);
+
+			// galloping, until it stops paying off
+			do {
+				count1 = length1 - gallopRight(elements[cursor2], arr, base1, length1, length1 - 1);
+
+				if (count1 != 0) {
+					dest -= count1;
+					cursor1 -= count1;
+					length1 -= count1;
+
+					System.arraycopy(arr, cursor1 + 1, arr, dest + 1, count1);
+
+					if (length1 == 0) {
+						break outer;
+					}
+				}
+
+				arr[dest--] = elements[cursor2--];
+
+				if (--length2 == 1) {
+					break outer;
+				}
+
+				count2 = length2 - gallopLeft(arr[cursor1], elements, 0, length2, length2 - 1);
+
+				if (count2 != 0) {
+					dest -= count2;
+					cursor2 -= count2;
+					length2 -= count2;
+
+					System.arraycopy(elements, cursor2 + 1, arr, dest + 1, count2);
+
+					if (length2 <= 1) {
+						break outer;
+					}
+				}
+
+				arr[dest--] = arr[cursor1--];
+
+				if (--length1 == 0) {
+					break outer;
+				}
+
+				minGallop--;
+			} while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+
+			// penalize leaving the galloping mode
+			minGallop = Math.max(minGallop, 0) + 2;
+		}
+
+		this.minGallop = Math.max(minGallop, 1);
+
+		if (length2 == 1) {
+			dest -= length1;
+			cursor1 -= length1;
+
+			System.arraycopy(arr, cursor1 + 1, arr, dest + 1, length1);
+			arr[dest] = elements[cursor2];
+		}else if (length2 == 0) {
+			throw new IllegalArgumentException("Comparison method violates its general contract");
+		}else {
+			System.arraycopy(elements, 0, arr, dest - (length2 - 1), length2);
+		}
+	}
+
 	/**
 	 * An in-place merge which puts the result of merging the sub-arrays arr[lo..mid] with
 	 * arr[mid+1..hi] into a single ordered array, leaving the result in arr[lo..hi].
@@ -162,5 +756,15 @@ public class MergeSort<T extends Comparable<T>> implements Sort<T> {
 		mergeSort.sort(arr);
 		
 		System.out.println("Sorted:   " + Arrays.toString(arr));
+
+		Integer[] numbers = new Integer[1 << 16];
+		for (int i = 0; i < numbers.length; i++) {
+			// two descending runs
+			numbers[i] = i < numbers.length / 2 ? numbers.length / 2 - i : numbers.length - i;
+		}
+
+		new MergeSort<Integer>(Type.NATURAL).sort(numbers);
+
+		System.out.println("Sorted (NATURAL, two descending runs): " + numbers[0] + ", " + numbers[1] + ", ..., " + numbers[numbers.length - 1]);
 	}
 }
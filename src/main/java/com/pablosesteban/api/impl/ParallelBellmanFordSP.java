@@ -0,0 +1,360 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.DirectedWeightedGraph;
+import com.pablosesteban.adt.impl.Edge;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.api.WeightedDigraphShortestPaths;
+
+/**
+ * A parallel Shortest Paths implementation based on the Bellman-Ford's algorithm, for any edge-weighted digraph with
+ * NO NEGATIVE CYCLES reachable from the source, or finding a negative cycle reachable from it.
+ * It works in passes, as the general algorithm, but it is work-efficient: instead of relaxing all the E edges in each
+ * pass, only the edges leaving the vertices whose distance decreased in the previous pass (the frontier) are relaxed,
+ * as the rest cannot lower any distance, as the queue based implementation does. Each pass is split in chunks of
+ * frontier vertices whose edges are relaxed in parallel on a ForkJoinPool.
+ * Each relaxation is an atomic min-update on a vertex-indexed AtomicLongArray of distances, holding each double as a
+ * long whose order is the order of the doubles (negative ones included), so a CAS only succeeds when it makes the
+ * distance lower. The successful updates of each task are kept in its own buffers and, once the pass is over, the update
+ * which left the final distance of each vertex (there is exactly one, as no two updates leave the same distance) writes
+ * its edgeTo[] and edgeWeightTo[] entries and puts it on the next frontier, so the frontier has no duplicates and the
+ * SPT is consistent with the distances, without locks.
+ * If there is a negative cycle reachable from the source, the frontier never empties, but sooner or later the edgeTo[]
+ * array contains a cycle, which must be a negative one. It is checked (walking up the parent links from each vertex to
+ * the root of its tree) whenever V vertices have been relaxed since the last check, so checking takes linear time,
+ * amortized over the relaxations, and the algorithm stops as soon as a cycle is found, instead of running V passes.
+ * The implementation uses extra space proportional to V and, in the worst case, the same work as the sequential
+ * algorithm, i.e. proportional to E * V, split in passes run in parallel.
+ */
+public class ParallelBellmanFordSP implements WeightedDigraphShortestPaths {
+	// frontier vertices relaxed by each task
+	private static final int GRAIN = 256;
+
+	private final WeightedGraph dwg;
+	private final ForkJoinPool pool;
+
+	private double[] weightTo;
+	private int[] edgeTo;
+	private double[] edgeWeightTo;
+	private Iterable<Edge> negativeCycle;
+	private int passes;
+
+	// the ordered keys of the tentative distances while computing the SPT
+	private AtomicLongArray tentativeWeightTo;
+
+	// successful updates of each task: target vertex, vertex relaxed, edge weight and the new distance
+	private int[][] targets;
+	private int[][] parents;
+	private double[][] edgeWeights;
+	private double[][] newWeights;
+	private int[] numberOfUpdates;
+
+	/**
+	 * Computes the SPT using the common ForkJoinPool
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 */
+	public ParallelBellmanFordSP(WeightedGraph dwg, int source) {
+		this(dwg, source, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Computes the SPT, stopping if a negative cycle reachable from source is found
+	 *
+	 * @param dwg a weighted digraph
+	 * @param source a vertex to compute the SPT
+	 * @param pool the pool to run each pass
+	 */
+	public ParallelBellmanFordSP(WeightedGraph dwg, int source, ForkJoinPool pool) {
+		if (source < 0 || source >= dwg.size()) {
+			throw new IllegalArgumentException("Vertex " + source + " is not between 0 and " + (dwg.size() - 1));
+		}
+
+		this.dwg = dwg;
+		this.pool = pool;
+
+		int numberOfVertices = dwg.size();
+		int numberOfChunks = (numberOfVertices + GRAIN - 1) / GRAIN;
+
+		tentativeWeightTo = new AtomicLongArray(numberOfVertices);
+		edgeTo = new int[numberOfVertices];
+		edgeWeightTo = new double[numberOfVertices];
+		targets = new int[numberOfChunks][];
+		parents = new int[numberOfChunks][];
+		edgeWeights = new double[numberOfChunks][];
+		newWeights = new double[numberOfChunks][];
+		numberOfUpdates = new int[numberOfChunks];
+
+		long infinity = toKey(Double.POSITIVE_INFINITY);
+		for (int v = 0; v < numberOfVertices; v++) {
+			tentativeWeightTo.set(v, infinity);
+			edgeTo[v] = -1;
+		}
+
+		tentativeWeightTo.set(source, toKey(0.0));
+
+		bellmanFord(source);
+
+		weightTo = new double[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			weightTo[v] = toWeight(tentativeWeightTo.get(v));
+		}
+
+		// the buffers are only needed while computing the SPT
+		tentativeWeightTo = null;
+		targets = null;
+		parents = null;
+		edgeWeights = null;
+		newWeights = null;
+		numberOfUpdates = null;
+	}
+
+	@Override
+	public double weightTo(int v) {
+		validateNoNegativeCycle();
+
+		return weightTo[v];
+	}
+
+	@Override
+	public boolean hasPathTo(int v) {
+		validateNoNegativeCycle();
+
+		return weightTo[v] != Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public Iterable<Edge> pathTo(int v) {
+		if (!hasPathTo(v)) {
+			return null;
+		}
+
+		Stack<Edge> path = new LinkedStack<>();
+
+		for (int w = v; edgeTo[w] != -1; w = edgeTo[w]) {
+			path.push(new Edge(edgeTo[w], w, edgeWeightTo[w]));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Checks if there is a negative cycle reachable from source, in which case there are no shortest paths
+	 *
+	 * @return true if, and only if, a negative cycle was found
+	 */
+	public boolean hasNegativeCycle() {
+		return negativeCycle != null;
+	}
+
+	/**
+	 * Gets a negative cycle reachable from source
+	 *
+	 * @return the edges of the cycle, null if none
+	 */
+	public Iterable<Edge> negativeCycle() {
+		return negativeCycle;
+	}
+
+	/**
+	 * Gets the number of passes run until no distance decreased or a negative cycle was found
+	 *
+	 * @return the number of passes
+	 */
+	public int getPasses() {
+		return passes;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\npasses: " + passes + ",\nweightTo: " + Arrays.toString(weightTo) + ",\nedgeTo: " + Arrays.toString(edgeTo) + ",\nnegativeCycle: " + negativeCycle + "\n}";
+	}
+
+	private void bellmanFord(int source) {
+		int[] frontier = {source};
+		int frontierSize = 1;
+		long relaxedSinceCheck = 0;
+
+		while (frontierSize > 0) {
+			frontierSize = relax(frontier, frontierSize);
+			passes++;
+
+			int[] next = new int[frontierSize];
+			int i = 0;
+			for (int chunk = 0; i < frontierSize; chunk++) {
+				if (numberOfUpdates[chunk] > 0) {
+					System.arraycopy(targets[chunk], 0, next, i, numberOfUpdates[chunk]);
+
+					i += numberOfUpdates[chunk];
+				}
+			}
+			frontier = next;
+
+			relaxedSinceCheck += frontierSize;
+			if (relaxedSinceCheck >= dwg.size()) {
+				relaxedSinceCheck = 0;
+
+				negativeCycle = BellmanFordQueueSP.findCycle(edgeTo, edgeWeightTo);
+				if (negativeCycle != null) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Relaxes the edges of the frontier vertices in parallel and then writes the edgeTo[] and edgeWeightTo[] entries of
+	 * the vertices whose distance decreased, keeping them at the beginning of the buffers of each task
+	 *
+	 * @return the number of vertices whose distance decreased
+	 */
+	private int relax(final int[] frontier, final int frontierSize) {
+		final int numberOfChunks = (frontierSize + GRAIN - 1) / GRAIN;
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(frontierSize, (chunk + 1) * GRAIN);
+
+				numberOfUpdates[chunk] = 0;
+
+				for (int j = chunk * GRAIN; j < end; j++) {
+					int v = frontier[j];
+					double weight = toWeight(tentativeWeightTo.get(v));
+
+					for (int i = 0; i < dwg.degree(v); i++) {
+						int w = dwg.getAdjacentVertex(v, i);
+						double edgeWeight = dwg.getIncidentWeight(v, i);
+						double newWeight = weight + edgeWeight;
+
+						if (updateMin(w, newWeight)) {
+							addUpdate(chunk, w, v, edgeWeight, newWeight);
+						}
+					}
+				}
+			}
+		});
+
+		// the last update of each vertex is the one which left its distance, as each update lowered it
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int last = 0;
+
+				for (int i = 0; i < numberOfUpdates[chunk]; i++) {
+					int w = targets[chunk][i];
+
+					if (toKey(newWeights[chunk][i]) == tentativeWeightTo.get(w)) {
+						edgeTo[w] = parents[chunk][i];
+						edgeWeightTo[w] = edgeWeights[chunk][i];
+
+						targets[chunk][last++] = w;
+					}
+				}
+
+				numberOfUpdates[chunk] = last;
+			}
+		});
+
+		int updated = 0;
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			updated += numberOfUpdates[chunk];
+		}
+
+		return updated;
+	}
+
+	/**
+	 * Lowers the distance to w to newWeight if it is lower than the current one, retrying if another thread changes it
+	 * in the meantime
+	 *
+	 * @return true if, and only if, this call lowered the distance
+	 */
+	private boolean updateMin(int w, double newWeight) {
+		long newKey = toKey(newWeight);
+
+		while (true) {
+			long current = tentativeWeightTo.get(w);
+
+			if (newKey >= current) {
+				return false;
+			}
+
+			if (tentativeWeightTo.compareAndSet(w, current, newKey)) {
+				return true;
+			}
+		}
+	}
+
+	private void addUpdate(int chunk, int w, int v, double edgeWeight, double newWeight) {
+		int size = numberOfUpdates[chunk];
+
+		if (targets[chunk] == null) {
+			targets[chunk] = new int[GRAIN];
+			parents[chunk] = new int[GRAIN];
+			edgeWeights[chunk] = new double[GRAIN];
+			newWeights[chunk] = new double[GRAIN];
+		}else if (size == targets[chunk].length) {
+			targets[chunk] = Arrays.copyOf(targets[chunk], size * 2);
+			parents[chunk] = Arrays.copyOf(parents[chunk], size * 2);
+			edgeWeights[chunk] = Arrays.copyOf(edgeWeights[chunk], size * 2);
+			newWeights[chunk] = Arrays.copyOf(newWeights[chunk], size * 2);
+		}
+
+		targets[chunk][size] = w;
+		parents[chunk][size] = v;
+		edgeWeights[chunk][size] = edgeWeight;
+		newWeights[chunk][size] = newWeight;
+
+		numberOfUpdates[chunk] = size + 1;
+	}
+
+	private void validateNoNegativeCycle() {
+		if (hasNegativeCycle()) {
+			throw new UnsupportedOperationException("There is a negative cycle reachable from source: " + negativeCycle);
+		}
+	}
+
+	/**
+	 * Turns a double into a long with the same order: the bits of a negative double are flipped but the sign bit, as they
+	 * grow with its magnitude (-0.0 is taken as 0.0, as they are equal as doubles)
+	 */
+	private static long toKey(double weight) {
+		long bits = Double.doubleToLongBits(weight + 0.0);
+
+		return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+	}
+
+	private static double toWeight(long key) {
+		return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+	}
+
+	public static void main(String[] args) throws IOException {
+		DirectedWeightedGraph dwgNegativeEdges = new DirectedWeightedGraph("weighted_digraph_tiny_negative_edges.txt");
+
+		ParallelBellmanFordSP pbf = new ParallelBellmanFordSP(dwgNegativeEdges, 0);
+		System.out.println(pbf);
+
+		System.out.println("pathTo 5: " + pbf.pathTo(5));
+		System.out.println("pathTo 6: " + pbf.pathTo(6));
+
+		DirectedWeightedGraph dwgNegativeCycle = new DirectedWeightedGraph("weighted_digraph_tiny_negative_cycle.txt");
+
+		ParallelBellmanFordSP pbf2 = new ParallelBellmanFordSP(dwgNegativeCycle, 0);
+		System.out.println(pbf2);
+
+		System.out.println("hasNegativeCycle: " + pbf2.hasNegativeCycle());
+		System.out.println("negativeCycle: " + pbf2.negativeCycle());
+	}
+}
@@ -0,0 +1,448 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.Stack;
+import com.pablosesteban.adt.impl.LinkedStack;
+import com.pablosesteban.adt.impl.UndirectedGraph;
+import com.pablosesteban.api.GraphSearch;
+
+/**
+ * A parallel implementation of Breadth First Search (BFS) which finds, as the
+ * sequential one, all the vertices connected to a source vertex giving from each
+ * one the shortest path to source, plus the distance (number of edges) of that path.
+ * It is a level-synchronous BFS: the vertices at distance d from the source (the
+ * frontier) are expanded all at once, in parallel on a ForkJoinPool, to find the
+ * vertices at distance d+1, which become the next frontier, so a level is only
+ * started when the previous one is completed.
+ * It maintains a bitmap of atomic words (one bit per vertex) to mark the vertices
+ * connected to the source, so that, when several threads find the same vertex, a
+ * compare-and-set on its bit decides which of them visits it (and writes its
+ * edgeTo[] and distanceTo[] entries).
+ * Each level is expanded in one of two directions (direction-optimizing BFS):<br>
+ * <ul>
+ * <li>TOP DOWN: each frontier vertex checks its adjacent vertices, visiting the
+ * unmarked ones. It is the classic approach and the best while the frontier is
+ * small.</li>
+ * <li>BOTTOM UP: each unmarked vertex checks the vertices that point to it, and
+ * it is visited as soon as one of them is on the frontier, without checking the
+ * rest. When the frontier is large most edges lead to already marked vertices, and
+ * going bottom up skips most of them.</li>
+ * </ul>
+ * It switches from top down to bottom up when the number of edges to check from the
+ * frontier is greater than the number of edges from the unmarked vertices divided by
+ * ALPHA, and back to top down when the frontier gets smaller than the number of
+ * vertices divided by BETA.
+ * Going bottom up needs the vertices pointing to each vertex: for undirected graphs
+ * they are its adjacent vertices, so the graph itself is given, while for digraphs
+ * its reverse must be given. Without it, every level is expanded top down.
+ * The paths found are shortest paths, as in the sequential BFS, but when a vertex
+ * can be reached from several vertices of the frontier, which of them is its
+ * parent is not specified.
+ */
+public class ParallelBreadthFirstSearch implements GraphSearch {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    // number of frontier vertices (top down) or vertices (bottom up, a multiple of
+    // 64 so each task owns whole bitmap words) processed sequentially by each task
+    private static final int TOP_DOWN_GRAIN = 1024;
+    private static final int BOTTOM_UP_GRAIN = 64 * 64;
+
+    private AtomicLongArray marked;
+    private int[] edgeTo;
+    private int[] distanceTo;
+    private int source;
+    private int count;
+
+    /**
+     * Computes the shortest paths from source vertex to each vertex connected
+     * to it in the graph using the common ForkJoinPool.
+     *
+     * @param g a graph
+     * @param reverse the graph giving the vertices pointing to each vertex: g for
+     * undirected graphs, its reverse for digraphs or null to always go top down
+     * @param source a vertex in the graph to search paths
+     */
+    public ParallelBreadthFirstSearch(Graph g, Graph reverse, int source) {
+        this(g, reverse, source, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the shortest paths from source vertex to each vertex connected
+     * to it in the graph.
+     *
+     * @param g a graph
+     * @param reverse the graph giving the vertices pointing to each vertex: g for
+     * undirected graphs, its reverse for digraphs or null to always go top down
+     * @param source a vertex in the graph to search paths
+     * @param pool the pool to expand the levels
+     */
+    public ParallelBreadthFirstSearch(Graph g, Graph reverse, int source, ForkJoinPool pool) {
+        marked = new AtomicLongArray((g.size() + 63) >>> 6);
+        edgeTo = new int[g.size()];
+        distanceTo = new int[g.size()];
+        this.source = source;
+
+        Arrays.fill(distanceTo, -1);
+
+        bfs(g, reverse, pool);
+    }
+
+    @Override
+    public boolean isConnected(int v) {
+        return isMarked(marked, v);
+    }
+
+    @Override
+    public Iterable<Integer> pathTo(int v) {
+        if (!isConnected(v)) {
+            return null;
+        }
+
+        Stack<Integer> path = new LinkedStack<>();
+
+        for(int w = v; w != source; w = edgeTo[w]) {
+            path.push(w);
+        }
+        path.push(source);
+
+        return path;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of edges of the shortest path from source vertex to v
+     * vertex, i.e. the level of the search in which v was visited
+     *
+     * @param v a vertex in the graph
+     * @return the distance from source to v vertex, -1 if not connected
+     */
+    public int distanceTo(int v) {
+        return distanceTo[v];
+    }
+
+    private void bfs(Graph g, Graph reverse, ForkJoinPool pool) {
+        int numberOfVertices = g.size();
+
+        long unexploredEdges = 0;
+        for (int v = 0; v < numberOfVertices; v++) {
+            unexploredEdges += g.degree(v);
+        }
+
+        tryMark(marked, source);
+        distanceTo[source] = 0;
+        count = 1;
+
+        int[] frontier = {source};
+        long[] frontierBitmap = null;
+        int frontierSize = 1;
+        long frontierEdges = g.degree(source);
+        unexploredEdges -= frontierEdges;
+
+        boolean bottomUp = false;
+        for (int level = 0; frontierSize > 0; level++) {
+            if (!bottomUp && reverse != null && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+                frontierBitmap = toBitmap(frontier, frontierSize, numberOfVertices);
+            }else if (bottomUp && frontierSize < numberOfVertices / BETA) {
+                bottomUp = false;
+                frontier = toVertices(frontierBitmap, frontierSize);
+            }
+
+            if (bottomUp) {
+                long[] nextBitmap = new long[frontierBitmap.length];
+
+                BottomUpStep step = new BottomUpStep(g, reverse, frontierBitmap, nextBitmap, level + 1,
+                        (numberOfVertices + BOTTOM_UP_GRAIN - 1) / BOTTOM_UP_GRAIN);
+                pool.invoke(step);
+
+                frontierBitmap = nextBitmap;
+                frontierSize = (int) sum(step.visited);
+                frontierEdges = sum(step.edges);
+            }else {
+                TopDownStep step = new TopDownStep(g, frontier, frontierSize, level + 1,
+                        (frontierSize + TOP_DOWN_GRAIN - 1) / TOP_DOWN_GRAIN);
+                pool.invoke(step);
+
+                frontier = ChunksAction.concat(step.visited);
+                frontierSize = frontier.length;
+                frontierEdges = sum(step.edges);
+            }
+
+            unexploredEdges -= frontierEdges;
+            count += frontierSize;
+        }
+    }
+
+    /**
+     * Expands a level top down: each task checks the adjacent vertices of a chunk
+     * of the frontier and collects the vertices it visits in its own array slot, so
+     * tasks do not share any buffer.
+     */
+    private class TopDownStep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph g;
+        private final int[] frontier;
+        private final int frontierSize;
+        private final int distance;
+        private final int[][] visited;
+        private final long[] edges;
+        private final int lo;
+        private final int hi;
+
+        TopDownStep(Graph g, int[] frontier, int frontierSize, int distance, int numberOfChunks) {
+            this(g, frontier, frontierSize, distance, new int[numberOfChunks][], new long[numberOfChunks], 0, numberOfChunks);
+        }
+
+        private TopDownStep(Graph g, int[] frontier, int frontierSize, int distance, int[][] visited, long[] edges, int lo, int hi) {
+            this.g = g;
+            this.frontier = frontier;
+            this.frontierSize = frontierSize;
+            this.distance = distance;
+            this.visited = visited;
+            this.edges = edges;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(new TopDownStep(g, frontier, frontierSize, distance, visited, edges, lo, mid),
+                        new TopDownStep(g, frontier, frontierSize, distance, visited, edges, mid, hi));
+
+                return;
+            }
+
+            int[] chunk = new int[16];
+            int size = 0;
+            long chunkEdges = 0;
+
+            int end = Math.min((lo + 1) * TOP_DOWN_GRAIN, frontierSize);
+            for (int j = lo * TOP_DOWN_GRAIN; j < end; j++) {
+                int v = frontier[j];
+
+                for (int i = 0; i < g.degree(v); i++) {
+                    int w = g.getAdjacentVertex(v, i);
+
+                    if (!isMarked(marked, w) && tryMark(marked, w)) {
+                        edgeTo[w] = v;
+                        distanceTo[w] = distance;
+
+                        if (size == chunk.length) {
+                            chunk = Arrays.copyOf(chunk, size * 2);
+                        }
+                        chunk[size++] = w;
+
+                        chunkEdges += g.degree(w);
+                    }
+                }
+            }
+
+            visited[lo] = Arrays.copyOf(chunk, size);
+            edges[lo] = chunkEdges;
+        }
+    }
+
+    /**
+     * Expands a level bottom up: each task checks a range of vertices, owning the
+     * bitmap words of that range, so the next frontier bitmap is written without
+     * synchronization.
+     */
+    private class BottomUpStep extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph g;
+        private final Graph reverse;
+        private final long[] frontier;
+        private final long[] next;
+        private final int distance;
+        private final long[] visited;
+        private final long[] edges;
+        private final int lo;
+        private final int hi;
+
+        BottomUpStep(Graph g, Graph reverse, long[] frontier, long[] next, int distance, int numberOfChunks) {
+            this(g, reverse, frontier, next, distance, new long[numberOfChunks], new long[numberOfChunks], 0, numberOfChunks);
+        }
+
+        private BottomUpStep(Graph g, Graph reverse, long[] frontier, long[] next, int distance, long[] visited, long[] edges, int lo, int hi) {
+            this.g = g;
+            this.reverse = reverse;
+            this.frontier = frontier;
+            this.next = next;
+            this.distance = distance;
+            this.visited = visited;
+            this.edges = edges;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+
+                invokeAll(new BottomUpStep(g, reverse, frontier, next, distance, visited, edges, lo, mid),
+                        new BottomUpStep(g, reverse, frontier, next, distance, visited, edges, mid, hi));
+
+                return;
+            }
+
+            long chunkVisited = 0;
+            long chunkEdges = 0;
+
+            int end = Math.min((lo + 1) * BOTTOM_UP_GRAIN, g.size());
+            for (int v = lo * BOTTOM_UP_GRAIN; v < end; v++) {
+                if (isMarked(marked, v)) {
+                    continue;
+                }
+
+                for (int i = 0; i < reverse.degree(v); i++) {
+                    int u = reverse.getAdjacentVertex(v, i);
+
+                    if ((frontier[u >>> 6] & (1L << u)) != 0) {
+                        tryMark(marked, v);
+                        next[v >>> 6] |= 1L << v;
+
+                        edgeTo[v] = u;
+                        distanceTo[v] = distance;
+
+                        chunkVisited++;
+                        chunkEdges += g.degree(v);
+
+                        break;
+                    }
+                }
+            }
+
+            visited[lo] = chunkVisited;
+            edges[lo] = chunkEdges;
+        }
+    }
+
+    private static boolean isMarked(AtomicLongArray bitmap, int v) {
+        return (bitmap.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    // true if, and only if, this call marked the vertex
+    private static boolean tryMark(AtomicLongArray bitmap, int v) {
+        int word = v >>> 6;
+        long bit = 1L << v;
+
+        while (true) {
+            long current = bitmap.get(word);
+
+            if ((current & bit) != 0) {
+                return false;
+            }
+
+            if (bitmap.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private static long[] toBitmap(int[] vertices, int size, int numberOfVertices) {
+        long[] bitmap = new long[(numberOfVertices + 63) >>> 6];
+
+        for (int i = 0; i < size; i++) {
+            bitmap[vertices[i] >>> 6] |= 1L << vertices[i];
+        }
+
+        return bitmap;
+    }
+
+    private static int[] toVertices(long[] bitmap, int size) {
+        int[] vertices = new int[size];
+        int i = 0;
+
+        for (int word = 0; word < bitmap.length; word++) {
+            long bits = bitmap[word];
+
+            while (bits != 0) {
+                vertices[i++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+
+                bits &= bits - 1;
+            }
+        }
+
+        return vertices;
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+
+        for (long value : values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(getClass().getSimpleName());
+        sb.append(" {");
+        sb.append("\nsource: ");
+        sb.append(source);
+        sb.append(",\nmarked: ");
+        sb.append(marked);
+        sb.append(",\nedgeTo: ");
+        sb.append(Arrays.toString(edgeTo));
+        sb.append(",\ndistanceTo: ");
+        sb.append(Arrays.toString(distanceTo));
+        sb.append("\n}");
+
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        Graph g = new UndirectedGraph(13);
+
+        g.addEdge(0, 5);
+        g.addEdge(4, 3);
+        g.addEdge(0, 1);
+        g.addEdge(9, 12);
+        g.addEdge(6, 4);
+        g.addEdge(5, 4);
+        g.addEdge(0, 2);
+        g.addEdge(11, 12);
+        g.addEdge(9, 10);
+        g.addEdge(0, 6);
+        g.addEdge(7, 8);
+        g.addEdge(9, 11);
+        g.addEdge(5, 3);
+
+        System.out.println(g);
+
+        ParallelBreadthFirstSearch pbfs = new ParallelBreadthFirstSearch(g, g, 5);
+        System.out.println(pbfs);
+
+        System.out.println("Number of connected vertices: " + pbfs.getCount());
+
+        System.out.println("hasPathTo 2: " + pbfs.isConnected(2));
+        System.out.println("pathTo 2: " + pbfs.pathTo(2));
+        System.out.println("distanceTo 2: " + pbfs.distanceTo(2));
+
+        System.out.println("hasPathTo 9: " + pbfs.isConnected(9));
+        System.out.println("pathTo 9: " + pbfs.pathTo(9));
+        System.out.println("distanceTo 9: " + pbfs.distanceTo(9));
+    }
+}
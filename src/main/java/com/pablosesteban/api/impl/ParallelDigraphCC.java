@@ -0,0 +1,720 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.impl.DirectedGraph;
+import com.pablosesteban.api.GraphConnectedComponents;
+
+/**
+ * A parallel strongly connected components implementation based on the Forward-Backward (FW-BW) algorithm with
+ * trimming, run on a ForkJoinPool.
+ * Given a pivot vertex, the vertices reachable from it (its forward set) and the vertices reaching it (its backward
+ * set, found on the reverse digraph) intersect in its strongly connected component, and every other component lies
+ * entirely in one of the three remaining parts: forward set only, backward set only or neither. So the digraph is split
+ * into independent subproblems, each of them solved by a fork-join task which takes a pivot, finds its component and
+ * forks a task for each of the three parts.
+ * Each subproblem is a color, and each vertex keeps the color of the subproblem it belongs to in an AtomicIntegerArray:
+ * <li>TRIMMING: a vertex without edges from (or to) vertices of its subproblem is a component on its own, as it is in no
+ * cycle. Trimming is repeated over the subproblem while it removes a significant part of it, which takes the chains and
+ * trees hanging from the cycles, the bulk of the components in many digraphs, without searches.</li>
+ * <li>FORWARD-BACKWARD: the forward search moves the vertices it reaches from the color of the subproblem to a new
+ * color and the backward search, only through vertices of both colors, moves them to two other ones: the vertices in
+ * both sets (the component) and the vertices only in the backward set. A compare-and-set on the color decides which
+ * thread visits each vertex. Both searches are level-synchronous breadth first searches whose levels are expanded in
+ * parallel chunks.</li>
+ * <li>COLORING: a split that finds a small component splits off little else, so its parts go through coloring rounds
+ * instead, which find many components at once: the greatest vertex reaching each vertex is propagated forward as its
+ * label until no label changes, so every vertex labeled with itself (a root) reaches all the vertices with its label,
+ * and its component is made of those reaching it back, which a single backward search from all the roots assigns.</li>
+ * <li>TARJAN: a subproblem with few vertices is solved by a sequential Tarjan's algorithm restricted to its color,
+ * as splitting it further would cost more than it saves (the FW-BW algorithm does more work than the linear Tarjan's
+ * algorithm when most components are small).</li>
+ * As subproblems have disjoint vertices, all their tasks share the same vertex-indexed arrays.
+ * The implementation needs the reverse of the digraph and uses space proportional to the number of vertices (V),
+ * besides it, and does work proportional to V plus the number of edges (E) times the number of splits and coloring
+ * rounds each vertex goes through, which is expected to be small. Components are numbered as they are found, in no particular order.
+ */
+public class ParallelDigraphCC implements GraphConnectedComponents {
+	// vertices (or frontier vertices) handled by each task
+	private static final int GRAIN = 1024;
+	// subproblems with fewer vertices are solved by the Tarjan's algorithm
+	private static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+	// trimming goes on while a pass removes at least this fraction of the subproblem
+	private static final int TRIMMING_RATIO = 100;
+	// vertices considered as pivot in each subproblem
+	private static final int PIVOT_CANDIDATES = 32;
+	// a split whose component has less than this fraction of the subproblem moves its parts to coloring
+	private static final int SPLIT_RATIO = 100;
+	private static final int ASSIGNED = -1;
+	private static final int NONE = -2;
+
+	private final Graph dg;
+	private final Graph reverse;
+	private final ForkJoinPool pool;
+
+	private int[] connectedTo;
+	private AtomicInteger count;
+
+	private AtomicIntegerArray colors;
+	private AtomicInteger nextColor;
+	// coloring state: the greatest vertex reaching each vertex and the last round each vertex was queued in
+	private AtomicIntegerArray labels;
+	private int[] queued;
+	// Tarjan's algorithm state of the vertices of small subproblems
+	private int[] rindex;
+	private boolean[] root;
+	private int[] nextAdjacentVertex;
+
+	/**
+	 * Finds the strongly connected components of this digraph using the common ForkJoinPool, building its reverse
+	 *
+	 * @param dg a digraph
+	 */
+	public ParallelDigraphCC(Graph dg) {
+		this(dg, dg.reverse(), ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the strongly connected components of this digraph
+	 *
+	 * @param dg a digraph
+	 * @param reverse the reverse of the digraph
+	 * @param pool the pool to run the subproblems
+	 */
+	public ParallelDigraphCC(Graph dg, Graph reverse, ForkJoinPool pool) {
+		if (dg.size() != reverse.size()) {
+			throw new IllegalArgumentException("Reverse graph must have " + dg.size() + " vertices: " + reverse.size());
+		}
+
+		this.dg = dg;
+		this.reverse = reverse;
+		this.pool = pool;
+
+		int numberOfVertices = dg.size();
+
+		connectedTo = new int[numberOfVertices];
+		count = new AtomicInteger();
+		colors = new AtomicIntegerArray(numberOfVertices);
+		nextColor = new AtomicInteger(1);
+		labels = new AtomicIntegerArray(numberOfVertices);
+		queued = new int[numberOfVertices];
+		rindex = new int[numberOfVertices];
+		root = new boolean[numberOfVertices];
+		nextAdjacentVertex = new int[numberOfVertices];
+
+		int[] vertices = new int[numberOfVertices];
+		for (int v = 0; v < numberOfVertices; v++) {
+			vertices[v] = v;
+		}
+
+		if (numberOfVertices > 0) {
+			pool.invoke(new Subproblem(vertices, 0, false));
+		}
+
+		// the arrays are only needed while finding the components
+		colors = null;
+		labels = null;
+		queued = null;
+		rindex = null;
+		root = null;
+		nextAdjacentVertex = null;
+	}
+
+	@Override
+	public boolean areConnected(int v, int w) {
+		return connectedTo[v] == connectedTo[w];
+	}
+
+	@Override
+	public int getCount() {
+		return count.get();
+	}
+
+	@Override
+	public int getConnectedComponent(int v) {
+		return connectedTo[v];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {" + "\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
+	}
+
+	/**
+	 * Finds the components among the vertices of a color: after each split, the two smaller parts are forked and the
+	 * largest one is split by this task, so nested tasks at least halve their vertices and the stack stays shallow.
+	 * Once a split finds a small component, its parts are solved by coloring rounds instead
+	 */
+	private class Subproblem extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int[] vertices;
+		private int color;
+		private boolean coloring;
+
+		Subproblem(int[] vertices, int color, boolean coloring) {
+			this.vertices = vertices;
+			this.color = color;
+			this.coloring = coloring;
+		}
+
+		@Override
+		protected void compute() {
+			Subproblem[] forked = new Subproblem[0];
+
+			while (true) {
+				if (vertices.length > SEQUENTIAL_THRESHOLD) {
+					vertices = trim(vertices, color);
+				}
+
+				if (vertices.length <= SEQUENTIAL_THRESHOLD) {
+					tarjan(vertices, color);
+
+					break;
+				}
+
+				if (coloring) {
+					vertices = ParallelDigraphCC.this.color(vertices, color);
+
+					continue;
+				}
+
+				Subproblem[] parts = split();
+				Arrays.sort(parts, new Comparator<Subproblem>() {
+					@Override
+					public int compare(Subproblem p, Subproblem q) {
+						return Integer.compare(p.vertices.length, q.vertices.length);
+					}
+				});
+
+				forked = Arrays.copyOf(forked, forked.length + 2);
+				forked[forked.length - 2] = parts[0];
+				forked[forked.length - 1] = parts[1];
+
+				parts[0].fork();
+				parts[1].fork();
+
+				vertices = parts[2].vertices;
+				color = parts[2].color;
+				coloring = parts[2].coloring;
+			}
+
+			for (Subproblem subproblem : forked) {
+				subproblem.join();
+			}
+		}
+
+		/**
+		 * Finds the component of a pivot and splits the rest of the vertices in its forward set, its backward set and
+		 * the remaining ones
+		 */
+		private Subproblem[] split() {
+			int forwardColor = nextColor.getAndIncrement();
+			int backwardColor = nextColor.getAndIncrement();
+			int componentColor = nextColor.getAndIncrement();
+
+			int pivot = pivot(vertices);
+
+			colors.set(pivot, forwardColor);
+			search(dg, pivot, color, forwardColor, NONE, NONE);
+
+			colors.set(pivot, componentColor);
+			search(reverse, pivot, color, backwardColor, forwardColor, componentColor);
+
+			final int component = count.getAndIncrement();
+			final int[] componentVertices = select(vertices, componentColor);
+
+			forEachChunk((componentVertices.length + GRAIN - 1) / GRAIN, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(componentVertices.length, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						connectedTo[componentVertices[i]] = component;
+						colors.set(componentVertices[i], ASSIGNED);
+					}
+				}
+			});
+
+			// the pivot was not in a large component, so the rest of the components are likely small too
+			boolean small = componentVertices.length < vertices.length / SPLIT_RATIO;
+
+			return new Subproblem[] {
+					new Subproblem(select(vertices, forwardColor), forwardColor, small),
+					new Subproblem(select(vertices, backwardColor), backwardColor, small),
+					new Subproblem(select(vertices, color), color, small)};
+		}
+	}
+
+	/**
+	 * Takes as pivot the vertex with the most edges (in times out) among some vertices spread over the subproblem, as it
+	 * is more likely to be in a large component, while spreading them avoids always splitting off the first vertices
+	 */
+	private int pivot(int[] vertices) {
+		int pivot = vertices[0];
+		long best = -1;
+
+		int step = Math.max(1, vertices.length / PIVOT_CANDIDATES);
+		for (int i = step / 2; i < vertices.length; i += step) {
+			int v = vertices[i];
+			long edges = (long) dg.degree(v) * reverse.degree(v);
+
+			if (edges > best) {
+				pivot = v;
+				best = edges;
+			}
+		}
+
+		return pivot;
+	}
+
+	/**
+	 * Assigns a component to each vertex of the color without edges from or to vertices of the color, repeatedly, and
+	 * returns the vertices left
+	 */
+	private int[] trim(int[] vertices, final int color) {
+		while (vertices.length > SEQUENTIAL_THRESHOLD) {
+			final int[] current = vertices;
+			final int numberOfChunks = (current.length + GRAIN - 1) / GRAIN;
+			final int[] trimmed = new int[numberOfChunks];
+
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int end = Math.min(current.length, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						int v = current[i];
+
+						// a vertex trimmed by another task is in no cycle with v, so reading it either way is fine
+						if (!hasAdjacentVertex(dg, v, color) || !hasAdjacentVertex(reverse, v, color)) {
+							colors.set(v, ASSIGNED);
+
+							trimmed[chunk]++;
+						}
+					}
+				}
+			});
+
+			// each chunk numbers its trimmed vertices from its offset, so the counter is updated once per pass
+			int numberOfTrimmed = 0;
+			for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+				int trimmedInChunk = trimmed[chunk];
+
+				trimmed[chunk] = numberOfTrimmed;
+				numberOfTrimmed += trimmedInChunk;
+			}
+
+			if (numberOfTrimmed == 0) {
+				break;
+			}
+
+			final int firstComponent = count.getAndAdd(numberOfTrimmed);
+
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int component = firstComponent + trimmed[chunk];
+					int end = Math.min(current.length, (chunk + 1) * GRAIN);
+
+					for (int i = chunk * GRAIN; i < end; i++) {
+						if (colors.get(current[i]) == ASSIGNED) {
+							connectedTo[current[i]] = component++;
+						}
+					}
+				}
+			});
+
+			vertices = select(current, color);
+
+			if (numberOfTrimmed < current.length / TRIMMING_RATIO) {
+				break;
+			}
+		}
+
+		return vertices;
+	}
+
+	/**
+	 * A coloring round: labels each vertex of the color with the greatest vertex reaching it, propagating the labels
+	 * forward until no one changes, so each vertex labeled with itself is the root of a component made of the vertices
+	 * with its label reaching it, which a backward search from all the roots at once assigns. Returns the vertices left
+	 */
+	private int[] color(int[] vertices, final int color) {
+		final int[] all = vertices;
+
+		forEachChunk((all.length + GRAIN - 1) / GRAIN, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(all.length, (chunk + 1) * GRAIN);
+
+				for (int i = chunk * GRAIN; i < end; i++) {
+					labels.set(all[i], all[i]);
+				}
+			}
+		});
+
+		int[] frontier = all;
+
+		while (frontier.length > 0) {
+			final int[] current = frontier;
+			final int numberOfChunks = (current.length + GRAIN - 1) / GRAIN;
+			final int[][] raised = new int[numberOfChunks][];
+			// rounds are numbered with colors, so they are never repeated
+			final int round = nextColor.getAndIncrement();
+
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int[] next = new int[16];
+					int size = 0;
+
+					int end = Math.min(current.length, (chunk + 1) * GRAIN);
+					for (int j = chunk * GRAIN; j < end; j++) {
+						int v = current[j];
+						int label = labels.get(v);
+
+						for (int i = 0; i < dg.degree(v); i++) {
+							int w = dg.getAdjacentVertex(v, i);
+
+							// a vertex queued twice by a race is just expanded twice
+							if (colors.get(w) == color && raiseLabel(w, label) && queued[w] != round) {
+								queued[w] = round;
+
+								if (size == next.length) {
+									next = Arrays.copyOf(next, size * 2);
+								}
+								next[size++] = w;
+							}
+						}
+					}
+
+					raised[chunk] = Arrays.copyOf(next, size);
+				}
+			});
+
+			frontier = ChunksAction.concat(raised);
+		}
+
+		final int[] roots = select(all, new IntPredicate() {
+			@Override
+			public boolean test(int v) {
+				return labels.get(v) == v;
+			}
+		});
+		final int firstComponent = count.getAndAdd(roots.length);
+
+		forEachChunk((roots.length + GRAIN - 1) / GRAIN, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(roots.length, (chunk + 1) * GRAIN);
+
+				for (int i = chunk * GRAIN; i < end; i++) {
+					connectedTo[roots[i]] = firstComponent + i;
+					colors.set(roots[i], ASSIGNED);
+				}
+			}
+		});
+
+		frontier = roots;
+
+		while (frontier.length > 0) {
+			final int[] current = frontier;
+			final int numberOfChunks = (current.length + GRAIN - 1) / GRAIN;
+			final int[][] visited = new int[numberOfChunks][];
+
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int[] next = new int[16];
+					int size = 0;
+
+					int end = Math.min(current.length, (chunk + 1) * GRAIN);
+					for (int j = chunk * GRAIN; j < end; j++) {
+						int v = current[j];
+						int label = labels.get(v);
+
+						for (int i = 0; i < reverse.degree(v); i++) {
+							int w = reverse.getAdjacentVertex(v, i);
+
+							if (labels.get(w) == label && colors.compareAndSet(w, color, ASSIGNED)) {
+								connectedTo[w] = connectedTo[v];
+
+								if (size == next.length) {
+									next = Arrays.copyOf(next, size * 2);
+								}
+								next[size++] = w;
+							}
+						}
+					}
+
+					visited[chunk] = Arrays.copyOf(next, size);
+				}
+			});
+
+			frontier = ChunksAction.concat(visited);
+		}
+
+		return select(all, color);
+	}
+
+	// true if, and only if, this call raised the label of the vertex
+	private boolean raiseLabel(int w, int label) {
+		while (true) {
+			int current = labels.get(w);
+
+			if (current >= label) {
+				return false;
+			}
+
+			if (labels.compareAndSet(w, current, label)) {
+				return true;
+			}
+		}
+	}
+
+	private boolean hasAdjacentVertex(Graph g, int v, int color) {
+		for (int i = 0; i < g.degree(v); i++) {
+			int w = g.getAdjacentVertex(v, i);
+
+			if (w != v && colors.get(w) == color) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Breadth first search from the pivot, moving each vertex reached from the color from to the color to (and from the
+	 * color otherFrom to the color otherTo), expanding each level in parallel chunks
+	 */
+	private void search(final Graph g, int pivot, final int from, final int to, final int otherFrom, final int otherTo) {
+		int[] frontier = {pivot};
+
+		while (frontier.length > 0) {
+			final int[] current = frontier;
+			final int numberOfChunks = (current.length + GRAIN - 1) / GRAIN;
+			final int[][] visited = new int[numberOfChunks][];
+
+			forEachChunk(numberOfChunks, new IntConsumer() {
+				@Override
+				public void accept(int chunk) {
+					int[] next = new int[16];
+					int size = 0;
+
+					int end = Math.min(current.length, (chunk + 1) * GRAIN);
+					for (int j = chunk * GRAIN; j < end; j++) {
+						int v = current[j];
+
+						for (int i = 0; i < g.degree(v); i++) {
+							int w = g.getAdjacentVertex(v, i);
+
+							if (tryMove(w, from, to, otherFrom, otherTo)) {
+								if (size == next.length) {
+									next = Arrays.copyOf(next, size * 2);
+								}
+								next[size++] = w;
+							}
+						}
+					}
+
+					visited[chunk] = Arrays.copyOf(next, size);
+				}
+			});
+
+			frontier = ChunksAction.concat(visited);
+		}
+	}
+
+	// true if, and only if, this call moved the vertex to its new color
+	private boolean tryMove(int w, int from, int to, int otherFrom, int otherTo) {
+		while (true) {
+			int current = colors.get(w);
+			int next;
+
+			if (current == from) {
+				next = to;
+			}else if (current == otherFrom) {
+				next = otherTo;
+			}else {
+				return false;
+			}
+
+			if (colors.compareAndSet(w, current, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Gets the vertices of this color
+	 */
+	private int[] select(int[] vertices, final int color) {
+		return select(vertices, new IntPredicate() {
+			@Override
+			public boolean test(int v) {
+				return colors.get(v) == color;
+			}
+		});
+	}
+
+	/**
+	 * Gets the vertices matching this predicate, in parallel chunks
+	 */
+	private int[] select(final int[] vertices, final IntPredicate predicate) {
+		final int numberOfChunks = (vertices.length + GRAIN - 1) / GRAIN;
+		final int[][] selected = new int[numberOfChunks][];
+
+		forEachChunk(numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(vertices.length, (chunk + 1) * GRAIN);
+				int[] chunkVertices = new int[end - chunk * GRAIN];
+				int size = 0;
+
+				for (int i = chunk * GRAIN; i < end; i++) {
+					if (predicate.test(vertices[i])) {
+						chunkVertices[size++] = vertices[i];
+					}
+				}
+
+				selected[chunk] = Arrays.copyOf(chunkVertices, size);
+			}
+		});
+
+		return ChunksAction.concat(selected);
+	}
+
+	/**
+	 * The Tarjan's algorithm, in Pearce's variant, over the vertices of this color: as the vertices of a completed
+	 * component are assigned and left out of the search, every vertex of the color already visited is on the stack
+	 */
+	private void tarjan(int[] vertices, int color) {
+		int[] dfsStack = new int[vertices.length];
+		int[] componentStack = new int[vertices.length];
+		int componentTop = 0;
+		int index = 1;
+
+		for (int source : vertices) {
+			if (colors.get(source) != color || rindex[source] != 0) {
+				continue;
+			}
+
+			int top = 0;
+
+			rindex[source] = index++;
+			root[source] = true;
+			dfsStack[top++] = source;
+
+			while (top > 0) {
+				int v = dfsStack[top - 1];
+
+				if (nextAdjacentVertex[v] < dg.degree(v)) {
+					int w = dg.getAdjacentVertex(v, nextAdjacentVertex[v]);
+
+					if (colors.get(w) != color) {
+						nextAdjacentVertex[v]++;
+
+						continue;
+					}
+
+					// the edge is finished once the visit of w is done
+					if (rindex[w] == 0) {
+						rindex[w] = index++;
+						root[w] = true;
+						dfsStack[top++] = w;
+
+						continue;
+					}
+
+					finishEdge(v, w);
+					nextAdjacentVertex[v]++;
+				}else {
+					top--;
+
+					if (root[v]) {
+						int component = count.getAndIncrement();
+
+						while (componentTop > 0 && rindex[v] <= rindex[componentStack[componentTop - 1]]) {
+							int w = componentStack[--componentTop];
+
+							connectedTo[w] = component;
+							colors.set(w, ASSIGNED);
+						}
+
+						connectedTo[v] = component;
+						colors.set(v, ASSIGNED);
+					}else {
+						componentStack[componentTop++] = v;
+					}
+
+					if (top > 0) {
+						int u = dfsStack[top - 1];
+
+						finishEdge(u, v);
+						nextAdjacentVertex[u]++;
+					}
+				}
+			}
+		}
+	}
+
+	private void finishEdge(int v, int w) {
+		if (colors.get(w) != ASSIGNED && rindex[w] < rindex[v]) {
+			rindex[v] = rindex[w];
+			root[v] = false;
+		}
+	}
+
+	private void forEachChunk(int numberOfChunks, IntConsumer action) {
+		ChunksAction.forEachChunk(pool, numberOfChunks, action);
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph dg = new DirectedGraph(13);
+
+		dg.addEdge(0, 1);
+		dg.addEdge(0, 5);
+		dg.addEdge(2, 0);
+		dg.addEdge(2, 3);
+		dg.addEdge(3, 2);
+		dg.addEdge(3, 5);
+		dg.addEdge(5, 4);
+		dg.addEdge(4, 2);
+		dg.addEdge(4, 3);
+		dg.addEdge(6, 0);
+		dg.addEdge(6, 4);
+		dg.addEdge(6, 9);
+		dg.addEdge(7, 6);
+		dg.addEdge(7, 8);
+		dg.addEdge(8, 7);
+		dg.addEdge(8, 9);
+		dg.addEdge(9, 11);
+		dg.addEdge(9, 10);
+		dg.addEdge(11, 12);
+		dg.addEdge(11, 4);
+		dg.addEdge(10, 12);
+		dg.addEdge(12, 9);
+
+		System.out.println(dg);
+
+		GraphConnectedComponents pdgcc = new ParallelDigraphCC(dg);
+		System.out.println(pdgcc);
+
+		System.out.println("areConnected 9 12: " + pdgcc.areConnected(9, 12));
+		System.out.println("areConnected 6 7: " + pdgcc.areConnected(6, 7));
+		System.out.println("areConnected 0 6: " + pdgcc.areConnected(0, 6));
+	}
+}
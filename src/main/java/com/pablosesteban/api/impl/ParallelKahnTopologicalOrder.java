@@ -0,0 +1,278 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.Queue;
+import com.pablosesteban.adt.impl.DirectedGraph;
+import com.pablosesteban.adt.impl.LinkedQueue;
+import com.pablosesteban.api.DigraphTopologicalOrder;
+
+/**
+ * A parallel topological order implementation based on the Kahn's algorithm, which takes the vertices level by level
+ * instead of one at a time, run on a ForkJoinPool.
+ * The first level are the vertices of in-degree 0 and each level is made of the vertices whose in-degree gets to 0
+ * when the vertices of the previous level are removed, so the level of a vertex is the length of the longest path
+ * reaching it (its depth) and every edge goes from a level to a later one. The vertices of a level do not depend on
+ * each other, so, for scheduling, each level is a wavefront of tasks that can run at the same time once the previous
+ * levels are done.
+ * Each level is expanded in parallel chunks, whose tasks decrement the in-degrees of the adjacent vertices in a
+ * vertex-indexed AtomicIntegerArray: the task whose decrement gets an in-degree to 0 adds the vertex to the next level,
+ * so each vertex is added once, by a single task, without locks.
+ * As in the sequential algorithm, the digraph is a DAG if, and only if, all the vertices are taken.
+ * The levels are kept one after another in a single vertex-indexed int array, which is the topological order, with the
+ * offset where each level starts, so the implementation uses space proportional to the number of vertices (V) and does
+ * work proportional to V plus the number of edges (E), in a number of steps equal to the number of levels. The vertices
+ * of a level are in no particular order.
+ */
+public class ParallelKahnTopologicalOrder implements DigraphTopologicalOrder {
+	// vertices handled by each task
+	private static final int GRAIN = 1024;
+
+	private final Graph dg;
+	private final ForkJoinPool pool;
+
+	private int[] order;
+	private int[] levelOffsets;
+	private int[] levels;
+
+	/**
+	 * Finds the topological order of this digraph using the common ForkJoinPool
+	 *
+	 * @param dg a digraph
+	 */
+	public ParallelKahnTopologicalOrder(Graph dg) {
+		this(dg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the topological order of this digraph
+	 *
+	 * @param dg a digraph
+	 * @param pool the pool to expand each level
+	 */
+	public ParallelKahnTopologicalOrder(Graph dg, ForkJoinPool pool) {
+		this.dg = dg;
+		this.pool = pool;
+
+		final int numberOfVertices = dg.size();
+		final AtomicIntegerArray inDegrees = new AtomicIntegerArray(numberOfVertices);
+
+		final int numberOfChunks = (numberOfVertices + GRAIN - 1) / GRAIN;
+		final int[][] sources = new int[numberOfChunks][];
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+
+				for (int v = chunk * GRAIN; v < end; v++) {
+					for (int i = 0; i < ParallelKahnTopologicalOrder.this.dg.degree(v); i++) {
+						inDegrees.incrementAndGet(ParallelKahnTopologicalOrder.this.dg.getAdjacentVertex(v, i));
+					}
+				}
+			}
+		});
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+				int[] chunkSources = new int[end - chunk * GRAIN];
+				int size = 0;
+
+				for (int v = chunk * GRAIN; v < end; v++) {
+					if (inDegrees.get(v) == 0) {
+						chunkSources[size++] = v;
+					}
+				}
+
+				sources[chunk] = Arrays.copyOf(chunkSources, size);
+			}
+		});
+
+		int[] queue = new int[numberOfVertices];
+		int[] offsets = new int[16];
+		int numberOfLevels = 0;
+		int tail = 0;
+
+		int[] level = ChunksAction.concat(sources);
+
+		while (level.length > 0) {
+			if (numberOfLevels == offsets.length) {
+				offsets = Arrays.copyOf(offsets, numberOfLevels * 2);
+			}
+			offsets[numberOfLevels++] = tail;
+
+			System.arraycopy(level, 0, queue, tail, level.length);
+			tail += level.length;
+
+			level = nextLevel(level, inDegrees);
+		}
+
+		// the vertices left are on a directed cycle or reachable from one
+		if (tail == numberOfVertices) {
+			order = queue;
+			levelOffsets = Arrays.copyOf(offsets, numberOfLevels + 1);
+			levelOffsets[numberOfLevels] = tail;
+
+			levels = new int[numberOfVertices];
+			for (int i = 0; i < numberOfLevels; i++) {
+				for (int j = levelOffsets[i]; j < levelOffsets[i + 1]; j++) {
+					levels[order[j]] = i;
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean isDag() {
+		return order != null;
+	}
+
+	@Override
+	public Iterable<Integer> topologicalOrder() {
+		if (order == null) {
+			return null;
+		}
+
+		return toQueue(0, order.length);
+	}
+
+	/**
+	 * Gets the number of levels, i.e. the number of vertices of the longest path of the DAG
+	 *
+	 * @return the number of levels
+	 */
+	public int getNumberOfLevels() {
+		validateDag();
+
+		return levelOffsets.length - 1;
+	}
+
+	/**
+	 * Gets the vertices of a level, which do not depend on each other
+	 *
+	 * @param level a level, between 0 and the number of levels - 1
+	 * @return the vertices whose longest path reaching them has this number of edges
+	 */
+	public Iterable<Integer> level(int level) {
+		validateDag();
+
+		if (level < 0 || level >= levelOffsets.length - 1) {
+			throw new IllegalArgumentException("Level " + level + " is not between 0 and " + (levelOffsets.length - 2));
+		}
+
+		return toQueue(levelOffsets[level], levelOffsets[level + 1]);
+	}
+
+	/**
+	 * Gets the level of a vertex
+	 *
+	 * @param v a vertex
+	 * @return the number of edges of the longest path reaching v
+	 */
+	public int getLevel(int v) {
+		validateDag();
+
+		if (v < 0 || v >= levels.length) {
+			throw new IllegalArgumentException("Vertex " + v + " is not between 0 and " + (levels.length - 1));
+		}
+
+		return levels[v];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {\norder: " + Arrays.toString(order) + ",\nlevelOffsets: " + Arrays.toString(levelOffsets) + "\n}";
+	}
+
+	/**
+	 * Removes the vertices of a level, in parallel chunks, and returns the vertices whose in-degree gets to 0
+	 */
+	private int[] nextLevel(final int[] level, final AtomicIntegerArray inDegrees) {
+		final int numberOfChunks = (level.length + GRAIN - 1) / GRAIN;
+		final int[][] next = new int[numberOfChunks][];
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int[] chunkNext = new int[16];
+				int size = 0;
+
+				int end = Math.min(level.length, (chunk + 1) * GRAIN);
+				for (int j = chunk * GRAIN; j < end; j++) {
+					int v = level[j];
+
+					for (int i = 0; i < dg.degree(v); i++) {
+						int w = dg.getAdjacentVertex(v, i);
+
+						if (inDegrees.decrementAndGet(w) == 0) {
+							if (size == chunkNext.length) {
+								chunkNext = Arrays.copyOf(chunkNext, size * 2);
+							}
+							chunkNext[size++] = w;
+						}
+					}
+				}
+
+				next[chunk] = Arrays.copyOf(chunkNext, size);
+			}
+		});
+
+		return ChunksAction.concat(next);
+	}
+
+	private void validateDag() {
+		if (order == null) {
+			throw new UnsupportedOperationException("Digraph has a directed cycle");
+		}
+	}
+
+	private Queue<Integer> toQueue(int from, int to) {
+		Queue<Integer> vertices = new LinkedQueue<>();
+
+		for (int i = from; i < to; i++) {
+			vertices.enqueue(order[i]);
+		}
+
+		return vertices;
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph dg = new DirectedGraph(13);
+		dg.addEdge(0, 5);
+		dg.addEdge(0, 1);
+		dg.addEdge(0, 6);
+		dg.addEdge(2, 0);
+		dg.addEdge(2, 3);
+		dg.addEdge(3, 5);
+		dg.addEdge(5, 4);
+		dg.addEdge(6, 4);
+		dg.addEdge(6, 9);
+		dg.addEdge(7, 6);
+		dg.addEdge(8, 7);
+		dg.addEdge(9, 11);
+		dg.addEdge(9, 12);
+		dg.addEdge(9, 10);
+		dg.addEdge(11, 12);
+		System.out.println(dg);
+
+		ParallelKahnTopologicalOrder pkto = new ParallelKahnTopologicalOrder(dg);
+		System.out.println(pkto);
+		System.out.println("Is a DAG: " + pkto.isDag());
+		System.out.println("Topological order: " + pkto.topologicalOrder());
+
+		for (int level = 0; level < pkto.getNumberOfLevels(); level++) {
+			System.out.println("Level " + level + ": " + pkto.level(level));
+		}
+
+		System.out.println("Level of 12: " + pkto.getLevel(12));
+	}
+}
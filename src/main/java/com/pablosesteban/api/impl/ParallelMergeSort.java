@@ -0,0 +1,318 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.pablosesteban.api.Sort;
+
+/**
+ * A parallel implementation of the TOP DOWN mergesort, run on a ForkJoinPool, which splits both the sort of the halves
+ * and the merge of the sorted halves into tasks.
+ * Sorting both halves in parallel leaves the final merge, which takes time proportional to N, on a single thread, so
+ * the merges are also split: the middle item of the longest sub-array is the splitting item, a binary search finds
+ * where it goes in the other sub-array, and the items before and after it in both sub-arrays are merged by two tasks
+ * into both sides of its final position, recursively, so the merge takes time proportional to lg^2 N with enough threads.
+ * Sub-arrays and merges below a threshold are done by a single task, with an insertion sort for tiny sub-arrays.
+ * The sort is STABLE, i.e. equal items keep their relative order: the items of the left sub-array go before the equal
+ * items of the right sub-array in every merge, as the binary searches put the items equal to the splitting item on
+ * the right of it if it comes from the left sub-array, and on its left if it comes from the right one.
+ * Instead of copying the sub-arrays to an auxiliary array on each merge, the levels of the recursion alternate between
+ * the array and an auxiliary array (the buffer) of the same length: the halves are sorted into the buffer and then
+ * merged back into the array, and the other way around on the next level. The buffer can be given by the caller, to
+ * reuse it between sorts, or it is taken from the sort, which keeps the last buffer used for the next sort, so sorting
+ * batches of similar lengths allocates a single buffer.
+ *
+ * @param <T> type of elements in the array
+ */
+public class ParallelMergeSort<T extends Comparable<T>> implements Sort<T> {
+	// sub-arrays up to this length are sorted by a single task
+	private static final int SORT_THRESHOLD = 1 << 13;
+	// merges up to this length are done by a single task
+	private static final int MERGE_THRESHOLD = 1 << 13;
+	private static final int CUTOFF_LENGTH_INSERTION_SORT = 7;
+
+	private final ForkJoinPool pool;
+	// a buffer not in use, taken by a sort and given back when it is done, so each one is used by a single sort
+	private final AtomicReference<Object[]> pooledBuffer;
+
+	/**
+	 * Creates a sort running on the common ForkJoinPool
+	 */
+	public ParallelMergeSort() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a sort running on a pool
+	 *
+	 * @param pool the pool to sort the sub-arrays and merge them
+	 */
+	public ParallelMergeSort(ForkJoinPool pool) {
+		this.pool = pool;
+
+		pooledBuffer = new AtomicReference<>();
+	}
+
+	/**
+	 * Sorts the array with the pooled buffer, allocating a new one if it is in use or too short
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void sort(T[] arr) {
+		T[] buffer = (T[]) pooledBuffer.getAndSet(null);
+
+		if (buffer == null || buffer.length < arr.length) {
+			buffer = (T[]) new Comparable<?>[arr.length];
+		}
+
+		sort(arr, buffer);
+
+		// the items are not needed anymore, and keeping them would keep them from being collected
+		Arrays.fill(buffer, 0, arr.length, null);
+		pooledBuffer.set(buffer);
+	}
+
+	/**
+	 * Sorts the array with a buffer given by the caller
+	 *
+	 * @param arr array to be sorted
+	 * @param buffer auxiliary array at least as long as arr, whose items are overwritten
+	 */
+	public void sort(T[] arr, T[] buffer) {
+		if (buffer.length < arr.length) {
+			throw new IllegalArgumentException("Buffer length must be at least " + arr.length + ": " + buffer.length);
+		}
+
+		if (buffer == arr) {
+			throw new IllegalArgumentException("Buffer must not be the array to be sorted");
+		}
+
+		if (arr.length <= SORT_THRESHOLD) {
+			sequentialSort(arr, buffer, 0, arr.length);
+		}else {
+			pool.invoke(new SortAction(arr, buffer, 0, arr.length, false));
+		}
+	}
+
+	/**
+	 * Sorts the sub-array arr[lo..hi-1] in place, using the same range of the buffer for the merges
+	 */
+	private void sequentialSort(T[] arr, T[] buffer, int lo, int hi) {
+		if (hi - lo <= CUTOFF_LENGTH_INSERTION_SORT) {
+			insertionSort(arr, lo, hi);
+
+			return;
+		}
+
+		int mid = lo + (hi - lo) / 2;
+
+		sequentialSort(arr, buffer, lo, mid);
+		sequentialSort(arr, buffer, mid, hi);
+
+		// check whether the array is already in order
+		if (arr[mid].compareTo(arr[mid - 1]) < 0) {
+			System.arraycopy(arr, lo, buffer, lo, hi - lo);
+
+			merge(buffer, lo, mid, mid, hi, arr, lo);
+		}
+	}
+
+	private void insertionSort(T[] arr, int lo, int hi) {
+		for (int i = lo + 1; i < hi; i++) {
+			T item = arr[i];
+			int j = i;
+
+			// strictly less, so equal items are not moved past each other
+			for (; j > lo && item.compareTo(arr[j - 1]) < 0; j--) {
+				arr[j] = arr[j - 1];
+			}
+
+			arr[j] = item;
+		}
+	}
+
+	/**
+	 * Merges the sorted sub-arrays src[leftLo..leftHi-1] and src[rightLo..rightHi-1] into dst, from dstLo, taking from the
+	 * left on equal items
+	 */
+	private void merge(T[] src, int leftLo, int leftHi, int rightLo, int rightHi, T[] dst, int dstLo) {
+		int i = leftLo, j = rightLo, k = dstLo;
+
+		while (i < leftHi && j < rightHi) {
+			if (src[j].compareTo(src[i]) < 0) {
+				dst[k++] = src[j++];
+			}else {
+				dst[k++] = src[i++];
+			}
+		}
+
+		System.arraycopy(src, i, dst, k, leftHi - i);
+		System.arraycopy(src, j, dst, k + leftHi - i, rightHi - j);
+	}
+
+	// the first index in src[lo..hi-1] whose item is not less than the item (hi if there is none)
+	private int lowerBound(T[] src, int lo, int hi, T item) {
+		while (lo < hi) {
+			int mid = lo + (hi - lo) / 2;
+
+			if (src[mid].compareTo(item) < 0) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+
+	// the first index in src[lo..hi-1] whose item is greater than the item (hi if there is none)
+	private int upperBound(T[] src, int lo, int hi, T item) {
+		while (lo < hi) {
+			int mid = lo + (hi - lo) / 2;
+
+			if (src[mid].compareTo(item) <= 0) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+
+		return lo;
+	}
+
+	/**
+	 * Sorts the sub-array arr[lo..hi-1], leaving the result in the same range of the array or of the buffer
+	 */
+	private class SortAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final T[] arr;
+		private final T[] buffer;
+		private final int lo;
+		private final int hi;
+		private final boolean intoBuffer;
+
+		SortAction(T[] arr, T[] buffer, int lo, int hi, boolean intoBuffer) {
+			this.arr = arr;
+			this.buffer = buffer;
+			this.lo = lo;
+			this.hi = hi;
+			this.intoBuffer = intoBuffer;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo <= SORT_THRESHOLD) {
+				sequentialSort(arr, buffer, lo, hi);
+
+				if (intoBuffer) {
+					System.arraycopy(arr, lo, buffer, lo, hi - lo);
+				}
+
+				return;
+			}
+
+			int mid = lo + (hi - lo) / 2;
+
+			// the halves are sorted into the other array, to be merged into this one
+			invokeAll(new SortAction(arr, buffer, lo, mid, !intoBuffer), new SortAction(arr, buffer, mid, hi, !intoBuffer));
+
+			T[] src = intoBuffer ? arr : buffer;
+			T[] dst = intoBuffer ? buffer : arr;
+
+			new MergeAction(src, lo, mid, mid, hi, dst, lo).compute();
+		}
+	}
+
+	/**
+	 * Merges the sorted sub-arrays src[leftLo..leftHi-1] and src[rightLo..rightHi-1] into dst, from dstLo, splitting the
+	 * merge around the middle item of the longest one
+	 */
+	private class MergeAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final T[] src;
+		private final int leftLo;
+		private final int leftHi;
+		private final int rightLo;
+		private final int rightHi;
+		private final T[] dst;
+		private final int dstLo;
+
+		MergeAction(T[] src, int leftLo, int leftHi, int rightLo, int rightHi, T[] dst, int dstLo) {
+			this.src = src;
+			this.leftLo = leftLo;
+			this.leftHi = leftHi;
+			this.rightLo = rightLo;
+			this.rightHi = rightHi;
+			this.dst = dst;
+			this.dstLo = dstLo;
+		}
+
+		@Override
+		protected void compute() {
+			int leftLength = leftHi - leftLo;
+			int rightLength = rightHi - rightLo;
+
+			if (leftLength + rightLength <= MERGE_THRESHOLD) {
+				merge(src, leftLo, leftHi, rightLo, rightHi, dst, dstLo);
+
+				return;
+			}
+
+			int leftMid, rightMid;
+			MergeAction before, after;
+
+			if (leftLength >= rightLength) {
+				// the right items equal to the splitting item go after it
+				leftMid = leftLo + leftLength / 2;
+				rightMid = lowerBound(src, rightLo, rightHi, src[leftMid]);
+
+				int k = dstLo + (leftMid - leftLo) + (rightMid - rightLo);
+				dst[k] = src[leftMid];
+
+				before = new MergeAction(src, leftLo, leftMid, rightLo, rightMid, dst, dstLo);
+				after = new MergeAction(src, leftMid + 1, leftHi, rightMid, rightHi, dst, k + 1);
+			}else {
+				// the left items equal to the splitting item go before it
+				rightMid = rightLo + rightLength / 2;
+				leftMid = upperBound(src, leftLo, leftHi, src[rightMid]);
+
+				int k = dstLo + (leftMid - leftLo) + (rightMid - rightLo);
+				dst[k] = src[rightMid];
+
+				before = new MergeAction(src, leftLo, leftMid, rightLo, rightMid, dst, dstLo);
+				after = new MergeAction(src, leftMid, leftHi, rightMid + 1, rightHi, dst, k + 1);
+			}
+
+			invokeAll(before, after);
+		}
+	}
+
+	public static void main(String[] args) {
+		String[] arr = {"M", "E", "R", "G", "E", "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E"};
+
+		System.out.println("Unsorted: " + Arrays.toString(arr));
+
+		ParallelMergeSort<String> mergeSort = new ParallelMergeSort<>();
+
+		mergeSort.sort(arr);
+
+		System.out.println("Sorted:   " + Arrays.toString(arr));
+
+		Integer[] numbers = new Integer[1 << 16];
+		Integer[] buffer = new Integer[numbers.length];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = (numbers.length - i) / 4;
+		}
+
+		new ParallelMergeSort<Integer>().sort(numbers, buffer);
+
+		System.out.println("Sorted (reverse order, own buffer): " + numbers[0] + ", " + numbers[1] + ", ..., " + numbers[numbers.length - 1]);
+	}
+}
@@ -0,0 +1,310 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.impl.UndirectedGraph;
+import com.pablosesteban.api.GraphConnectedComponents;
+
+/**
+ * A parallel connected components implementation based on the Afforest algorithm, which links the vertices of each
+ * edge in a concurrent union-find, run in parallel chunks of vertices on a ForkJoinPool.
+ * Most of the edges of a graph with a large component are within it, so linking all of them is wasted work once the
+ * component is found. Afforest avoids it by linking the edges in three steps:
+ * <li>NEIGHBOR ROUNDS: each vertex is linked to its first few adjacent vertices, which is usually enough to build most
+ * of the large component with a small part of the edges.</li>
+ * <li>SAMPLING: the most frequent root among some random vertices is taken as the root of the largest component.</li>
+ * <li>FINISHING: each vertex not in that component is linked to the rest of its adjacent vertices. The vertices of the
+ * largest component are skipped, as each edge is in the adjacency lists of both of its vertices, so any edge leaving
+ * the component is linked from its other vertex.</li>
+ * Unlike the ConcurrentUnionFind, which links roots by rank, the union-find is a vertex-indexed AtomicIntegerArray of
+ * parents where the greater root is always linked to the lower one with a Compare-And-Swap (CAS), so links never form a
+ * cycle without ranks and the root of each component is its lowest vertex. A find links each vertex on the path to
+ * its grandparent (path halving).
+ * The components are numbered in the order of their lowest vertices, which gives the same identifiers as the sequential
+ * DFS of UngraphCC: the roots are counted per chunk and each chunk numbers its roots from its offset.
+ * The implementation uses space proportional to the number of vertices (V) and does work nearly proportional to V plus
+ * the number of edges (E) in the worst case, and to V plus the edges out of the largest component in practice.
+ */
+public class ParallelUngraphCC implements GraphConnectedComponents {
+	// vertices handled by each task
+	private static final int GRAIN = 4096;
+	// adjacent vertices linked to each vertex before sampling
+	private static final int NEIGHBOR_ROUNDS = 2;
+	// vertices sampled to find the largest component
+	private static final int SAMPLES = 1024;
+
+	private final Graph ug;
+	private final ForkJoinPool pool;
+
+	private int[] connectedTo;
+	private int count;
+
+	private AtomicIntegerArray parents;
+
+	/**
+	 * Finds the connected components of this undirected graph using the common ForkJoinPool
+	 *
+	 * @param ug the undirected graph
+	 */
+	public ParallelUngraphCC(Graph ug) {
+		this(ug, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the connected components of this undirected graph
+	 *
+	 * @param ug the undirected graph
+	 * @param pool the pool to run the chunks of vertices
+	 */
+	public ParallelUngraphCC(Graph ug, ForkJoinPool pool) {
+		this.ug = ug;
+		this.pool = pool;
+
+		int numberOfVertices = ug.size();
+
+		connectedTo = new int[numberOfVertices];
+		parents = new AtomicIntegerArray(numberOfVertices);
+
+		forEachChunk(new IntConsumer() {
+			@Override
+			public void accept(int v) {
+				parents.set(v, v);
+			}
+		});
+
+		for (int round = 0; round < NEIGHBOR_ROUNDS; round++) {
+			final int i = round;
+
+			forEachChunk(new IntConsumer() {
+				@Override
+				public void accept(int v) {
+					if (i < ParallelUngraphCC.this.ug.degree(v)) {
+						union(v, ParallelUngraphCC.this.ug.getAdjacentVertex(v, i));
+					}
+				}
+			});
+		}
+
+		final int largest = sampleRoot();
+
+		forEachChunk(new IntConsumer() {
+			@Override
+			public void accept(int v) {
+				if (find(v) == largest) {
+					return;
+				}
+
+				for (int i = NEIGHBOR_ROUNDS; i < ParallelUngraphCC.this.ug.degree(v); i++) {
+					union(v, ParallelUngraphCC.this.ug.getAdjacentVertex(v, i));
+				}
+			}
+		});
+
+		numberComponents();
+
+		// the union-find is only needed while finding the components
+		parents = null;
+	}
+
+	@Override
+	public boolean areConnected(int v, int w) {
+		return connectedTo[v] == connectedTo[w];
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public int getConnectedComponent(int v) {
+		return connectedTo[v];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {" + "\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
+	}
+
+	/**
+	 * Gets the most frequent root among random vertices, or -1 if there are no vertices
+	 */
+	private int sampleRoot() {
+		int numberOfVertices = ug.size();
+
+		if (numberOfVertices == 0) {
+			return -1;
+		}
+
+		Random random = new Random(0);
+		int[] roots = new int[SAMPLES];
+
+		for (int i = 0; i < SAMPLES; i++) {
+			roots[i] = find(random.nextInt(numberOfVertices));
+		}
+
+		Arrays.sort(roots);
+
+		int largest = roots[0];
+		int largestFrequency = 0;
+
+		for (int i = 0, j; i < SAMPLES; i = j) {
+			for (j = i + 1; j < SAMPLES && roots[j] == roots[i]; j++);
+
+			if (j - i > largestFrequency) {
+				largest = roots[i];
+				largestFrequency = j - i;
+			}
+		}
+
+		return largest;
+	}
+
+	/**
+	 * Links the greater root to the lower one. If another thread links the root in the meantime, the CAS fails and it
+	 * starts again from the new roots.
+	 */
+	private void union(int v, int w) {
+		while (true) {
+			int vRoot = find(v);
+			int wRoot = find(w);
+
+			if (vRoot == wRoot) {
+				return;
+			}
+
+			int high = Math.max(vRoot, wRoot);
+			int low = Math.min(vRoot, wRoot);
+
+			if (parents.compareAndSet(high, high, low)) {
+				return;
+			}
+		}
+	}
+
+	private int find(int v) {
+		while (true) {
+			int parent = parents.get(v);
+
+			if (parent == v) {
+				return v;
+			}
+
+			int grandparent = parents.get(parent);
+
+			// harmless if it fails, as it only makes the path shorter
+			if (parent != grandparent) {
+				parents.compareAndSet(v, parent, grandparent);
+			}
+
+			v = grandparent;
+		}
+	}
+
+	/**
+	 * Numbers the roots in vertex order and gives each vertex the number of its root
+	 */
+	private void numberComponents() {
+		final int numberOfVertices = ug.size();
+		final int numberOfChunks = (numberOfVertices + GRAIN - 1) / GRAIN;
+		final int[] roots = new int[numberOfChunks];
+
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+
+				for (int v = chunk * GRAIN; v < end; v++) {
+					connectedTo[v] = find(v);
+
+					if (connectedTo[v] == v) {
+						roots[chunk]++;
+					}
+				}
+			}
+		});
+
+		for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+			int rootsInChunk = roots[chunk];
+
+			roots[chunk] = count;
+			count += rootsInChunk;
+		}
+
+		// the parent of a root is not needed anymore, so it keeps the number of its component
+		ChunksAction.forEachChunk(pool, numberOfChunks, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int component = roots[chunk];
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+
+				for (int v = chunk * GRAIN; v < end; v++) {
+					if (connectedTo[v] == v) {
+						parents.set(v, component++);
+					}
+				}
+			}
+		});
+
+		forEachChunk(new IntConsumer() {
+			@Override
+			public void accept(int v) {
+				connectedTo[v] = parents.get(connectedTo[v]);
+			}
+		});
+	}
+
+	/**
+	 * Runs the action for each vertex, in parallel chunks of vertices
+	 */
+	private void forEachChunk(final IntConsumer action) {
+		final int numberOfVertices = ug.size();
+
+		ChunksAction.forEachChunk(pool, (numberOfVertices + GRAIN - 1) / GRAIN, new IntConsumer() {
+			@Override
+			public void accept(int chunk) {
+				int end = Math.min(numberOfVertices, (chunk + 1) * GRAIN);
+
+				for (int v = chunk * GRAIN; v < end; v++) {
+					action.accept(v);
+				}
+			}
+		});
+	}
+
+	public static void main(String[] args) {
+		UndirectedGraph ug = new UndirectedGraph(13);
+
+		ug.addEdge(0, 5);
+		ug.addEdge(4, 3);
+		ug.addEdge(0, 1);
+		ug.addEdge(9, 12);
+		ug.addEdge(6, 4);
+		ug.addEdge(5, 4);
+		ug.addEdge(0, 2);
+		ug.addEdge(11, 12);
+		ug.addEdge(9, 10);
+		ug.addEdge(0, 6);
+		ug.addEdge(7, 8);
+		ug.addEdge(9, 11);
+		ug.addEdge(5, 3);
+
+		System.out.println(ug);
+
+		GraphConnectedComponents pugcc = new ParallelUngraphCC(ug);
+		System.out.println(pugcc);
+
+		System.out.println("areConnected 0 3: " + pugcc.areConnected(0, 3));
+		System.out.println("areConnected 0 7: " + pugcc.areConnected(0, 7));
+
+		System.out.println("count (UngraphCC): " + new UngraphCC(ug).getCount());
+	}
+}
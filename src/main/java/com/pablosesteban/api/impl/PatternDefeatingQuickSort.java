@@ -0,0 +1,443 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.pablosesteban.api.Sort;
+
+/**
+ * An implementation for sorting an array of elements based on the Pattern-Defeating Quicksort (pdqsort) of Orson
+ * Peters, which keeps the average speed of the randomized quicksort, without shuffling the array, while it is linear
+ * on common patterns (sorted, reverse sorted or equal keys) and guarantees N lgN compares in the worst case.
+ * It improves the STANDARD quicksort in several ways:<br>
+ * <ul>
+ * <li>PIVOT: the partitioning item is the median of the first, middle and last items, or the median of three such
+ * medians (the ninther) for large sub-arrays, so it is close to the true median without randomness.</li>
+ * <li>BLOCK PARTITIONING: based on the BlockQuicksort of Edelkamp and Weiss, the items are compared in blocks, recording
+ * the offsets of the items on the wrong side of each block first and then exchanging them, so the outcome of a compare
+ * only decides which entry of the offsets is written next instead of whether to stop a scan, which avoids most of the
+ * branch mispredictions of the classic partitioning.</li>
+ * <li>EQUAL KEYS: if the partitioning item is equal to the item just before the sub-array (which is the partitioning
+ * item of a previous partition, so no item of the sub-array is less than it), all the items equal to it are put on
+ * the left and skipped, so each distinct key is partitioned once, as in the THREE WAY quicksort.</li>
+ * <li>PATTERNS: if a partition exchanges no items, the sub-array may already be sorted, so both halves are tried with
+ * an insertion sort which gives up after moving a few items, which sorts ascending runs in linear time.</li>
+ * <li>BAD PARTITIONS: a partition leaving less than 1/8 of the items on a side is bad, and some items of both sides are
+ * exchanged to break the pattern that caused it. After lg N bad partitions the sub-array is sorted by HeapSort, so the
+ * worst case is N lgN.</li>
+ * </ul>
+ * Small sub-arrays are sorted by insertion sort. Unlike the classic recursion, only the left sub-array is sorted by a
+ * recursive call, while the right one is sorted by the same loop.
+ * Given a ForkJoinPool, large left sub-arrays are sorted by tasks forked on the pool instead of recursive calls, as the
+ * sub-arrays are disjoint, so the sort runs in parallel once the first partitions are done.
+ *
+ * @param <T> type of elements in the array
+ */
+public class PatternDefeatingQuickSort<T extends Comparable<T>> implements Sort<T> {
+	// sub-arrays smaller than this are sorted by insertion sort
+	private static final int INSERTION_SORT_THRESHOLD = 24;
+	// sub-arrays larger than this take the ninther as partitioning item
+	private static final int NINTHER_THRESHOLD = 128;
+	// items moved by a partial insertion sort before giving up
+	private static final int PARTIAL_INSERTION_SORT_LIMIT = 8;
+	// items compared in each block of the partitioning
+	private static final int BLOCK_SIZE = 64;
+	// sub-arrays larger than this are sorted by forked tasks
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a sequential sort
+	 */
+	public PatternDefeatingQuickSort() {
+		this(null);
+	}
+
+	/**
+	 * Creates a sort running on a pool
+	 *
+	 * @param pool the pool to sort large sub-arrays in parallel, or null to sort sequentially
+	 */
+	public PatternDefeatingQuickSort(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	public void sort(T[] arr) {
+		if (arr.length < 2) {
+			return;
+		}
+
+		int badAllowed = 31 - Integer.numberOfLeadingZeros(arr.length);
+
+		if (pool != null && arr.length > PARALLEL_THRESHOLD) {
+			pool.invoke(new SortAction(arr, 0, arr.length, badAllowed, true));
+		}else {
+			sort(arr, 0, arr.length, badAllowed, true);
+		}
+	}
+
+	/**
+	 * Sorts the sub-array arr[begin..end-1], where leftmost is false if the item just before it is not greater than any
+	 * of its items, forking tasks for large left sub-arrays if there is a pool
+	 *
+	 * @param arr array to be sorted
+	 * @param begin lowest index in the array
+	 * @param end index after the highest one in the array
+	 * @param badAllowed bad partitions left before falling back to HeapSort
+	 * @param leftmost whether the sub-array is at the beginning of the array
+	 */
+	private void sort(T[] arr, int begin, int end, int badAllowed, boolean leftmost) {
+		RecursiveAction[] forked = new RecursiveAction[0];
+
+		while (true) {
+			int size = end - begin;
+
+			if (size < INSERTION_SORT_THRESHOLD) {
+				insertionSort(arr, begin, end, leftmost);
+
+				break;
+			}
+
+			int half = size / 2;
+
+			if (size > NINTHER_THRESHOLD) {
+				sort3(arr, begin, begin + half, end - 1);
+				sort3(arr, begin + 1, begin + half - 1, end - 2);
+				sort3(arr, begin + 2, begin + half + 1, end - 3);
+				sort3(arr, begin + half - 1, begin + half, begin + half + 1);
+				exchange(arr, begin, begin + half);
+			}else {
+				sort3(arr, begin + half, begin, end - 1);
+			}
+
+			// the items equal to the partitioning item are in their final position, to the left of the rest
+			if (!leftmost && !less(arr[begin - 1], arr[begin])) {
+				begin = partitionLeft(arr, begin, end) + 1;
+
+				continue;
+			}
+
+			int partitioningItemIndex = partitionRight(arr, begin, end);
+			boolean alreadyPartitioned = partitioningItemIndex < 0;
+
+			if (alreadyPartitioned) {
+				partitioningItemIndex = -partitioningItemIndex - 1;
+			}
+
+			int leftSize = partitioningItemIndex - begin;
+			int rightSize = end - partitioningItemIndex - 1;
+
+			if (leftSize < size / 8 || rightSize < size / 8) {
+				if (--badAllowed == 0) {
+					HeapSort.sort(arr, begin, end - 1);
+
+					break;
+				}
+
+				breakPatterns(arr, begin, partitioningItemIndex, end, leftSize, rightSize);
+			}else if (alreadyPartitioned && partialInsertionSort(arr, begin, partitioningItemIndex)
+					&& partialInsertionSort(arr, partitioningItemIndex + 1, end)) {
+				break;
+			}
+
+			if (pool != null && leftSize > PARALLEL_THRESHOLD) {
+				forked = Arrays.copyOf(forked, forked.length + 1);
+				forked[forked.length - 1] = new SortAction(arr, begin, partitioningItemIndex, badAllowed, leftmost);
+				forked[forked.length - 1].fork();
+			}else {
+				sort(arr, begin, partitioningItemIndex, badAllowed, leftmost);
+			}
+
+			begin = partitioningItemIndex + 1;
+			leftmost = false;
+		}
+
+		for (RecursiveAction action : forked) {
+			action.join();
+		}
+	}
+
+	/**
+	 * Partitions arr[begin..end-1] around the partitioning item arr[begin], putting the items equal to it on the right,
+	 * comparing blocks of items from both ends and exchanging the items on the wrong sides of each pair of blocks.
+	 * The first scans need no bounds, as the median selection leaves an item not less than the partitioning item after it.
+	 *
+	 * @return the index of the partitioning item, or -index-1 if no item had to be exchanged
+	 */
+	private int partitionRight(T[] arr, int begin, int end) {
+		T partitioningItem = arr[begin];
+		int first = begin;
+		int last = end;
+
+		while (less(arr[++first], partitioningItem));
+
+		if (first - 1 == begin) {
+			while (first < last && !less(arr[--last], partitioningItem));
+		}else {
+			while (!less(arr[--last], partitioningItem));
+		}
+
+		boolean alreadyPartitioned = first >= last;
+
+		if (!alreadyPartitioned) {
+			exchange(arr, first, last);
+			first++;
+
+			// arr[first..last-1] are the unknown items, and the blocks are read from the bases of the left and right sides
+			int[] leftOffsets = new int[BLOCK_SIZE];
+			int[] rightOffsets = new int[BLOCK_SIZE];
+			int leftBase = first;
+			int rightBase = last;
+			int leftCount = 0, rightCount = 0, leftStart = 0, rightStart = 0;
+
+			while (first < last) {
+				int unknown = last - first;
+				int leftSplit = leftCount == 0 ? (rightCount == 0 ? unknown / 2 : unknown) : 0;
+				int rightSplit = rightCount == 0 ? unknown - leftSplit : 0;
+
+				// the offset is always written, but only kept (counted) if the item is on the wrong side
+				for (int i = 0, n = Math.min(leftSplit, BLOCK_SIZE); i < n; i++) {
+					leftOffsets[leftCount] = i;
+					leftCount += less(arr[first++], partitioningItem) ? 0 : 1;
+				}
+
+				for (int i = 1, n = Math.min(rightSplit, BLOCK_SIZE); i <= n; i++) {
+					rightOffsets[rightCount] = i;
+					rightCount += less(arr[--last], partitioningItem) ? 1 : 0;
+				}
+
+				int exchanges = Math.min(leftCount, rightCount);
+				for (int i = 0; i < exchanges; i++) {
+					exchange(arr, leftBase + leftOffsets[leftStart + i], rightBase - rightOffsets[rightStart + i]);
+				}
+
+				leftCount -= exchanges;
+				rightCount -= exchanges;
+				leftStart += exchanges;
+				rightStart += exchanges;
+
+				if (leftCount == 0) {
+					leftStart = 0;
+					leftBase = first;
+				}
+
+				if (rightCount == 0) {
+					rightStart = 0;
+					rightBase = last;
+				}
+			}
+
+			// the items left on the wrong side of a block are moved to the boundary
+			while (leftCount > 0) {
+				exchange(arr, leftBase + leftOffsets[leftStart + --leftCount], --last);
+			}
+			first = Math.min(first, last);
+
+			while (rightCount > 0) {
+				exchange(arr, rightBase - rightOffsets[rightStart + --rightCount], first++);
+			}
+		}
+
+		int partitioningItemIndex = first - 1;
+
+		arr[begin] = arr[partitioningItemIndex];
+		arr[partitioningItemIndex] = partitioningItem;
+
+		return alreadyPartitioned ? -partitioningItemIndex - 1 : partitioningItemIndex;
+	}
+
+	/**
+	 * Partitions arr[begin..end-1] around the partitioning item arr[begin], putting the items equal to it on the left,
+	 * when no item is less than it, so the left part is made of items equal to it
+	 *
+	 * @return the index of the partitioning item
+	 */
+	private int partitionLeft(T[] arr, int begin, int end) {
+		T partitioningItem = arr[begin];
+		int first = begin;
+		int last = end;
+
+		while (less(partitioningItem, arr[--last]));
+
+		if (last + 1 == end) {
+			while (first < last && !less(partitioningItem, arr[++first]));
+		}else {
+			while (!less(partitioningItem, arr[++first]));
+		}
+
+		while (first < last) {
+			exchange(arr, first, last);
+
+			while (less(partitioningItem, arr[--last]));
+			while (!less(partitioningItem, arr[++first]));
+		}
+
+		arr[begin] = arr[last];
+		arr[last] = partitioningItem;
+
+		return last;
+	}
+
+	/**
+	 * Exchanges some items at the quartiles of both sides of a bad partition with items near their ends, which are the
+	 * candidates for the next partitioning items
+	 */
+	private void breakPatterns(T[] arr, int begin, int partitioningItemIndex, int end, int leftSize, int rightSize) {
+		if (leftSize >= INSERTION_SORT_THRESHOLD) {
+			exchange(arr, begin, begin + leftSize / 4);
+			exchange(arr, partitioningItemIndex - 1, partitioningItemIndex - leftSize / 4);
+
+			if (leftSize > NINTHER_THRESHOLD) {
+				exchange(arr, begin + 1, begin + leftSize / 4 + 1);
+				exchange(arr, begin + 2, begin + leftSize / 4 + 2);
+				exchange(arr, partitioningItemIndex - 2, partitioningItemIndex - leftSize / 4 - 1);
+				exchange(arr, partitioningItemIndex - 3, partitioningItemIndex - leftSize / 4 - 2);
+			}
+		}
+
+		if (rightSize >= INSERTION_SORT_THRESHOLD) {
+			exchange(arr, partitioningItemIndex + 1, partitioningItemIndex + rightSize / 4 + 1);
+			exchange(arr, end - 1, end - rightSize / 4);
+
+			if (rightSize > NINTHER_THRESHOLD) {
+				exchange(arr, partitioningItemIndex + 2, partitioningItemIndex + rightSize / 4 + 2);
+				exchange(arr, partitioningItemIndex + 3, partitioningItemIndex + rightSize / 4 + 3);
+				exchange(arr, end - 2, end - rightSize / 4 - 1);
+				exchange(arr, end - 3, end - rightSize / 4 - 2);
+			}
+		}
+	}
+
+	/**
+	 * Insertion sort of arr[begin..end-1] moving larger items one position to the right. If the sub-array is not the
+	 * leftmost one, the item before it is a sentinel not greater than any of its items, so the scans need no bound
+	 */
+	private void insertionSort(T[] arr, int begin, int end, boolean leftmost) {
+		for (int i = begin + 1; i < end; i++) {
+			T item = arr[i];
+			int j = i;
+
+			if (leftmost) {
+				for (; j > begin && less(item, arr[j - 1]); j--) {
+					arr[j] = arr[j - 1];
+				}
+			}else {
+				for (; less(item, arr[j - 1]); j--) {
+					arr[j] = arr[j - 1];
+				}
+			}
+
+			arr[j] = item;
+		}
+	}
+
+	/**
+	 * Insertion sort of arr[begin..end-1] which gives up after moving PARTIAL_INSERTION_SORT_LIMIT items
+	 *
+	 * @return true if, and only if, the sub-array was sorted
+	 */
+	private boolean partialInsertionSort(T[] arr, int begin, int end) {
+		int moved = 0;
+
+		for (int i = begin + 1; i < end; i++) {
+			if (!less(arr[i], arr[i - 1])) {
+				continue;
+			}
+
+			T item = arr[i];
+			int j = i;
+
+			for (; j > begin && less(item, arr[j - 1]); j--) {
+				arr[j] = arr[j - 1];
+			}
+
+			arr[j] = item;
+
+			moved += i - j;
+			if (moved > PARTIAL_INSERTION_SORT_LIMIT) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// sorts the items at these three indices, leaving the median at j
+	private void sort3(T[] arr, int i, int j, int k) {
+		if (less(arr[j], arr[i])) {
+			exchange(arr, i, j);
+		}
+
+		if (less(arr[k], arr[j])) {
+			exchange(arr, j, k);
+		}
+
+		if (less(arr[j], arr[i])) {
+			exchange(arr, i, j);
+		}
+	}
+
+	private boolean less(T v, T w) {
+		return v.compareTo(w) < 0;
+	}
+
+	private void exchange(T[] arr, int i, int j) {
+		T item = arr[i];
+
+		arr[i] = arr[j];
+		arr[j] = item;
+	}
+
+	/**
+	 * Sorts a sub-array on the pool
+	 */
+	private class SortAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final T[] arr;
+		private final int begin;
+		private final int end;
+		private final int badAllowed;
+		private final boolean leftmost;
+
+		SortAction(T[] arr, int begin, int end, int badAllowed, boolean leftmost) {
+			this.arr = arr;
+			this.begin = begin;
+			this.end = end;
+			this.badAllowed = badAllowed;
+			this.leftmost = leftmost;
+		}
+
+		@Override
+		protected void compute() {
+			sort(arr, begin, end, badAllowed, leftmost);
+		}
+	}
+
+	public static void main(String[] args) {
+		String[] arr = {"Q", "U", "I", "C", "K", "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E"};
+
+		System.out.println("Unsorted: " + Arrays.toString(arr));
+
+		PatternDefeatingQuickSort<String> quickSort = new PatternDefeatingQuickSort<>();
+
+		quickSort.sort(arr);
+
+		System.out.println("Sorted:   " + Arrays.toString(arr));
+
+		Integer[] numbers = new Integer[1 << 16];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = numbers.length - i;
+		}
+
+		new PatternDefeatingQuickSort<Integer>(ForkJoinPool.commonPool()).sort(numbers);
+
+		System.out.println("Sorted (parallel, reverse order): " + numbers[0] + ", " + numbers[1] + ", ..., " + numbers[numbers.length - 1]);
+	}
+}
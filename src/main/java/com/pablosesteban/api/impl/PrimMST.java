@@ -8,6 +8,7 @@ import java.util.Arrays;
 
 import com.pablosesteban.adt.Queue;
 import com.pablosesteban.adt.WeightedGraph;
+import com.pablosesteban.adt.impl.CompressedSparseRowWeightedGraph;
 import com.pablosesteban.adt.impl.Edge;
 import com.pablosesteban.adt.impl.LinkedQueue;
 import com.pablosesteban.adt.impl.UndirectedWeightedGraph;
@@ -27,21 +28,24 @@ import edu.princeton.cs.algs4.IndexMinPQ;
  * <li>A vertex-indexed boolean array, where each entry is true if the vertex is currently on the tree.</li>
  * <li>A vertex-indexed priority queue that store the edge's lowest weight for each non-tree vertex which
  * connects it to the tree.</li></ul>
- * <li>A vertex-indexed array of edges (edgeTo) and a vertex-indexed double array (weightTo) where if a
+ * <li>A vertex-indexed int array (edgeTo) and a vertex-indexed double array (weightTo) where if a
  * vertex v is not on the tree but has at least one edge connecting it to the tree, then edgeTo[v] is the
- * shortest edge connecting v to the tree, and weightTo[v] is the weight of that edge. All such vertices
+ * tree vertex of the shortest edge connecting v to the tree, and weightTo[v] is the weight of that edge,
+ * so the edge is known without keeping an Edge object per vertex. All such vertices
  * v are maintained on the vertex-indexed priority queue, as an index v associated with the weight of edgeTo[v].</li>
  * The algorithm maintains on the vertex-indexed priority queue just one edge for each non-tree vertex w, i.e.
  * the shortest edge that connects it to the tree. Any longer edge connecting w to the tree will become
  * ineligible at some point, so there is no need to keep it on the vertex-indexed priority queue.
  * The implementation uses space proportional to twice the number of edges (E) plus extra space proportional
  * to number of vertices (V) and time proportional to E log V, in the worst case, to compute the MST.
+ * Edges are scanned through the primitive cursor of WeightedGraph, so it runs on any backend, including the
+ * CompressedSparseRowWeightedGraph, creating Edge objects just for the V - 1 edges of the MST.
  */
 public class PrimMST implements WeightedUngraphMinimumSpanningTree {
 	private boolean[] marked;
 	private Queue<Edge> mst;
 	private IndexMinPQ<Double> crossingEdges;
-	private Edge[] edgeTo;
+	private int[] edgeTo;
 	private double[] weightTo;
 	private double weight;
 
@@ -50,15 +54,16 @@ public class PrimMST implements WeightedUngraphMinimumSpanningTree {
 	 * 
 	 * @param uwg a weighted graph
 	 */
-	public PrimMST(UndirectedWeightedGraph uwg) {
+	public PrimMST(WeightedGraph uwg) {
 		marked = new boolean[uwg.size()];
 		crossingEdges = new IndexMinPQ<>(uwg.size());
-		edgeTo = new Edge[uwg.size()];
+		edgeTo = new int[uwg.size()];
 		weightTo = new double[uwg.size()];
 		mst = new LinkedQueue<>();
 
 		for (int i = 0; i < weightTo.length; i++) {
 			weightTo[i] = Double.POSITIVE_INFINITY;
+			edgeTo[i] = -1;
 		}
 
 		weightTo[0] = 0.0;
@@ -69,11 +74,9 @@ public class PrimMST implements WeightedUngraphMinimumSpanningTree {
 		}
 
 		for (int i = 0; i < edgeTo.length; i++) {
-			Edge e = edgeTo[i];
-
-			if (e != null) {
-				weight += e.getWeight();
-				mst.enqueue(e);
+			if (edgeTo[i] != -1) {
+				weight += weightTo[i];
+				mst.enqueue(new Edge(edgeTo[i], i, weightTo[i]));
 			}
 		}
 	}
@@ -107,16 +110,18 @@ public class PrimMST implements WeightedUngraphMinimumSpanningTree {
 	private void addCrossingEdges(WeightedGraph wg, int v) {
 		marked[v] = true;
 
-		for (Edge e : wg.getIncidentEdges(v)) {
-			int toVertex = e.getTo();
+		for (int i = 0; i < wg.degree(v); i++) {
+			int toVertex = wg.getAdjacentVertex(v, i);
 
 			if (marked[toVertex]) {
 				continue;
 			}
 
-			if (e.getWeight() < weightTo[toVertex]) {
-				edgeTo[toVertex] = e;
-				weightTo[toVertex] = e.getWeight();
+			double edgeWeight = wg.getIncidentWeight(v, i);
+
+			if (edgeWeight < weightTo[toVertex]) {
+				edgeTo[toVertex] = v;
+				weightTo[toVertex] = edgeWeight;
 
 				if (crossingEdges.contains(toVertex)) {
 					crossingEdges.changeKey(toVertex, weightTo[toVertex]);
@@ -134,6 +139,7 @@ public class PrimMST implements WeightedUngraphMinimumSpanningTree {
 		PrimMST primMST = new PrimMST(uwg);
 		System.out.println(primMST);
 
-		IndexMinPQ<String> impq = new IndexMinPQ<>(10);
+		PrimMST csrPrimMST = new PrimMST(CompressedSparseRowWeightedGraph.read("weighted_graph_tiny.txt", WeightedGraph.Type.UNDIRECTED));
+		System.out.println(csrPrimMST);
 	}
 }
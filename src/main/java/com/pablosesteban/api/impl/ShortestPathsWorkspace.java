@@ -0,0 +1,104 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.IndexMinPriorityQueue;
+import com.pablosesteban.adt.impl.DaryIndexMinPQ;
+
+/**
+ * The vertex-indexed arrays of a single Dijkstra-like search (weightTo, edgeTo and edgeWeightTo, as in DijkstraSP)
+ * plus its index priority queue, allocated once and reused by many searches over the same graph.
+ * Resetting the arrays before each search would take time proportional to V even if the search only reaches a few
+ * vertices, so each entry is stamped with the version of the search which wrote it instead, and an entry whose
+ * version is not the current one reads as not reached: reset() just increments the version (and clears the priority
+ * queue), so each search takes time proportional to the part of the graph it explores.
+ * A workspace is not thread-safe, each thread must use its own one.
+ */
+class ShortestPathsWorkspace {
+	private final double[] weightTo;
+	private final int[] edgeTo;
+	private final double[] edgeWeightTo;
+	private final int[] versions;
+	private final IndexMinPriorityQueue crossingEdges;
+	private int version;
+
+	/**
+	 * Creates a workspace for a graph with a 4-ary heap as index priority queue
+	 *
+	 * @param numberOfVertices the number of vertices in the graph
+	 */
+	ShortestPathsWorkspace(int numberOfVertices) {
+		this(numberOfVertices, new DaryIndexMinPQ(numberOfVertices));
+	}
+
+	ShortestPathsWorkspace(int numberOfVertices, IndexMinPriorityQueue crossingEdges) {
+		weightTo = new double[numberOfVertices];
+		edgeTo = new int[numberOfVertices];
+		edgeWeightTo = new double[numberOfVertices];
+		versions = new int[numberOfVertices];
+		this.crossingEdges = crossingEdges;
+	}
+
+	/**
+	 * Forgets the previous search, so every vertex reads as not reached
+	 */
+	void reset() {
+		if (version == Integer.MAX_VALUE) {
+			Arrays.fill(versions, 0);
+
+			version = 0;
+		}
+
+		version++;
+
+		crossingEdges.clear();
+	}
+
+	boolean isReached(int v) {
+		return versions[v] == version;
+	}
+
+	/**
+	 * Gets the weight of the shortest known path to v in the current search
+	 *
+	 * @return the weight, infinity if v has not been reached
+	 */
+	double weightTo(int v) {
+		return isReached(v) ? weightTo[v] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Gets the vertex the last edge on the shortest known path to v comes from
+	 *
+	 * @return the vertex, -1 if v is the source or has not been reached
+	 */
+	int edgeTo(int v) {
+		return isReached(v) ? edgeTo[v] : -1;
+	}
+
+	double edgeWeightTo(int v) {
+		return edgeWeightTo[v];
+	}
+
+	/**
+	 * Records a shorter path to v whose last edge comes from the vertex parent (-1 for the source)
+	 */
+	void reach(int v, double weight, int parent, double edgeWeight) {
+		versions[v] = version;
+
+		weightTo[v] = weight;
+		edgeTo[v] = parent;
+		edgeWeightTo[v] = edgeWeight;
+	}
+
+	IndexMinPriorityQueue crossingEdges() {
+		return crossingEdges;
+	}
+
+	int size() {
+		return versions.length;
+	}
+}
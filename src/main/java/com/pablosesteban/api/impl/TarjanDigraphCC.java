@@ -0,0 +1,205 @@
+/**
+ * @author Pablo Santamarta Esteban <pablosesteban@gmail.com>
+ */
+package com.pablosesteban.api.impl;
+
+import java.util.Arrays;
+
+import com.pablosesteban.adt.Graph;
+import com.pablosesteban.adt.impl.DirectedGraph;
+import com.pablosesteban.api.GraphConnectedComponents;
+
+/**
+ * A strongly connected components implementation based on the Tarjan's algorithm, in the space-efficient variant of
+ * Pearce, which finds them in a single DFS of the digraph, without its reverse.
+ * Each vertex gets an increasing index when it is visited, and rindex[v] keeps the lowest index of a vertex reachable
+ * from v through the edges explored from v, which is v's own index if, and only if, v is the root (the first vertex
+ * visited) of its component. When the visit of a root is done, the vertices visited after it and not yet assigned
+ * to a component are on a stack, above the vertices of other components not completed yet, so they are popped and
+ * assigned to the component of the root.
+ * Tarjan's algorithm keeps on each vertex its index, its lowest reachable index and whether it is on the stack, while
+ * Pearce's variant keeps a single value per vertex:
+ * <li>The index of a vertex is not needed once its rindex[] is lower, as the vertex is not a root then, which is
+ * kept in a boolean per vertex on the DFS stack.</li>
+ * <li>The components are numbered downwards from V - 1 and a vertex assigned to a component takes its number as
+ * rindex[], which is greater than any index in use (indexes are reused, as they are only given to the vertices on the
+ * stacks), so an edge to a vertex of a completed component never lowers rindex[] and no onStack[] array is needed.</li>
+ * Components are found in reverse topological order of the digraph of components (the first one has no edges to
+ * other components) and each component identifier is V - 1 minus its number, so every edge between two components goes
+ * from a higher identifier to a lower one.
+ * The DFS manages its stack explicitly with int arrays instead of recursion, so deep digraphs do not overflow the thread
+ * stack, and it uses a few vertex-indexed int arrays, i.e. space proportional to the number of vertices (V), and time
+ * proportional to V plus the number of edges (E), with a single pass over the edges.
+ */
+public class TarjanDigraphCC implements GraphConnectedComponents {
+	private int[] connectedTo;
+	private int count;
+
+	private int[] rindex;
+	private boolean[] root;
+	private int[] nextAdjacentVertex;
+	private int[] dfsStack;
+	private int[] componentStack;
+	private int index;
+	private int component;
+	private int componentTop;
+
+	public TarjanDigraphCC(Graph dg) {
+		int numberOfVertices = dg.size();
+
+		rindex = new int[numberOfVertices];
+		root = new boolean[numberOfVertices];
+		nextAdjacentVertex = new int[numberOfVertices];
+		dfsStack = new int[numberOfVertices];
+		componentStack = new int[numberOfVertices];
+		index = 1;
+		component = numberOfVertices - 1;
+
+		for (int v = 0; v < numberOfVertices; v++) {
+			if (rindex[v] == 0) {
+				dfs(v, dg);
+			}
+		}
+
+		count = numberOfVertices - 1 - component;
+
+		// the identifier of each component is its number counting from V - 1 downwards
+		connectedTo = rindex;
+		for (int v = 0; v < numberOfVertices; v++) {
+			connectedTo[v] = numberOfVertices - 1 - connectedTo[v];
+		}
+
+		// the arrays are only needed while finding the components
+		rindex = null;
+		root = null;
+		nextAdjacentVertex = null;
+		dfsStack = null;
+		componentStack = null;
+	}
+
+	@Override
+	public boolean areConnected(int v, int w) {
+		return connectedTo[v] == connectedTo[w];
+	}
+
+	@Override
+	public int getCount() {
+		return count;
+	}
+
+	@Override
+	public int getConnectedComponent(int v) {
+		return connectedTo[v];
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " {" + "\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
+	}
+
+	private void dfs(int source, Graph dg) {
+		int top = 0;
+
+		visit(source);
+		dfsStack[top++] = source;
+
+		while (top > 0) {
+			int v = dfsStack[top - 1];
+
+			if (nextAdjacentVertex[v] < dg.degree(v)) {
+				int w = dg.getAdjacentVertex(v, nextAdjacentVertex[v]);
+
+				// the edge is finished once the visit of w is done
+				if (rindex[w] == 0) {
+					visit(w);
+					dfsStack[top++] = w;
+
+					continue;
+				}
+
+				finishEdge(v, w);
+				nextAdjacentVertex[v]++;
+			}else {
+				finishVisit(v);
+				top--;
+
+				if (top > 0) {
+					int u = dfsStack[top - 1];
+
+					finishEdge(u, v);
+					nextAdjacentVertex[u]++;
+				}
+			}
+		}
+	}
+
+	private void visit(int v) {
+		rindex[v] = index++;
+		root[v] = true;
+	}
+
+	private void finishEdge(int v, int w) {
+		if (rindex[w] < rindex[v]) {
+			rindex[v] = rindex[w];
+			root[v] = false;
+		}
+	}
+
+	private void finishVisit(int v) {
+		if (!root[v]) {
+			componentStack[componentTop++] = v;
+
+			return;
+		}
+
+		index--;
+
+		while (componentTop > 0 && rindex[v] <= rindex[componentStack[componentTop - 1]]) {
+			int w = componentStack[--componentTop];
+
+			rindex[w] = component;
+			index--;
+		}
+
+		rindex[v] = component;
+		component--;
+	}
+
+	public static void main(String[] args) {
+		DirectedGraph dg = new DirectedGraph(13);
+
+		dg.addEdge(0, 1);
+		dg.addEdge(0, 5);
+		dg.addEdge(2, 0);
+		dg.addEdge(2, 3);
+		dg.addEdge(3, 2);
+		dg.addEdge(3, 5);
+		dg.addEdge(5, 4);
+		dg.addEdge(4, 2);
+		dg.addEdge(4, 3);
+		dg.addEdge(6, 0);
+		dg.addEdge(6, 4);
+		dg.addEdge(6, 9);
+		dg.addEdge(7, 6);
+		dg.addEdge(7, 8);
+		dg.addEdge(8, 7);
+		dg.addEdge(8, 9);
+		dg.addEdge(9, 11);
+		dg.addEdge(9, 10);
+		dg.addEdge(11, 12);
+		dg.addEdge(11, 4);
+		dg.addEdge(10, 12);
+		dg.addEdge(12, 9);
+
+		System.out.println(dg);
+
+		GraphConnectedComponents tdgcc = new TarjanDigraphCC(dg);
+		System.out.println(tdgcc);
+
+		System.out.println("areConnected 9 12: " + tdgcc.areConnected(9, 12));
+		System.out.println("areConnected 6 7: " + tdgcc.areConnected(6, 7));
+		System.out.println("areConnected 0 6: " + tdgcc.areConnected(0, 6));
+
+		System.out.println("count (DigraphCC): " + new DigraphCC(dg).getCount());
+	}
+}
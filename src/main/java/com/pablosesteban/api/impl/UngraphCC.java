@@ -22,19 +22,24 @@ public class UngraphCC implements GraphConnectedComponents {
     private boolean[] marked;
     private int[] connectedTo;
     private int count;
+    private int[] stack;
+    private int[] nextAdjacentVertex;
     
     /**
-     * Finds an unmarked vertex and uses the recursive DFS to mark and identify 
-     * all the vertices connected to it, continuing until all vertices have been
-     * marked and identified.
+     * Finds an unmarked vertex and uses DFS to mark and identify all the vertices
+     * connected to it, continuing until all vertices have been marked and
+     * identified. The DFS manages its stack explicitly with int arrays instead of
+     * recursion, so big components do not overflow the thread stack.
      * Preprocess the graph building the data structures that can efficiently
      * support client operations.
      * 
      * @param ug the undirected graph
      */
-    public UngraphCC(UndirectedGraph ug) {
+    public UngraphCC(Graph ug) {
         marked = new boolean[ug.size()];
         connectedTo = new int[ug.size()];
+        stack = new int[ug.size()];
+        nextAdjacentVertex = new int[ug.size()];
         
         for (int i = 0; i < ug.size(); i++) {
             if (!marked[i]) {
@@ -43,6 +48,10 @@ public class UngraphCC implements GraphConnectedComponents {
                 count++;
             }
         }
+
+        // the arrays are only needed while finding the components
+        stack = null;
+        nextAdjacentVertex = null;
     }
     
     @Override
@@ -65,17 +74,27 @@ public class UngraphCC implements GraphConnectedComponents {
         return getClass().getSimpleName() + " {" + "\nmarked: " + Arrays.toString(marked) + ",\nconnectedTo: " + Arrays.toString(connectedTo) + ",\ncount: " + count + "\n}";
     }
     
-    private void dfs(Graph g, int v) {
-        marked[v] = true;
+    private void dfs(Graph g, int source) {
+        int top = 0;
         
-        connectedTo[v] = count;
+        marked[source] = true;
+        connectedTo[source] = count;
+        stack[top++] = source;
         
-        if (g.getAdjacentVertices(v) != null) {
-        	for (Integer adjacentVertex : g.getAdjacentVertices(v)) {
-        		if (!marked[adjacentVertex]) {
-        			dfs(g, adjacentVertex);
-        		}
-        	}
+        while (top > 0) {
+            int v = stack[top - 1];
+            
+            if (nextAdjacentVertex[v] < g.degree(v)) {
+                int adjacentVertex = g.getAdjacentVertex(v, nextAdjacentVertex[v]++);
+                
+                if (!marked[adjacentVertex]) {
+                    marked[adjacentVertex] = true;
+                    connectedTo[adjacentVertex] = count;
+                    stack[top++] = adjacentVertex;
+                }
+            }else {
+                top--;
+            }
         }
     }
     